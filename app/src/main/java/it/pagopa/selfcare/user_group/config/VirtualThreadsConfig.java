@@ -0,0 +1,75 @@
+package it.pagopa.selfcare.user_group.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the Tomcat request handling, and therefore the service and connector calls, on virtual threads,
+ * so that blocking on Mongo no longer holds a platform thread: concurrency is then bounded by the Mongo
+ * connection pool (MONGODB_MAX_POOL_SIZE) instead of the Tomcat worker pool.
+ * Virtual threads are looked up reflectively, since the build targets Java 17, and a Java 21 runtime is required.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "user-group.virtual-threads", name = "enabled", havingValue = "true")
+class VirtualThreadsConfig {
+
+    static final String TRACE_PINNED_THREADS_PROPERTY = "jdk.tracePinnedThreads";
+
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        // the executor isn't exposed as a bean, which would replace the task executor Spring Boot auto-configures
+        VirtualThreadsProtocolHandlerCustomizer customizer = new VirtualThreadsProtocolHandlerCustomizer(newVirtualThreadPerTaskExecutor());
+        if (System.getProperty(TRACE_PINNED_THREADS_PROPERTY) == null) {
+            log.info("Request handling runs on virtual threads, add -D{}=short to JAVA_TOOL_OPTIONS to log the carrier thread pinning",
+                    TRACE_PINNED_THREADS_PROPERTY);
+        } else {
+            log.info("Request handling runs on virtual threads, carrier thread pinning is traced");
+        }
+        return customizer;
+    }
+
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(String.format("Virtual threads aren't available on Java %s, a Java 21 runtime is required",
+                    Runtime.version().feature()), e);
+        }
+    }
+
+
+    static class VirtualThreadsProtocolHandlerCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, DisposableBean {
+
+        private final ExecutorService executor;
+
+
+        VirtualThreadsProtocolHandlerCustomizer(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            protocolHandler.setExecutor(executor);
+        }
+
+
+        @Override
+        public void destroy() {
+            executor.shutdown();
+        }
+
+    }
+
+}
@@ -0,0 +1,114 @@
+package it.pagopa.selfcare.user_group.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Times every {@link it.pagopa.selfcare.user_group.core.UserGroupService} call and every call actually reaching
+ * Mongo through {@code UserGroupConnectorImpl}, tagged by operation and exception, together with the size of the
+ * returned pages and lists, the number of members of the returned groups and the outcome of the member operations.
+ * Writes that match or modify nothing surface as the {@code ResourceNotFoundException} and
+ * {@code ResourceUpdateException} exception tags.
+ * Percentiles are computed in process: the histogram buckets, one series each per operation and exception,
+ * are only published when enabled through {@code USER_GROUP_METRICS_PERCENTILES_HISTOGRAM}.
+ */
+@Slf4j
+@Aspect
+@Component
+public class OperationMetricsAspect {
+
+    static final String CONNECTOR_METRIC = "user-group.connector";
+    static final String SERVICE_METRIC = "user-group.service";
+    static final String RESULT_SIZE_SUFFIX = ".result.size";
+    static final String RESULT_MEMBERS_SUFFIX = ".result.members";
+    static final String MEMBER_OPERATIONS_SUFFIX = ".member-operations";
+    static final String OPERATION_TAG = "operation";
+    static final String EXCEPTION_TAG = "exception";
+    static final String OUTCOME_TAG = "outcome";
+    static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+
+    @Autowired
+    public OperationMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+
+    @Around("within(it.pagopa.selfcare.user_group.connector.dao.UserGroupConnectorImpl) && execution(public * *(..))")
+    public Object timeConnector(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(CONNECTOR_METRIC, joinPoint);
+    }
+
+
+    @Around("execution(public * it.pagopa.selfcare.user_group.core.UserGroupService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(SERVICE_METRIC, joinPoint);
+    }
+
+
+    private Object record(String metric, ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        String exception = NO_EXCEPTION;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Object result = joinPoint.proceed();
+            recordResult(metric, operation, result);
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(metric)
+                    .tag(OPERATION_TAG, operation)
+                    .tag(EXCEPTION_TAG, exception)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+
+    private void recordResult(String metric, String operation, Object result) {
+        if (result instanceof Optional) {
+            result = ((Optional<?>) result).orElse(null);
+        }
+        if (result instanceof Slice) {
+            summary(metric + RESULT_SIZE_SUFFIX, operation).record(((Slice<?>) result).getNumberOfElements());
+        } else if (result instanceof Collection) {
+            summary(metric + RESULT_SIZE_SUFFIX, operation).record(((Collection<?>) result).size());
+            ((Collection<?>) result).stream()
+                    .filter(MemberOperationResult.class::isInstance)
+                    .map(MemberOperationResult.class::cast)
+                    .forEach(memberOperation -> meterRegistry.counter(metric + MEMBER_OPERATIONS_SUFFIX,
+                                    OPERATION_TAG, operation,
+                                    OUTCOME_TAG, memberOperation.getOutcome().name())
+                            .increment());
+        } else if (result instanceof UserGroupOperations) {
+            Collection<?> members = ((UserGroupOperations) result).getMembers();
+            summary(metric + RESULT_MEMBERS_SUFFIX, operation).record(members == null ? 0 : members.size());
+        }
+    }
+
+
+    private DistributionSummary summary(String name, String operation) {
+        return DistributionSummary.builder(name)
+                .tag(OPERATION_TAG, operation)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+}
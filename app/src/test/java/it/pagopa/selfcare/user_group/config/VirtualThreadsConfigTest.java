@@ -0,0 +1,60 @@
+package it.pagopa.selfcare.user_group.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+class VirtualThreadsConfigTest {
+
+    private static final int VIRTUAL_THREADS_RELEASE = 21;
+
+
+    @Test
+    void newVirtualThreadPerTaskExecutor_unsupportedRuntime() {
+        assumeTrue(Runtime.version().feature() < VIRTUAL_THREADS_RELEASE);
+        //when
+        Executable executable = VirtualThreadsConfig::newVirtualThreadPerTaskExecutor;
+        //then
+        IllegalStateException e = assertThrows(IllegalStateException.class, executable);
+        assertTrue(e.getMessage().contains("a Java 21 runtime is required"));
+    }
+
+
+    @Test
+    void newVirtualThreadPerTaskExecutor() throws Exception {
+        assumeTrue(Runtime.version().feature() >= VIRTUAL_THREADS_RELEASE);
+        //given
+        ExecutorService executor = VirtualThreadsConfig.newVirtualThreadPerTaskExecutor();
+        //when
+        Future<Object> isVirtual = executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+        //then
+        assertEquals(Boolean.TRUE, isVirtual.get());
+        executor.shutdown();
+    }
+
+
+    @Test
+    void virtualThreadsProtocolHandlerCustomizer() {
+        //given
+        ExecutorService executorMock = mock(ExecutorService.class);
+        ProtocolHandler protocolHandlerMock = mock(ProtocolHandler.class);
+        VirtualThreadsConfig.VirtualThreadsProtocolHandlerCustomizer customizer = new VirtualThreadsConfig.VirtualThreadsProtocolHandlerCustomizer(executorMock);
+        //when
+        customizer.customize(protocolHandlerMock);
+        customizer.destroy();
+        //then
+        verify(protocolHandlerMock, times(1))
+                .setExecutor(executorMock);
+        verify(executorMock, times(1))
+                .shutdown();
+        verifyNoMoreInteractions(protocolHandlerMock, executorMock);
+    }
+
+}
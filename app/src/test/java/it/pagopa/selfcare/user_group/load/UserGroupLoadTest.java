@@ -0,0 +1,297 @@
+package it.pagopa.selfcare.user_group.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.pagopa.selfcare.user_group.SelfCareUserGroupApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Boots the whole application on the embedded Mongo, seeds {@code load.institutions} x {@code load.groups} groups
+ * of {@code load.members} members each and drives a mix of reads and member updates from {@code load.threads}
+ * concurrent clients, reporting throughput and latency percentiles per endpoint.
+ * Excluded from the default build, it runs with {@code ./mvnw -P load-test -pl app -am test}.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(classes = SelfCareUserGroupApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.it.pagopa.selfcare=WARN")
+class UserGroupLoadTest {
+
+    private static final int INSTITUTIONS = Integer.getInteger("load.institutions", 10);
+    private static final int GROUPS = Integer.getInteger("load.groups", 20);
+    private static final int MEMBERS = Integer.getInteger("load.members", 50);
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT30S"));
+    private static final String BASE_PATH = "/user-groups/v1";
+    private static final String PRODUCT_ID = "prod-load";
+    private static final KeyPair KEY_PAIR = generateKeyPair();
+
+    private enum Endpoint {
+        GET_USER_GROUPS(50),
+        GET_USER_GROUP(30),
+        ADD_MEMBER(15),
+        DELETE_MEMBERS(5);
+
+        private final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final class SeededGroup {
+        private final String institutionId;
+        private final String id;
+        private final List<String> members;
+
+        private SeededGroup(String institutionId, String id, List<String> members) {
+            this.institutionId = institutionId;
+            this.id = id;
+            this.members = members;
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private final String authorization = "Bearer " + createJwt();
+
+
+    @DynamicPropertySource
+    static void jwtProperties(DynamicPropertyRegistry registry) {
+        registry.add("JWT_TOKEN_PUBLIC_KEY", () -> "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getEncoder().encodeToString(KEY_PAIR.getPublic().getEncoded())
+                + "\n-----END PUBLIC KEY-----");
+    }
+
+
+    @Test
+    void load() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<SeededGroup> groups = seed(executor);
+            run(executor, groups, WARMUP, null, null);
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                errors.put(endpoint, new AtomicLong());
+            }
+            //when
+            run(executor, groups, DURATION, registry, errors);
+            //then
+            report(registry, errors);
+            errors.forEach((endpoint, count) -> assertEquals(0, count.get(), endpoint + " errors"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    private List<SeededGroup> seed(ExecutorService executor) throws Exception {
+        Instant start = Instant.now();
+        List<Future<SeededGroup>> futures = new ArrayList<>(INSTITUTIONS * GROUPS);
+        for (int i = 0; i < INSTITUTIONS; i++) {
+            String institutionId = UUID.randomUUID().toString();
+            for (int j = 0; j < GROUPS; j++) {
+                String name = "group-" + j;
+                futures.add(executor.submit(() -> createGroup(institutionId, name)));
+            }
+        }
+        List<SeededGroup> groups = new ArrayList<>(futures.size());
+        for (Future<SeededGroup> future : futures) {
+            groups.add(future.get());
+        }
+        log.warn("Seeded {} institutions x {} groups x {} members in {}", INSTITUTIONS, GROUPS, MEMBERS, Duration.between(start, Instant.now()));
+        return groups;
+    }
+
+
+    private SeededGroup createGroup(String institutionId, String name) throws Exception {
+        List<String> members = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(UUID.randomUUID().toString());
+        }
+        Map<String, Object> body = Map.of("institutionId", institutionId,
+                "productId", PRODUCT_ID,
+                "name", name,
+                "description", "load test group",
+                "status", "ACTIVE",
+                "members", members);
+        HttpResponse<String> response = httpClient.send(request(BASE_PATH + "/")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Unable to seed group, status " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode group = objectMapper.readTree(response.body());
+        return new SeededGroup(institutionId, group.get("id").asText(), members);
+    }
+
+
+    private void run(ExecutorService executor, List<SeededGroup> groups, Duration duration,
+                     SimpleMeterRegistry registry, Map<Endpoint, AtomicLong> errors) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<?>> clients = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            clients.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    Endpoint endpoint = pickEndpoint();
+                    HttpRequest request = request(endpoint, groups.get(ThreadLocalRandom.current().nextInt(groups.size())));
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    long elapsed = System.nanoTime() - start;
+                    if (registry != null) {
+                        timer(registry, endpoint).record(elapsed, TimeUnit.NANOSECONDS);
+                        if (response.statusCode() >= 400) {
+                            errors.get(endpoint).incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> client : clients) {
+            client.get();
+        }
+    }
+
+
+    private HttpRequest request(Endpoint endpoint, SeededGroup group) {
+        String member = group.members.get(ThreadLocalRandom.current().nextInt(group.members.size()));
+        switch (endpoint) {
+            case GET_USER_GROUPS:
+                return request(BASE_PATH + "/?institutionId=" + group.institutionId + "&productId=" + PRODUCT_ID
+                        + "&status=ACTIVE&page=0&size=20&sort=name,ASC")
+                        .GET()
+                        .build();
+            case GET_USER_GROUP:
+                return request(BASE_PATH + "/" + group.id)
+                        .GET()
+                        .build();
+            case ADD_MEMBER:
+                return request(BASE_PATH + "/" + group.id + "/members/" + UUID.randomUUID())
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build();
+            case DELETE_MEMBERS:
+                return request(BASE_PATH + "/members/" + member + "?institutionId=" + group.institutionId + "&productId=" + PRODUCT_ID)
+                        .DELETE()
+                        .build();
+            default:
+                throw new IllegalArgumentException(endpoint.name());
+        }
+    }
+
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", authorization)
+                .header("Accept", "application/json");
+    }
+
+
+    private static Endpoint pickEndpoint() {
+        int totalWeight = Arrays.stream(Endpoint.values()).mapToInt(endpoint -> endpoint.weight).sum();
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : Endpoint.values()) {
+            value -= endpoint.weight;
+            if (value < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+
+    private static Timer timer(SimpleMeterRegistry registry, Endpoint endpoint) {
+        return Timer.builder("load." + endpoint.name().toLowerCase(Locale.ROOT))
+                .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                .distributionStatisticExpiry(DURATION.multipliedBy(2))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+    }
+
+
+    private static void report(SimpleMeterRegistry registry, Map<Endpoint, AtomicLong> errors) {
+        StringBuilder report = new StringBuilder(String.format("%nLoad test: %d institutions x %d groups x %d members, %d clients, %s%n",
+                INSTITUTIONS, GROUPS, MEMBERS, THREADS, DURATION));
+        report.append(String.format("%-16s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Endpoint endpoint : Endpoint.values()) {
+            HistogramSnapshot snapshot = timer(registry, endpoint).takeSnapshot();
+            report.append(String.format("%-16s %10d %10.1f %10d", endpoint, snapshot.count(),
+                    snapshot.count() / (double) DURATION.toSeconds(), errors.get(endpoint).get()));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                report.append(String.format(" %10.2f", percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            report.append(String.format(" %10.2f%n", snapshot.max(TimeUnit.MILLISECONDS)));
+        }
+        log.warn(report.toString());
+    }
+
+
+    private static String createJwt() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long now = Instant.now().getEpochSecond();
+        String header = encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(String.format("{\"sub\":\"%1$s\",\"uid\":\"%1$s\",\"name\":\"load\",\"family_name\":\"test\"," +
+                        "\"email\":\"load.test@example.com\",\"iss\":\"SPID\",\"iat\":%2$d,\"exp\":%3$d}",
+                UUID.randomUUID(), now, now + Duration.ofDays(1).toSeconds()).getBytes(StandardCharsets.UTF_8));
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(KEY_PAIR.getPrivate());
+            signature.update((header + "." + claims).getBytes(StandardCharsets.UTF_8));
+            return header + "." + claims + "." + encoder.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package it.pagopa.selfcare.user_group.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationOutcome;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationType;
+import it.pagopa.selfcare.user_group.core.UserGroupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static it.pagopa.selfcare.user_group.metrics.OperationMetricsAspect.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class OperationMetricsAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UserGroupService groupServiceMock = Mockito.mock(UserGroupService.class);
+
+    private UserGroupService groupService;
+
+
+    @BeforeEach
+    void setUp() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(groupServiceMock);
+        proxyFactory.addInterface(UserGroupService.class);
+        proxyFactory.addAspect(new OperationMetricsAspect(meterRegistry));
+        groupService = proxyFactory.getProxy();
+    }
+
+
+    @Test
+    void timeService() {
+        //given
+        UserGroupOperations group = Mockito.mock(UserGroupOperations.class);
+        when(group.getMembers())
+                .thenReturn(Set.of(UUID.randomUUID(), UUID.randomUUID()));
+        when(groupServiceMock.getUserGroup(any()))
+                .thenReturn(group);
+        //when
+        groupService.getUserGroup("id");
+        //then
+        Timer timer = meterRegistry.find(SERVICE_METRIC)
+                .tags(OPERATION_TAG, "getUserGroup", EXCEPTION_TAG, NO_EXCEPTION)
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        DistributionSummary members = meterRegistry.find(SERVICE_METRIC + RESULT_MEMBERS_SUFFIX)
+                .tags(OPERATION_TAG, "getUserGroup")
+                .summary();
+        assertNotNull(members);
+        assertEquals(2, members.totalAmount());
+    }
+
+
+    @Test
+    void timeService_exception() {
+        //given
+        when(groupServiceMock.getUserGroup(any()))
+                .thenThrow(ResourceNotFoundException.class);
+        //when
+        Executable executable = () -> groupService.getUserGroup("id");
+        //then
+        assertThrows(ResourceNotFoundException.class, executable);
+        Timer timer = meterRegistry.find(SERVICE_METRIC)
+                .tags(OPERATION_TAG, "getUserGroup", EXCEPTION_TAG, ResourceNotFoundException.class.getSimpleName())
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        assertNull(meterRegistry.find(SERVICE_METRIC + RESULT_MEMBERS_SUFFIX).summary());
+    }
+
+
+    @Test
+    void timeService_page() {
+        //given
+        UserGroupOperations group = Mockito.mock(UserGroupOperations.class);
+        when(groupServiceMock.getUserGroups(any(), any()))
+                .thenReturn(new PageImpl<>(List.of(group, group, group), PageRequest.of(0, 3), 10));
+        //when
+        groupService.getUserGroups(null, PageRequest.of(0, 3));
+        //then
+        DistributionSummary size = meterRegistry.find(SERVICE_METRIC + RESULT_SIZE_SUFFIX)
+                .tags(OPERATION_TAG, "getUserGroups")
+                .summary();
+        assertNotNull(size);
+        assertEquals(3, size.totalAmount());
+    }
+
+
+    @Test
+    void timeService_memberOperations() {
+        //given
+        MemberOperation operation = new MemberOperation("groupId", "memberId", MemberOperationType.ADD);
+        when(groupServiceMock.updateMembers(any()))
+                .thenReturn(List.of(new MemberOperationResult(operation, MemberOperationOutcome.APPLIED, "institutionId"),
+                        new MemberOperationResult(operation, MemberOperationOutcome.GROUP_NOT_FOUND, null),
+                        new MemberOperationResult(operation, MemberOperationOutcome.APPLIED, "institutionId")));
+        //when
+        groupService.updateMembers(List.of(operation, operation, operation));
+        //then
+        assertEquals(2, meterRegistry.get(SERVICE_METRIC + MEMBER_OPERATIONS_SUFFIX)
+                .tags(OUTCOME_TAG, MemberOperationOutcome.APPLIED.name())
+                .counter()
+                .count());
+        assertEquals(1, meterRegistry.get(SERVICE_METRIC + MEMBER_OPERATIONS_SUFFIX)
+                .tags(OUTCOME_TAG, MemberOperationOutcome.GROUP_NOT_FOUND.name())
+                .counter()
+                .count());
+    }
+
+}
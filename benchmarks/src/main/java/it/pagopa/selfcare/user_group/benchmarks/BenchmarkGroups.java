@@ -0,0 +1,37 @@
+package it.pagopa.selfcare.user_group.benchmarks;
+
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.web.model.GroupDto;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+final class BenchmarkGroups {
+
+    private BenchmarkGroups() {
+    }
+
+
+    static GroupDto group(int membersCount) {
+        Set<UUID> members = new HashSet<>(membersCount * 2);
+        for (int i = 0; i < membersCount; i++) {
+            members.add(UUID.randomUUID());
+        }
+        GroupDto group = new GroupDto();
+        group.setId(UUID.randomUUID().toString());
+        group.setInstitutionId(UUID.randomUUID().toString());
+        group.setProductId("prod-io");
+        group.setName("Group name");
+        group.setDescription("Group description");
+        group.setStatus(UserGroupStatus.ACTIVE);
+        group.setMembers(members);
+        group.setCreatedAt(Instant.now());
+        group.setCreatedBy(UUID.randomUUID().toString());
+        group.setModifiedAt(Instant.now());
+        group.setModifiedBy(UUID.randomUUID().toString());
+        return group;
+    }
+
+}
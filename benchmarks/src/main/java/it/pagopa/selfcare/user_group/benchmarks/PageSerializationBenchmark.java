@@ -0,0 +1,60 @@
+package it.pagopa.selfcare.user_group.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import it.pagopa.selfcare.commons.web.model.Page;
+import it.pagopa.selfcare.commons.web.model.mapper.PageMapper;
+import it.pagopa.selfcare.user_group.web.model.UserGroupResource;
+import it.pagopa.selfcare.user_group.web.model.mapper.UserGroupMapper;
+import it.pagopa.selfcare.user_group.web.model.mapper.UserGroupMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the getUserGroups response body, with an object mapper configured as the Spring Boot one
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    @Param({"10", "1000"})
+    private int membersCount;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private Page<UserGroupResource> page;
+
+
+    @Setup
+    public void setUp() {
+        UserGroupMapper mapper = new UserGroupMapperImpl();
+        List<UserGroupResource> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(mapper.toResource(BenchmarkGroups.group(membersCount)));
+        }
+        page = PageMapper.map(new PageImpl<>(content, PageRequest.of(0, pageSize), pageSize * 10L));
+    }
+
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+}
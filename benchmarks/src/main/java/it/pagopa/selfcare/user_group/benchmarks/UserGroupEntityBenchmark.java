@@ -0,0 +1,34 @@
+package it.pagopa.selfcare.user_group.benchmarks;
+
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import it.pagopa.selfcare.user_group.web.model.GroupDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserGroupEntityBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int membersCount;
+
+    private GroupDto group;
+
+
+    @Setup
+    public void setUp() {
+        group = BenchmarkGroups.group(membersCount);
+    }
+
+
+    @Benchmark
+    public UserGroupEntity copyConstructor() {
+        return new UserGroupEntity(group);
+    }
+
+}
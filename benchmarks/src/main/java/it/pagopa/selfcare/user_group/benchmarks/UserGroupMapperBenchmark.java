@@ -0,0 +1,46 @@
+package it.pagopa.selfcare.user_group.benchmarks;
+
+import it.pagopa.selfcare.user_group.web.model.GroupDto;
+import it.pagopa.selfcare.user_group.web.model.UserGroupResource;
+import it.pagopa.selfcare.user_group.web.model.mapper.UserGroupMapper;
+import it.pagopa.selfcare.user_group.web.model.mapper.UserGroupMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UserGroupMapperBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int membersCount;
+
+    private final UserGroupMapper mapper = new UserGroupMapperImpl();
+
+    private GroupDto group;
+
+
+    @Setup
+    public void setUp() {
+        group = BenchmarkGroups.group(membersCount);
+    }
+
+
+    @Benchmark
+    public UserGroupResource toResource() {
+        return mapper.toResource(group);
+    }
+
+
+    @Benchmark
+    public List<UUID> getMembersUUID() {
+        return mapper.getMembersUUID(group);
+    }
+
+}
@@ -0,0 +1,47 @@
+package it.pagopa.selfcare.user_group.connector.dao;
+
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criteria building, up to the rendering of the query document, for every combination of the getUserGroups filters.
+ * It lives in the connector package to reach the package-private {@link UserGroupConnectorImpl#constructCriteria}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConstructCriteriaBenchmark {
+
+    /**
+     * Bit mask of the filters set: institutionId, productId, userId and status
+     */
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15"})
+    private int filters;
+
+    private UserGroupFilter filter;
+
+
+    @Setup
+    public void setUp() {
+        filter = new UserGroupFilter((filters & 1) != 0 ? UUID.randomUUID().toString() : null,
+                (filters & 2) != 0 ? "prod-io" : null,
+                (filters & 4) != 0 ? UUID.randomUUID().toString() : null,
+                (filters & 8) != 0 ? List.of(UserGroupStatus.ACTIVE, UserGroupStatus.SUSPENDED) : List.of());
+    }
+
+
+    @Benchmark
+    public Document constructCriteria() {
+        return UserGroupConnectorImpl.constructCriteria(filter).getCriteriaObject();
+    }
+
+}
@@ -0,0 +1,26 @@
+package it.pagopa.selfcare.user_group.connector.api;
+
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking variant of the read operations of {@link UserGroupConnector}
+ */
+public interface ReactiveUserGroupConnector {
+
+    Mono<UserGroupOperations> findById(String id);
+
+    Mono<Boolean> existsMember(String id, String memberId);
+
+    Flux<MemberGroup> findGroupsOfMember(String memberId, List<UserGroupStatus> status);
+
+    Mono<Page<UserGroupOperations>> findAll(UserGroupFilter filter, Pageable pageable);
+
+}
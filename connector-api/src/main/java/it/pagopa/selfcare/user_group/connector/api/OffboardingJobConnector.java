@@ -0,0 +1,22 @@
+package it.pagopa.selfcare.user_group.connector.api;
+
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJobStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OffboardingJobConnector {
+    OffboardingJob insert(OffboardingJob job);
+
+    Optional<OffboardingJob> findById(String id);
+
+    List<OffboardingJob> claimPending(int maxCount, Duration claimTimeout);
+
+    void complete(Collection<String> ids, OffboardingJobStatus status);
+
+    long deleteCompletedBefore(Instant expiration);
+}
@@ -1,29 +1,66 @@
 package it.pagopa.selfcare.user_group.connector.api;
 
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * The writes of a single group return the institution it belongs to, as the results of a bulk update carry the one of
+ * each group, so that a cache can evict the queries of those institutions only, without reading the groups before
+ * the write.
+ */
 public interface UserGroupConnector {
     UserGroupOperations insert(UserGroupOperations entity);
 
-    UserGroupOperations save(UserGroupOperations entity);
+    String insertMember(String id, String memberId);
 
-    void insertMember(String id, String memberId);
+    String deleteMember(String id, String memberId);
 
-    void deleteMember(String id, String memberId);
+    UserGroupOperations updateGroup(String id, UserGroupOperations group);
 
     void deleteMembers(String memberId, String institutionId, String productId);
 
+    long bulkDeleteMembers(Set<String> memberIds, String institutionId, String productId, String modifiedBy);
+
+    List<MemberOperationResult> bulkUpdateMembers(List<MemberOperation> operations);
+
     Optional<UserGroupOperations> findById(String id);
 
+    UserGroupRevision findRevision(String id);
+
+    Page<UUID> findMembers(String id, Pageable pageable);
+
+    boolean existsMember(String id, String memberId);
+
+    List<MemberGroup> findGroupsOfMember(String memberId, List<UserGroupStatus> status);
+
     Page<UserGroupOperations> findAll(UserGroupFilter filter, Pageable pageable);
 
-    void activateById(String id);
+    Slice<UserGroupOperations> findSlice(UserGroupFilter filter, Pageable pageable);
+
+    Slice<UserGroupOperations> findAllAfter(UserGroupFilter filter, ContinuationToken continuationToken, int size);
+
+    Page<UserGroupSummary> findSummaries(UserGroupFilter filter, Pageable pageable);
+
+    Stream<UserGroupOperations> streamAll(UserGroupFilter filter);
+
+    String activateById(String id);
 
-    void deleteById(String id);
+    String deleteById(String id);
 
-    void suspendById(String id);
+    String suspendById(String id);
 }
@@ -4,6 +4,7 @@ import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
 
 import java.time.Instant;
 import java.util.Set;
+import java.util.UUID;
 
 public interface UserGroupOperations {
 
@@ -31,9 +32,9 @@ public interface UserGroupOperations {
 
     void setStatus(UserGroupStatus status);
 
-    Set<String> getMembers();
+    Set<UUID> getMembers();
 
-    void setMembers(Set<String> members);
+    void setMembers(Set<UUID> members);
 
     Instant getCreatedAt();
 
@@ -51,4 +52,8 @@ public interface UserGroupOperations {
 
     void setModifiedBy(String modifiedBy);
 
+    Long getVersion();
+
+    void setVersion(Long version);
+
 }
@@ -0,0 +1,11 @@
+package it.pagopa.selfcare.user_group.connector.exception;
+
+public class ResourceVersionMismatchException extends RuntimeException {
+    public ResourceVersionMismatchException(String msg) {
+        super(msg);
+    }
+
+    public ResourceVersionMismatchException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
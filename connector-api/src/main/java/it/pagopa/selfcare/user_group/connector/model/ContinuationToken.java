@@ -0,0 +1,97 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import lombok.Value;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Opaque pointer to the last group of a sorted result, used to fetch the following ones with a range query
+ * on (sort property, id) instead of skipping the previous ones.
+ */
+@Value
+public class ContinuationToken {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = ".";
+
+    String sortProperty;
+    Sort.Direction direction;
+    String sortValue;
+    String lastId;
+
+
+    public ContinuationToken(String sortProperty, Sort.Direction direction, String sortValue, String lastId) {
+        Assert.hasText(sortProperty, "A sort property is required");
+        Assert.notNull(direction, "A sort direction is required");
+        Assert.notNull(sortValue, "A sort value is required");
+        Assert.hasText(lastId, "A last id is required");
+        this.sortProperty = sortProperty;
+        this.direction = direction;
+        this.sortValue = sortValue;
+        this.lastId = lastId;
+    }
+
+
+    public Sort getSort() {
+        return Sort.by(direction, sortProperty);
+    }
+
+
+    public String encode() {
+        return String.join(SEPARATOR,
+                VERSION,
+                encodePart(sortProperty),
+                encodePart(direction.name()),
+                encodePart(sortValue),
+                encodePart(lastId));
+    }
+
+
+    public static ContinuationToken decode(String token) {
+        Assert.hasText(token, "A continuation token is required");
+        String[] parts = token.split("\\" + SEPARATOR, -1);
+        Assert.isTrue(parts.length == 5 && VERSION.equals(parts[0]), "Invalid continuation token");
+        try {
+            return new ContinuationToken(decodePart(parts[1]),
+                    Sort.Direction.fromString(decodePart(parts[2])),
+                    decodePart(parts[3]),
+                    decodePart(parts[4]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+
+
+    /**
+     * Builds the token pointing after the given group, if the sort is made of a single order on a text property.
+     */
+    public static Optional<ContinuationToken> after(UserGroupOperations last, Sort sort) {
+        if (last == null || last.getId() == null || sort.isUnsorted() || sort.stream().count() != 1) {
+            return Optional.empty();
+        }
+        Sort.Order order = sort.iterator().next();
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(last);
+        Object sortValue = wrapper.isReadableProperty(order.getProperty()) ? wrapper.getPropertyValue(order.getProperty()) : null;
+        if (!(sortValue instanceof String)) {
+            return Optional.empty();
+        }
+        return Optional.of(new ContinuationToken(order.getProperty(), order.getDirection(), (String) sortValue, last.getId()));
+    }
+
+
+    private static String encodePart(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private static String decodePart(String value) {
+        return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,12 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+import lombok.Data;
+
+/**
+ * Reference to a group a member belongs to, carrying only its id and name
+ */
+@Data
+public class MemberGroup {
+    private String id;
+    private String name;
+}
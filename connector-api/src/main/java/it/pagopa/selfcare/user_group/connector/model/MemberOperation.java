@@ -0,0 +1,10 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+import lombok.Value;
+
+@Value
+public class MemberOperation {
+    String groupId;
+    String memberId;
+    MemberOperationType type;
+}
@@ -0,0 +1,8 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+public enum MemberOperationOutcome {
+    APPLIED,
+    GROUP_NOT_FOUND,
+    GROUP_NOT_ACTIVE,
+    FAILED
+}
@@ -0,0 +1,10 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+import lombok.Value;
+
+@Value
+public class MemberOperationResult {
+    MemberOperation operation;
+    MemberOperationOutcome outcome;
+    String institutionId;
+}
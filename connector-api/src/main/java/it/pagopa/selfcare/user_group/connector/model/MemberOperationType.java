@@ -0,0 +1,6 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+public enum MemberOperationType {
+    ADD,
+    REMOVE
+}
@@ -0,0 +1,21 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Removal of a member from all the groups of an institution and product, applied asynchronously on behalf of the user
+ * that submitted it
+ */
+@Data
+public class OffboardingJob {
+    private String id;
+    private String memberId;
+    private String institutionId;
+    private String productId;
+    private OffboardingJobStatus status;
+    private Instant submittedAt;
+    private String submittedBy;
+    private Instant completedAt;
+}
@@ -0,0 +1,7 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+public enum OffboardingJobStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,24 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Revision of a single group: its version is increased by every write, and is the one expected by a conditional update
+ */
+@Data
+public class UserGroupRevision {
+    private long version;
+    private Instant modifiedAt;
+
+
+    public static UserGroupRevision of(UserGroupOperations group) {
+        UserGroupRevision revision = new UserGroupRevision();
+        // groups written before the version was introduced don't have one
+        revision.setVersion(group.getVersion() != null ? group.getVersion() : 0);
+        revision.setModifiedAt(group.getModifiedAt());
+        return revision;
+    }
+}
@@ -0,0 +1,16 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+import lombok.Data;
+
+/**
+ * Lightweight view of a group, carrying the number of its members instead of the members themselves
+ */
+@Data
+public class UserGroupSummary {
+    private String id;
+    private String institutionId;
+    private String productId;
+    private String name;
+    private UserGroupStatus status;
+    private int membersCount;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.time.Instant;
 import java.util.Set;
+import java.util.UUID;
 
 @Data
 public class DummyGroup implements UserGroupOperations {
@@ -17,9 +18,10 @@ public class DummyGroup implements UserGroupOperations {
     private String name;
     private String description;
     private UserGroupStatus status = UserGroupStatus.ACTIVE;
-    private Set<String> members = Set.of("string1", "string2");
+    private Set<UUID> members = Set.of(UUID.randomUUID(), UUID.randomUUID());
     private Instant createdAt;
     private String createdBy;
     private Instant modifiedAt;
     private String modifiedBy;
+    private Long version;
 }
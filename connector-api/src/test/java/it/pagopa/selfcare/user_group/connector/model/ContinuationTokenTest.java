@@ -0,0 +1,78 @@
+package it.pagopa.selfcare.user_group.connector.model;
+
+import it.pagopa.selfcare.user_group.connector.DummyGroup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContinuationTokenTest {
+
+    @Test
+    void encodeDecode() {
+        //given
+        ContinuationToken token = new ContinuationToken("name", Sort.Direction.DESC, "group.name with spaces", "id");
+        //when
+        ContinuationToken decoded = ContinuationToken.decode(token.encode());
+        //then
+        assertEquals(token, decoded);
+        assertEquals(Sort.by(Sort.Direction.DESC, "name"), decoded.getSort());
+    }
+
+    @Test
+    void decode_invalidToken() {
+        //when
+        Executable executable = () -> ContinuationToken.decode("v1.invalid");
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("Invalid continuation token", e.getMessage());
+    }
+
+    @Test
+    void decode_invalidDirection() {
+        //given
+        String token = new ContinuationToken("name", Sort.Direction.ASC, "value", "id").encode()
+                .replaceFirst("\\.QVND\\.", ".Zm9v.");
+        //when
+        Executable executable = () -> ContinuationToken.decode(token);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("Invalid continuation token", e.getMessage());
+    }
+
+    @Test
+    void after() {
+        //given
+        DummyGroup group = new DummyGroup();
+        group.setId("id");
+        group.setName("name");
+        //when
+        Optional<ContinuationToken> token = ContinuationToken.after(group, Sort.by("name"));
+        //then
+        assertTrue(token.isPresent());
+        assertEquals("name", token.get().getSortProperty());
+        assertEquals(Sort.Direction.ASC, token.get().getDirection());
+        assertEquals(group.getName(), token.get().getSortValue());
+        assertEquals(group.getId(), token.get().getLastId());
+    }
+
+    @Test
+    void after_notSupportedSort() {
+        //given
+        DummyGroup group = new DummyGroup();
+        group.setId("id");
+        group.setName("name");
+        //when
+        Optional<ContinuationToken> unsorted = ContinuationToken.after(group, Sort.unsorted());
+        Optional<ContinuationToken> multipleOrders = ContinuationToken.after(group, Sort.by("name", "description"));
+        Optional<ContinuationToken> notTextProperty = ContinuationToken.after(group, Sort.by("status"));
+        //then
+        assertTrue(unsorted.isEmpty());
+        assertTrue(multipleOrders.isEmpty());
+        assertTrue(notTextProperty.isEmpty());
+    }
+
+}
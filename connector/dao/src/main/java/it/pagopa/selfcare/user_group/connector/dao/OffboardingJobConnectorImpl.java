@@ -0,0 +1,123 @@
+package it.pagopa.selfcare.user_group.connector.dao;
+
+import com.mongodb.client.result.DeleteResult;
+import it.pagopa.selfcare.user_group.connector.api.OffboardingJobConnector;
+import it.pagopa.selfcare.user_group.connector.dao.model.OffboardingJobEntity;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJobStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class OffboardingJobConnectorImpl implements OffboardingJobConnector {
+
+    private final MongoTemplate mongoTemplate;
+
+
+    @Autowired
+    public OffboardingJobConnectorImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public OffboardingJob insert(OffboardingJob job) {
+        log.trace("insert start");
+        log.debug("insert job = {}", job);
+        OffboardingJobEntity entity = new OffboardingJobEntity(job);
+        entity.setStatus(OffboardingJobStatus.PENDING);
+        // submittedBy is audited here, on the thread of the request, since the removal is applied on its behalf later on
+        OffboardingJob result = mongoTemplate.insert(entity).toOffboardingJob();
+        log.debug("insert result = {}", result);
+        log.trace("insert end");
+        return result;
+    }
+
+    @Override
+    public Optional<OffboardingJob> findById(String id) {
+        log.trace("findById start");
+        log.debug("findById id = {}", id);
+        Optional<OffboardingJob> result = Optional.ofNullable(mongoTemplate.findById(id, OffboardingJobEntity.class))
+                .map(OffboardingJobEntity::toOffboardingJob);
+        log.debug("findById result = {}", result);
+        log.trace("findById end");
+        return result;
+    }
+
+    @Override
+    public List<OffboardingJob> claimPending(int maxCount, Duration claimTimeout) {
+        log.trace("claimPending start");
+        log.debug("claimPending maxCount = {}, claimTimeout = {}", maxCount, claimTimeout);
+        Instant now = Instant.now();
+        Query candidatesQuery = Query.query(claimableCriteria(now)).limit(maxCount);
+        candidatesQuery.fields().include(OffboardingJobEntity.Fields.id);
+        List<String> candidateIds = mongoTemplate.find(candidatesQuery, OffboardingJobEntity.class).stream()
+                .map(OffboardingJobEntity::getId)
+                .collect(Collectors.toList());
+        List<OffboardingJob> result = Collections.emptyList();
+        if (!candidateIds.isEmpty()) {
+            // the candidates are claimed again with the same criteria, so a job claimed meanwhile by another replica is left to it
+            String claimId = UUID.randomUUID().toString();
+            mongoTemplate.updateMulti(Query.query(Criteria.where(OffboardingJobEntity.Fields.id).in(candidateIds)
+                                    .andOperator(claimableCriteria(now))),
+                    new Update().set(OffboardingJobEntity.Fields.claimedBy, claimId)
+                            .set(OffboardingJobEntity.Fields.claimedUntil, now.plus(claimTimeout)),
+                    OffboardingJobEntity.class);
+            result = mongoTemplate.find(Query.query(Criteria.where(OffboardingJobEntity.Fields.claimedBy).is(claimId)), OffboardingJobEntity.class).stream()
+                    .map(OffboardingJobEntity::toOffboardingJob)
+                    .collect(Collectors.toList());
+        }
+        log.debug("claimPending result = {}", result);
+        log.trace("claimPending end");
+        return result;
+    }
+
+    @Override
+    public void complete(Collection<String> ids, OffboardingJobStatus status) {
+        log.trace("complete start");
+        log.debug("complete ids = {}, status = {}", ids, status);
+        mongoTemplate.updateMulti(Query.query(Criteria.where(OffboardingJobEntity.Fields.id).in(ids)),
+                new Update().set(OffboardingJobEntity.Fields.status, status)
+                        .set(OffboardingJobEntity.Fields.completedAt, Instant.now())
+                        .unset(OffboardingJobEntity.Fields.claimedBy)
+                        .unset(OffboardingJobEntity.Fields.claimedUntil),
+                OffboardingJobEntity.class);
+        log.trace("complete end");
+    }
+
+    @Override
+    public long deleteCompletedBefore(Instant expiration) {
+        log.trace("deleteCompletedBefore start");
+        log.debug("deleteCompletedBefore expiration = {}", expiration);
+        DeleteResult deleteResult = mongoTemplate.remove(Query.query(Criteria.where(OffboardingJobEntity.Fields.status)
+                        .in(OffboardingJobStatus.COMPLETED, OffboardingJobStatus.FAILED)
+                        .and(OffboardingJobEntity.Fields.completedAt).lt(expiration)),
+                OffboardingJobEntity.class);
+        long result = deleteResult.getDeletedCount();
+        log.debug("deleteCompletedBefore result = {}", result);
+        log.trace("deleteCompletedBefore end");
+        return result;
+    }
+
+    private static Criteria claimableCriteria(Instant now) {
+        // a claim that has timed out, because the replica holding it crashed, can be taken over
+        return Criteria.where(OffboardingJobEntity.Fields.status).is(OffboardingJobStatus.PENDING)
+                .orOperator(Criteria.where(OffboardingJobEntity.Fields.claimedUntil).is(null),
+                        Criteria.where(OffboardingJobEntity.Fields.claimedUntil).lte(now));
+    }
+
+}
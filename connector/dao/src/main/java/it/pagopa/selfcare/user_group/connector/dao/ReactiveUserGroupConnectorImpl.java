@@ -0,0 +1,109 @@
+package it.pagopa.selfcare.user_group.connector.dao;
+
+import it.pagopa.selfcare.user_group.connector.api.ReactiveUserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static it.pagopa.selfcare.user_group.connector.dao.UserGroupConnectorImpl.*;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "user-group.reactive", name = "enabled", havingValue = "true")
+public class ReactiveUserGroupConnectorImpl implements ReactiveUserGroupConnector {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+
+    @Autowired
+    public ReactiveUserGroupConnectorImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+
+    @Override
+    public Mono<UserGroupOperations> findById(String id) {
+        log.trace("findById start");
+        log.debug("findById id = {} ", id);
+        return reactiveMongoTemplate.findById(id, UserGroupEntity.class)
+                .cast(UserGroupOperations.class)
+                .doOnSuccess(result -> {
+                    log.debug("findById result = {}", result);
+                    log.trace("findById end");
+                });
+    }
+
+
+    @Override
+    public Mono<Boolean> existsMember(String id, String memberId) {
+        log.trace("existsMember start");
+        log.debug("existsMember id = {}, memberId = {}", id, memberId);
+        return reactiveMongoTemplate.exists(Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)
+                                .and(UserGroupEntity.Fields.members).in(memberValues(memberId))),
+                        UserGroupEntity.class)
+                .doOnSuccess(result -> {
+                    log.debug("existsMember result = {}", result);
+                    log.trace("existsMember end");
+                });
+    }
+
+
+    @Override
+    public Flux<MemberGroup> findGroupsOfMember(String memberId, List<UserGroupStatus> status) {
+        log.trace("findGroupsOfMember start");
+        log.debug("findGroupsOfMember memberId = {}, status = {}", memberId, status);
+        return reactiveMongoTemplate.find(memberGroupsQuery(memberId, status), UserGroupEntity.class)
+                .map(UserGroupConnectorImpl::toMemberGroup)
+                .doOnComplete(() -> log.trace("findGroupsOfMember end"));
+    }
+
+
+    @Override
+    public Mono<Page<UserGroupOperations>> findAll(UserGroupFilter filter, Pageable pageable) {
+        log.trace("findAll start");
+        log.debug("findAll institutionId= {} , productId = {}, userId = {}, pageable = {}", filter.getInstitutionId(), filter.getProductId(), filter.getUserId(), pageable);
+        return Mono.defer(() -> {
+            validateFilter(filter, pageable);
+            Criteria criteria = constructCriteria(filter);
+            return reactiveMongoTemplate.find(withTiebreaker(new Query(criteria).with(pageable)), UserGroupEntity.class)
+                    .cast(UserGroupOperations.class)
+                    .collectList()
+                    .flatMap(content -> getPage(content, pageable, reactiveMongoTemplate.count(new Query(criteria), UserGroupEntity.class)));
+        }).doOnSuccess(result -> {
+            log.debug("findAll result = {}", result);
+            log.trace("findAll end");
+        });
+    }
+
+
+    /**
+     * Same as {@link org.springframework.data.support.PageableExecutionUtils#getPage}, counting only when the
+     * total can't be inferred from the content
+     */
+    private static Mono<Page<UserGroupOperations>> getPage(List<UserGroupOperations> content, Pageable pageable, Mono<Long> count) {
+        if (pageable.isUnpaged() || pageable.getOffset() == 0 && pageable.getPageSize() > content.size()) {
+            return Mono.just(new PageImpl<>(content, pageable, content.size()));
+        }
+        if (!content.isEmpty() && pageable.getPageSize() > content.size()) {
+            return Mono.just(new PageImpl<>(content, pageable, pageable.getOffset() + content.size()));
+        }
+        return count.map(total -> new PageImpl<>(content, pageable, total));
+    }
+
+}
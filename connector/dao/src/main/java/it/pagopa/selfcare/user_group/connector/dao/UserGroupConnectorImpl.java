@@ -1,6 +1,7 @@
 package it.pagopa.selfcare.user_group.connector.dao;
 
 import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
 import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
 import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
 import it.pagopa.selfcare.user_group.connector.dao.model.CriteriaBuilder;
@@ -8,27 +9,53 @@ import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceAlreadyExistsException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceVersionMismatchException;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationOutcome;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationType;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import javax.validation.ValidationException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -37,14 +64,24 @@ public class UserGroupConnectorImpl implements UserGroupConnector {
     private final UserGroupRepository repository;
     private final MongoTemplate mongoTemplate;
     private final AuditorAware<String> auditorAware;
+    private final MeterRegistry meterRegistry;
     private static final String COULD_NOT_UPDATE_MESSAGE = "Couldn't update resource";
+    private static final String TRYING_TO_MODIFY_SUSPENDED_GROUP = "Trying to modify suspended group";
+    private static final String VERSION_MISMATCH_MESSAGE = "The group has been modified since the expected version";
+    private static final String MEMBERS_COUNT = "membersCount";
+    static final String MODIFIED_COUNT_METRIC = "user-group.connector.modified";
+    static final int STREAM_BATCH_SIZE = 100;
 
 
     @Autowired
-    public UserGroupConnectorImpl(UserGroupRepository repository, MongoTemplate mongoTemplate, AuditorAware<String> auditorAware) {
+    public UserGroupConnectorImpl(UserGroupRepository repository,
+                                  MongoTemplate mongoTemplate,
+                                  AuditorAware<String> auditorAware,
+                                  MeterRegistry meterRegistry) {
         this.repository = repository;
         this.mongoTemplate = mongoTemplate;
         this.auditorAware = auditorAware;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -63,75 +100,157 @@ public class UserGroupConnectorImpl implements UserGroupConnector {
     }
 
     @Override
-    public UserGroupOperations save(UserGroupOperations entity) {
-        log.trace("save start");
-        log.debug("save entity = {}", entity);
-        UserGroupEntity result;
-        try {
-            result = repository.save(new UserGroupEntity(entity));
-        } catch (DuplicateKeyException e) {
-            throw new ResourceAlreadyExistsException("Failed _id or unique index constraint.", e);
-        }
-        log.debug("save result = {}", result);
-        log.trace("save end");
-        return result;
-    }
-
-    @Override
-    public void insertMember(String id, String memberId) {
+    public String insertMember(String id, String memberId) {
         log.trace("insertMember start");
         log.debug("insertMember id = {}, memberId = {}", id, memberId);
 
-        UpdateResult updateResult = mongoTemplate.updateFirst(
-                Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)
-                        .and(UserGroupEntity.Fields.status).is(UserGroupStatus.ACTIVE)),
-                new Update().push(UserGroupEntity.Fields.members, memberId)
+        UserGroupEntity updated = mongoTemplate.findAndModify(
+                withInstitutionId(Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)
+                        .and(UserGroupEntity.Fields.status).is(UserGroupStatus.ACTIVE)
+                        .and(UserGroupEntity.Fields.members).nin(memberValues(memberId)))),
+                new Update().addToSet(UserGroupEntity.Fields.members, UUID.fromString(memberId))
                         .set(UserGroupEntity.Fields.modifiedBy, auditorAware.getCurrentAuditor().orElse(null))
-                        .currentDate(UserGroupEntity.Fields.modifiedAt),
+                        .currentDate(UserGroupEntity.Fields.modifiedAt)
+                        .inc(UserGroupEntity.Fields.version, 1),
                 UserGroupEntity.class);
-        if (updateResult.getModifiedCount() == 0) {
-            throw new ResourceUpdateException(COULD_NOT_UPDATE_MESSAGE);
+        if (updated == null) {
+            updated = findStatusAndVersion(id);
+            // an active group is only left unmatched when it already holds the member, in either form, which is not an error
+            if (updated == null || !UserGroupStatus.ACTIVE.equals(updated.getStatus())) {
+                throw notUpdatableException(updated, null);
+            }
         }
+        String result = updated.getInstitutionId();
+        log.debug("insertMember result = {}", result);
         log.trace("insertMember end");
-
+        return result;
     }
 
     @Override
-    public void deleteMember(String id, String memberId) {
+    public String deleteMember(String id, String memberId) {
         log.trace("deleteMember start");
         log.debug("deleteMember id = {}, memberId = {}", id, memberId);
 
-        UpdateResult updateResult = mongoTemplate.updateFirst(
-                Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)
-                        .and(UserGroupEntity.Fields.status).is(UserGroupStatus.ACTIVE)),
-                new Update().pull(UserGroupEntity.Fields.members, memberId)
+        // the group is matched only when it holds the member, so that an unmatched active group tells the member is missing
+        UserGroupEntity updated = mongoTemplate.findAndModify(
+                withInstitutionId(Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)
+                        .and(UserGroupEntity.Fields.status).is(UserGroupStatus.ACTIVE)
+                        .and(UserGroupEntity.Fields.members).in(memberValues(memberId)))),
+                new Update().pullAll(UserGroupEntity.Fields.members, memberValues(memberId).toArray())
                         .set(UserGroupEntity.Fields.modifiedBy, auditorAware.getCurrentAuditor().orElse(null))
-                        .currentTimestamp(UserGroupEntity.Fields.modifiedAt),
+                        .currentDate(UserGroupEntity.Fields.modifiedAt)
+                        .inc(UserGroupEntity.Fields.version, 1),
                 UserGroupEntity.class);
-        if (updateResult.getModifiedCount() == 0) {
-            throw new ResourceUpdateException(COULD_NOT_UPDATE_MESSAGE);
+        if (updated == null) {
+            throw notUpdatableException(id);
         }
+        String result = updated.getInstitutionId();
+        log.debug("deleteMember result = {}", result);
         log.trace("deleteMember end");
+        return result;
+    }
+
+    @Override
+    public UserGroupOperations updateGroup(String id, UserGroupOperations group) {
+        log.trace("updateGroup start");
+        log.debug("updateGroup id = {}, group = {}", id, group);
+        Criteria criteria = Criteria.where(UserGroupEntity.Fields.id).is(id)
+                .and(UserGroupEntity.Fields.status).is(UserGroupStatus.ACTIVE);
+        if (group.getVersion() != null) {
+            // the write is applied only if nobody else has changed the group since the expected version was read
+            criteria.and(UserGroupEntity.Fields.version).in(versionValues(group.getVersion()));
+        }
+        UserGroupEntity result = mongoTemplate.findAndModify(
+                Query.query(criteria),
+                partialUpdate(group)
+                        .set(UserGroupEntity.Fields.modifiedBy, auditorAware.getCurrentAuditor().orElse(null))
+                        .currentDate(UserGroupEntity.Fields.modifiedAt)
+                        .inc(UserGroupEntity.Fields.version, 1),
+                FindAndModifyOptions.options().returnNew(true),
+                UserGroupEntity.class);
+        if (result == null) {
+            throw notUpdatableException(id, group.getVersion());
+        }
+        log.debug("updateGroup result = {}", result);
+        log.trace("updateGroup end");
+        return result;
     }
 
     public void deleteMembers(String memberId, String institutionId, String productId) {
         log.trace("deleteMembers start");
         log.debug("deleteMembers id = {}, institutionId = {}, productId= {}", memberId, institutionId, productId);
 
-        UpdateResult updateResult = mongoTemplate.updateMulti(
-                Query.query(Criteria.where(UserGroupEntity.Fields.members).is(memberId)
-                        .and(UserGroupEntity.Fields.institutionId).is(institutionId)
-                        .and(UserGroupEntity.Fields.productId).is(productId)),
-                new Update().pull(UserGroupEntity.Fields.members, memberId)
-                        .set(UserGroupEntity.Fields.modifiedBy, auditorAware.getCurrentAuditor().orElse(null))
-                        .currentTimestamp(UserGroupEntity.Fields.modifiedAt),
-                UserGroupEntity.class);
+        UpdateResult updateResult = pullMembers(Set.of(memberId), institutionId, productId, auditorAware.getCurrentAuditor().orElse(null));
+        meterRegistry.summary(MODIFIED_COUNT_METRIC, "operation", "deleteMembers").record(updateResult.getModifiedCount());
         if (updateResult.getModifiedCount() == 0) {
             log.warn("No user to delete from UserGroup");
         }
         log.trace("deleteMembers end");
     }
 
+    @Override
+    public long bulkDeleteMembers(Set<String> memberIds, String institutionId, String productId, String modifiedBy) {
+        log.trace("bulkDeleteMembers start");
+        log.debug("bulkDeleteMembers memberIds = {}, institutionId = {}, productId= {}, modifiedBy = {}", memberIds, institutionId, productId, modifiedBy);
+        UpdateResult updateResult = pullMembers(memberIds, institutionId, productId, modifiedBy);
+        meterRegistry.summary(MODIFIED_COUNT_METRIC, "operation", "bulkDeleteMembers").record(updateResult.getModifiedCount());
+        long result = updateResult.getModifiedCount();
+        log.debug("bulkDeleteMembers result = {}", result);
+        log.trace("bulkDeleteMembers end");
+        return result;
+    }
+
+    @Override
+    public List<MemberOperationResult> bulkUpdateMembers(List<MemberOperation> operations) {
+        log.trace("bulkUpdateMembers start");
+        log.debug("bulkUpdateMembers operations = {}", operations);
+        String modifiedBy = auditorAware.getCurrentAuditor().orElse(null);
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserGroupEntity.class);
+        operations.forEach(operation -> bulkOperations.updateOne(
+                Query.query(memberCriteria(operation)),
+                memberUpdate(operation)
+                        .set(UserGroupEntity.Fields.modifiedBy, modifiedBy)
+                        .currentDate(UserGroupEntity.Fields.modifiedAt)
+                        .inc(UserGroupEntity.Fields.version, 1)));
+        Set<Integer> failedIndexes = new HashSet<>();
+        int matchedCount;
+        try {
+            matchedCount = bulkOperations.execute().getMatchedCount();
+        } catch (BulkOperationException e) {
+            log.warn("bulkUpdateMembers write errors = {}", e.getErrors());
+            e.getErrors().forEach(error -> failedIndexes.add(error.getIndex()));
+            matchedCount = e.getResult().getMatchedCount();
+        }
+        // the bulk result only has aggregated counts: the institution of each group, and the status of the unmatched
+        // ones, are read back with a single lookup
+        Map<String, UserGroupEntity> groups = findStatusesAndInstitutions(operations.stream()
+                .map(MemberOperation::getGroupId)
+                .collect(Collectors.toSet()));
+        boolean allMatched = matchedCount + failedIndexes.size() == operations.size();
+        List<MemberOperationResult> result = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            MemberOperation operation = operations.get(i);
+            UserGroupEntity group = groups.get(operation.getGroupId());
+            MemberOperationOutcome outcome;
+            if (failedIndexes.contains(i)) {
+                outcome = MemberOperationOutcome.FAILED;
+            } else if (allMatched) {
+                outcome = MemberOperationOutcome.APPLIED;
+            } else if (group == null) {
+                outcome = MemberOperationOutcome.GROUP_NOT_FOUND;
+            } else if (!UserGroupStatus.ACTIVE.equals(group.getStatus())) {
+                outcome = MemberOperationOutcome.GROUP_NOT_ACTIVE;
+            } else {
+                // matched, or left unmatched because the member to add is already in the group
+                outcome = MemberOperationOutcome.APPLIED;
+            }
+            result.add(new MemberOperationResult(operation, outcome, group != null ? group.getInstitutionId() : null));
+        }
+        log.debug("bulkUpdateMembers result = {}", result);
+        log.trace("bulkUpdateMembers end");
+        return result;
+    }
+
     @Override
     public Optional<UserGroupOperations> findById(String id) {
         log.trace("findById start");
@@ -143,20 +262,87 @@ public class UserGroupConnectorImpl implements UserGroupConnector {
         return result;
     }
 
+    @Override
+    public UserGroupRevision findRevision(String id) {
+        log.trace("findRevision start");
+        log.debug("findRevision id = {} ", id);
+        Query query = Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id));
+        query.fields().include(UserGroupEntity.Fields.version, UserGroupEntity.Fields.modifiedAt);
+        UserGroupEntity found = mongoTemplate.findOne(query, UserGroupEntity.class);
+        if (found == null) {
+            throw new ResourceNotFoundException();
+        }
+        UserGroupRevision result = UserGroupRevision.of(found);
+        log.debug("findRevision result = {}", result);
+        log.trace("findRevision end");
+        return result;
+    }
+
+    @Override
+    public Page<UUID> findMembers(String id, Pageable pageable) {
+        log.trace("findMembers start");
+        log.debug("findMembers id = {}, pageable = {}", id, pageable);
+        AggregationExpression members = ConditionalOperators.ifNull(UserGroupEntity.Fields.members).then(List.of());
+        ProjectionOperation projection = Aggregation.project()
+                .and(ArrayOperators.Size.lengthOfArray(members)).as(MEMBERS_COUNT);
+        // only the requested page of the members array leaves the server
+        projection = pageable.isPaged()
+                ? projection.and(ArrayOperators.Slice.sliceArrayOf(members).offset(pageable.getOffset()).itemCount(pageable.getPageSize()))
+                .as(UserGroupEntity.Fields.members)
+                : projection.and(members).as(UserGroupEntity.Fields.members);
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(UserGroupEntity.class,
+                                Aggregation.match(Criteria.where(UserGroupEntity.Fields.id).is(id)),
+                                projection),
+                        Document.class)
+                .getUniqueMappedResult();
+        if (result == null) {
+            throw new ResourceNotFoundException();
+        }
+        Page<UUID> page = new PageImpl<>(result.getList(UserGroupEntity.Fields.members, Object.class).stream()
+                .map(UserGroupConnectorImpl::toMemberUuid)
+                .collect(Collectors.toList()), pageable,
+                result.get(MEMBERS_COUNT, Number.class).longValue());
+        log.debug("findMembers result = {}", page);
+        log.trace("findMembers end");
+        return page;
+    }
+
+
+    @Override
+    public boolean existsMember(String id, String memberId) {
+        log.trace("existsMember start");
+        log.debug("existsMember id = {}, memberId = {}", id, memberId);
+        boolean result = mongoTemplate.exists(Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)
+                        .and(UserGroupEntity.Fields.members).in(memberValues(memberId))),
+                UserGroupEntity.class);
+        log.debug("existsMember result = {}", result);
+        log.trace("existsMember end");
+        return result;
+    }
+
+
+    @Override
+    public List<MemberGroup> findGroupsOfMember(String memberId, List<UserGroupStatus> status) {
+        log.trace("findGroupsOfMember start");
+        log.debug("findGroupsOfMember memberId = {}, status = {}", memberId, status);
+        List<MemberGroup> result = mongoTemplate.find(memberGroupsQuery(memberId, status), UserGroupEntity.class).stream()
+                .map(UserGroupConnectorImpl::toMemberGroup)
+                .collect(Collectors.toList());
+        log.debug("findGroupsOfMember result = {}", result);
+        log.trace("findGroupsOfMember end");
+        return result;
+    }
+
+
     @Override
     public Page<UserGroupOperations> findAll(UserGroupFilter filter, Pageable pageable) {
         log.trace("findAll start");
         log.debug("findAll institutionId= {} , productId = {}, userId = {}, pageable = {}", filter.getInstitutionId(), filter.getProductId(), filter.getUserId(), pageable);
-        if (pageable.getSort().isSorted() && !StringUtils.hasText(filter.getProductId()) && !StringUtils.hasText(filter.getInstitutionId())) {
-            throw new ValidationException("Sorting not allowed without productId or institutionId");
-        }
-        if (filter.getStatus().size() == 1 && !StringUtils.hasText(filter.getUserId()) && !StringUtils.hasText(filter.getProductId()) && !StringUtils.hasText(filter.getInstitutionId())) {
-            throw new ValidationException("At least one of productId, institutionId and userId must be provided with status filter");
-        }
-        Query query = new Query(constructCriteria(filter));
-        long count = this.mongoTemplate.count(query, UserGroupEntity.class);
-        List<UserGroupOperations> userGroupOperations = new ArrayList<>(mongoTemplate.find(query.with(pageable), UserGroupEntity.class));
-        final Page<UserGroupOperations> result = PageableExecutionUtils.getPage(userGroupOperations, pageable, () -> count);
+        validateFilter(filter, pageable);
+        Criteria criteria = constructCriteria(filter);
+        List<UserGroupOperations> userGroupOperations = new ArrayList<>(mongoTemplate.find(withTiebreaker(new Query(criteria).with(pageable)), UserGroupEntity.class));
+        final Page<UserGroupOperations> result = PageableExecutionUtils.getPage(userGroupOperations, pageable,
+                () -> mongoTemplate.count(new Query(criteria), UserGroupEntity.class));
         log.debug("findAll result = {}", result);
         log.trace("findAll end");
         return result;
@@ -164,56 +350,291 @@ public class UserGroupConnectorImpl implements UserGroupConnector {
 
 
     @Override
-    public void activateById(String id) {
+    public Slice<UserGroupOperations> findSlice(UserGroupFilter filter, Pageable pageable) {
+        log.trace("findSlice start");
+        log.debug("findSlice institutionId= {} , productId = {}, userId = {}, pageable = {}", filter.getInstitutionId(), filter.getProductId(), filter.getUserId(), pageable);
+        validateFilter(filter, pageable);
+        Query query = withTiebreaker(new Query(constructCriteria(filter)).with(pageable));
+        if (pageable.isPaged()) {
+            query.limit(pageable.getPageSize() + 1);
+        }
+        List<UserGroupOperations> userGroupOperations = new ArrayList<>(mongoTemplate.find(query, UserGroupEntity.class));
+        boolean hasNext = pageable.isPaged() && userGroupOperations.size() > pageable.getPageSize();
+        if (hasNext) {
+            userGroupOperations.remove(userGroupOperations.size() - 1);
+        }
+        final Slice<UserGroupOperations> result = new SliceImpl<>(userGroupOperations, pageable, hasNext);
+        log.debug("findSlice result = {}", result);
+        log.trace("findSlice end");
+        return result;
+    }
+
+
+    @Override
+    public Slice<UserGroupOperations> findAllAfter(UserGroupFilter filter, ContinuationToken continuationToken, int size) {
+        log.trace("findAllAfter start");
+        log.debug("findAllAfter institutionId= {} , productId = {}, userId = {}, continuationToken = {}, size = {}", filter.getInstitutionId(), filter.getProductId(), filter.getUserId(), continuationToken, size);
+        Pageable pageable = PageRequest.of(0, size, continuationToken.getSort());
+        validateFilter(filter, pageable);
+        Criteria criteria = filterCriteria(filter)
+                .afterIfNotNull(continuationToken.getSortProperty(), continuationToken.getDirection(), continuationToken.getSortValue(),
+                        UserGroupEntity.Fields.id, continuationToken.getLastId())
+                .build();
+        Query query = withTiebreaker(new Query(criteria).with(pageable.getSort()))
+                .limit(size + 1);
+        List<UserGroupOperations> userGroupOperations = new ArrayList<>(mongoTemplate.find(query, UserGroupEntity.class));
+        boolean hasNext = userGroupOperations.size() > size;
+        if (hasNext) {
+            userGroupOperations.remove(userGroupOperations.size() - 1);
+        }
+        final Slice<UserGroupOperations> result = new SliceImpl<>(userGroupOperations, pageable, hasNext);
+        log.debug("findAllAfter result = {}", result);
+        log.trace("findAllAfter end");
+        return result;
+    }
+
+
+    @Override
+    public Page<UserGroupSummary> findSummaries(UserGroupFilter filter, Pageable pageable) {
+        log.trace("findSummaries start");
+        log.debug("findSummaries institutionId= {} , productId = {}, userId = {}, pageable = {}", filter.getInstitutionId(), filter.getProductId(), filter.getUserId(), pageable);
+        validateFilter(filter, pageable);
+        Criteria criteria = constructCriteria(filter);
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        if (pageable.getSort().isSorted()) {
+            operations.add(Aggregation.sort(pageable.getSort().and(Sort.by(UserGroupEntity.Fields.id))));
+        }
+        if (pageable.isPaged()) {
+            operations.add(Aggregation.skip(pageable.getOffset()));
+            operations.add(Aggregation.limit(pageable.getPageSize()));
+        }
+        // the members are counted server side, so they are neither sent over the wire nor deserialized
+        operations.add(Aggregation.project(UserGroupEntity.Fields.institutionId,
+                        UserGroupEntity.Fields.productId,
+                        UserGroupEntity.Fields.name,
+                        UserGroupEntity.Fields.status)
+                .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull(UserGroupEntity.Fields.members).then(List.of())))
+                .as(MEMBERS_COUNT));
+        List<UserGroupSummary> summaries = mongoTemplate.aggregate(Aggregation.newAggregation(UserGroupEntity.class, operations),
+                        UserGroupSummary.class)
+                .getMappedResults();
+        final Page<UserGroupSummary> result = PageableExecutionUtils.getPage(summaries, pageable,
+                () -> mongoTemplate.count(new Query(criteria), UserGroupEntity.class));
+        log.debug("findSummaries result = {}", result);
+        log.trace("findSummaries end");
+        return result;
+    }
+
+
+    @Override
+    public Stream<UserGroupOperations> streamAll(UserGroupFilter filter) {
+        log.trace("streamAll start");
+        log.debug("streamAll institutionId= {} , productId = {}, userId = {}", filter.getInstitutionId(), filter.getProductId(), filter.getUserId());
+        validateFilter(filter, Pageable.unpaged());
+        // the cursor fetches the groups a batch at a time as the stream is consumed, and is released when it's closed
+        CloseableIterator<UserGroupEntity> cursor = mongoTemplate.stream(new Query(constructCriteria(filter)).cursorBatchSize(STREAM_BATCH_SIZE),
+                UserGroupEntity.class);
+        Stream<UserGroupOperations> result = StreamUtils.createStreamFromIterator(cursor)
+                .map(UserGroupOperations.class::cast);
+        log.trace("streamAll end");
+        return result;
+    }
+
+
+    @Override
+    public String activateById(String id) {
         log.trace("activateById start");
         log.debug("activateById id = {} ", id);
-        updateUserById(id, UserGroupStatus.ACTIVE);
+        String result = updateUserById(id, UserGroupStatus.ACTIVE);
         log.trace("activateById end");
-
+        return result;
     }
 
 
     @Override
-    public void deleteById(String id) {
+    public String deleteById(String id) {
         log.trace("deleteById start");
         log.debug("deleteById id = {} ", id);
-        updateUserById(id, UserGroupStatus.DELETED);
+        String result = updateUserById(id, UserGroupStatus.DELETED);
         log.trace("deleteById end");
+        return result;
     }
 
     @Override
-    public void suspendById(String id) {
+    public String suspendById(String id) {
         log.trace("suspendById start");
         log.debug("suspendById id = {} ", id);
-        updateUserById(id, UserGroupStatus.SUSPENDED);
+        String result = updateUserById(id, UserGroupStatus.SUSPENDED);
         log.trace("suspendById end");
-
+        return result;
     }
 
-    private void updateUserById(String id, UserGroupStatus status) {
+    private String updateUserById(String id, UserGroupStatus status) {
         log.trace("updateUserById start");
         log.debug("updateUserById id = {}, status = {}", id, status);
-        UpdateResult updateResult = mongoTemplate.updateFirst(
-                Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)),
+        UserGroupEntity updated = mongoTemplate.findAndModify(
+                withInstitutionId(Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id))),
                 Update.update(UserGroupEntity.Fields.status, status)
                         .set(UserGroupEntity.Fields.modifiedBy, auditorAware.getCurrentAuditor().orElse(null))
-                        .currentTimestamp(UserGroupEntity.Fields.modifiedAt),
+                        .currentDate(UserGroupEntity.Fields.modifiedAt)
+                        .inc(UserGroupEntity.Fields.version, 1),
                 UserGroupEntity.class);
-        if (updateResult.getMatchedCount() == 0) {
+        if (updated == null) {
             throw new ResourceNotFoundException();
         }
+        String result = updated.getInstitutionId();
+        log.debug("updateUserById result = {}", result);
         log.trace("updateUserById end");
+        return result;
+    }
+
+    private Update partialUpdate(UserGroupOperations group) {
+        // only the given fields are sent, leaving status, audit data and concurrent changes to the others untouched
+        Update update = new Update();
+        Optional.ofNullable(group.getName()).ifPresent(name -> update.set(UserGroupEntity.Fields.name, name));
+        Optional.ofNullable(group.getDescription()).ifPresent(description -> update.set(UserGroupEntity.Fields.description, description));
+        Optional.ofNullable(group.getMembers()).ifPresent(members -> update.set(UserGroupEntity.Fields.members, members));
+        return update;
+    }
+
+    private UpdateResult pullMembers(Set<String> memberIds, String institutionId, String productId, String modifiedBy) {
+        // a single update removes all the given members from every group of the institution and product holding any of them
+        List<Object> memberValues = memberIds.stream()
+                .flatMap(memberId -> memberValues(memberId).stream())
+                .collect(Collectors.toList());
+        return mongoTemplate.updateMulti(
+                Query.query(Criteria.where(UserGroupEntity.Fields.members).in(memberValues)
+                        .and(UserGroupEntity.Fields.institutionId).is(institutionId)
+                        .and(UserGroupEntity.Fields.productId).is(productId)),
+                new Update().pullAll(UserGroupEntity.Fields.members, memberValues.toArray())
+                        .set(UserGroupEntity.Fields.modifiedBy, modifiedBy)
+                        .currentDate(UserGroupEntity.Fields.modifiedAt)
+                        .inc(UserGroupEntity.Fields.version, 1),
+                UserGroupEntity.class);
+    }
+
+    private static Criteria memberCriteria(MemberOperation operation) {
+        Criteria criteria = Criteria.where(UserGroupEntity.Fields.id).is(operation.getGroupId())
+                .and(UserGroupEntity.Fields.status).is(UserGroupStatus.ACTIVE);
+        // a member is only added when it isn't already in the group in either form, otherwise the group is left unmatched
+        return MemberOperationType.ADD.equals(operation.getType())
+                ? criteria.and(UserGroupEntity.Fields.members).nin(memberValues(operation.getMemberId()))
+                : criteria;
+    }
+
+    private Update memberUpdate(MemberOperation operation) {
+        return MemberOperationType.ADD.equals(operation.getType())
+                ? new Update().addToSet(UserGroupEntity.Fields.members, UUID.fromString(operation.getMemberId()))
+                : new Update().pullAll(UserGroupEntity.Fields.members, memberValues(operation.getMemberId()).toArray());
+    }
+
+    private Map<String, UserGroupEntity> findStatusesAndInstitutions(Set<String> ids) {
+        Query query = withInstitutionId(Query.query(Criteria.where(UserGroupEntity.Fields.id).in(ids)));
+        query.fields().include(UserGroupEntity.Fields.status);
+        return mongoTemplate.find(query, UserGroupEntity.class).stream()
+                .collect(Collectors.toMap(UserGroupEntity::getId, Function.identity()));
+    }
+
+    private RuntimeException notUpdatableException(String id) {
+        return notUpdatableException(id, null);
+    }
 
+    private RuntimeException notUpdatableException(String id, Long expectedVersion) {
+        return notUpdatableException(findStatusAndVersion(id), expectedVersion);
     }
 
-    private Criteria constructCriteria(UserGroupFilter filter) {
+    private UserGroupEntity findStatusAndVersion(String id) {
+        // only looked up when the conditional update did not match, to tell a missing group from a not active or a changed one
+        Query query = withInstitutionId(Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)));
+        query.fields().include(UserGroupEntity.Fields.status, UserGroupEntity.Fields.version);
+        return mongoTemplate.findOne(query, UserGroupEntity.class);
+    }
+
+    private static Query withInstitutionId(Query query) {
+        // the institution of a group never changes, so the one found before or after the write is the same
+        query.fields().include(UserGroupEntity.Fields.institutionId);
+        return query;
+    }
+
+    private static RuntimeException notUpdatableException(UserGroupEntity found, Long expectedVersion) {
+        // a deleted group is reported as missing, as it is no longer modifiable in any way
+        if (found == null || UserGroupStatus.DELETED.equals(found.getStatus())) {
+            return new ResourceNotFoundException();
+        }
+        if (UserGroupStatus.SUSPENDED.equals(found.getStatus())) {
+            return new ResourceUpdateException(TRYING_TO_MODIFY_SUSPENDED_GROUP);
+        }
+        if (expectedVersion != null && expectedVersion != UserGroupRevision.of(found).getVersion()) {
+            return new ResourceVersionMismatchException(VERSION_MISMATCH_MESSAGE);
+        }
+        return new ResourceUpdateException(COULD_NOT_UPDATE_MESSAGE);
+    }
+
+    private static List<Long> versionValues(long version) {
+        // groups written before the version was introduced don't have one, and are reported at version 0
+        return version == 0 ? Arrays.asList(0L, null) : List.of(version);
+    }
+
+    static void validateFilter(UserGroupFilter filter, Pageable pageable) {
+        if (pageable.getSort().isSorted() && !StringUtils.hasText(filter.getProductId()) && !StringUtils.hasText(filter.getInstitutionId())) {
+            throw new ValidationException("Sorting not allowed without productId or institutionId");
+        }
+        if (filter.getStatus().size() == 1 && !StringUtils.hasText(filter.getUserId()) && !StringUtils.hasText(filter.getProductId()) && !StringUtils.hasText(filter.getInstitutionId())) {
+            throw new ValidationException("At least one of productId, institutionId and userId must be provided with status filter");
+        }
+    }
+
+    static Query memberGroupsQuery(String memberId, List<UserGroupStatus> status) {
+        Criteria criteria = Criteria.where(UserGroupEntity.Fields.members).in(memberValues(memberId));
+        if (status != null && !status.isEmpty()) {
+            criteria.and(UserGroupEntity.Fields.status).in(status);
+        }
+        // members is multikey, so the query can't be covered: the members_status_name index restricts the documents
+        // fetched to the groups of the member, and the projection only trims what is sent back
+        Query query = Query.query(criteria)
+                .with(Sort.by(UserGroupEntity.Fields.name, UserGroupEntity.Fields.id));
+        query.fields().include(UserGroupEntity.Fields.name);
+        return query;
+    }
+
+    static List<Object> memberValues(String memberId) {
+        // until MembersMaintenanceJob has run, members may still be stored as strings
+        try {
+            return List.of(UUID.fromString(memberId), memberId);
+        } catch (IllegalArgumentException e) {
+            return List.of(memberId);
+        }
+    }
+
+    static UUID toMemberUuid(Object member) {
+        return member instanceof UUID ? (UUID) member : UUID.fromString(member.toString());
+    }
+
+    static MemberGroup toMemberGroup(UserGroupEntity entity) {
+        MemberGroup group = new MemberGroup();
+        group.setId(entity.getId());
+        group.setName(entity.getName());
+        return group;
+    }
+
+    static Query withTiebreaker(Query query) {
+        // a sort on a non unique property must be made deterministic to resume it from a continuation token
+        return query.isSorted() ? query.with(Sort.by(UserGroupEntity.Fields.id)) : query;
+    }
+
+    static Criteria constructCriteria(UserGroupFilter filter) {
+        return filterCriteria(filter)
+                .build();
+
+    }
+
+    private static CriteriaBuilder filterCriteria(UserGroupFilter filter) {
         return CriteriaBuilder.builder()
                 .isIfNotNull(UserGroupEntity.Fields.institutionId, filter.getInstitutionId())
                 .isIfNotNull(UserGroupEntity.Fields.productId, filter.getProductId())
-                .isIfNotNull(UserGroupEntity.Fields.members, filter.getUserId())
-                .inIfNotEmpty(UserGroupEntity.Fields.status, filter.getStatus())
-                .build();
-
+                .inIfNotEmpty(UserGroupEntity.Fields.members, filter.getUserId() != null ? memberValues(filter.getUserId()) : null)
+                .inIfNotEmpty(UserGroupEntity.Fields.status, filter.getStatus());
     }
 
 }
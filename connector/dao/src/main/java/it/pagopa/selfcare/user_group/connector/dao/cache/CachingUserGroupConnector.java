@@ -0,0 +1,308 @@
+package it.pagopa.selfcare.user_group.connector.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache in front of {@link UserGroupConnector#findById(String)}.
+ * Every write evicts the groups it may have changed once the delegate returns: since Caffeine blocks the
+ * eviction of a key until its in-flight load completes, a load started before the write can't outlive it.
+ * When a query cache is given, the pages returned by {@link UserGroupConnector#findAll(UserGroupFilter, Pageable)}
+ * are cached too, keyed by the {@link UserGroupGenerations generation} of their institution read before loading
+ * them: a write bumps it once applied, so a page loaded concurrently is left under a generation nobody reads anymore.
+ * The writes of the delegate tell the institution of the groups they changed, so only its queries are evicted, while
+ * a write that fails evicts the group alone and leaves any change it applied to the change stream.
+ * Cached groups are shared between callers and must not be modified.
+ */
+@Slf4j
+public class CachingUserGroupConnector implements UserGroupConnector {
+
+    private final UserGroupConnector delegate;
+    private final Cache<String, UserGroupOperations> cache;
+    private final Cache<FindAllKey, Page<UserGroupOperations>> queryCache;
+    private final UserGroupGenerations generations = new UserGroupGenerations();
+
+
+    public CachingUserGroupConnector(UserGroupConnector delegate, Cache<String, UserGroupOperations> cache) {
+        this(delegate, cache, null);
+    }
+
+
+    public CachingUserGroupConnector(UserGroupConnector delegate,
+                                     Cache<String, UserGroupOperations> cache,
+                                     Cache<FindAllKey, Page<UserGroupOperations>> queryCache) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.queryCache = queryCache;
+    }
+
+
+    @Override
+    public UserGroupOperations insert(UserGroupOperations entity) {
+        try {
+            return delegate.insert(entity);
+        } finally {
+            evictQueries(entity.getInstitutionId());
+        }
+    }
+
+    @Override
+    public String insertMember(String id, String memberId) {
+        try {
+            String institutionId = delegate.insertMember(id, memberId);
+            evictQueries(institutionId);
+            return institutionId;
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public String deleteMember(String id, String memberId) {
+        try {
+            String institutionId = delegate.deleteMember(id, memberId);
+            evictQueries(institutionId);
+            return institutionId;
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public UserGroupOperations updateGroup(String id, UserGroupOperations group) {
+        try {
+            UserGroupOperations result = delegate.updateGroup(id, group);
+            evictQueries(result.getInstitutionId());
+            return result;
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public void deleteMembers(String memberId, String institutionId, String productId) {
+        try {
+            delegate.deleteMembers(memberId, institutionId, productId);
+        } finally {
+            evictGroups(institutionId, productId);
+            evictQueries(institutionId);
+        }
+    }
+
+    @Override
+    public long bulkDeleteMembers(Set<String> memberIds, String institutionId, String productId, String modifiedBy) {
+        try {
+            return delegate.bulkDeleteMembers(memberIds, institutionId, productId, modifiedBy);
+        } finally {
+            evictGroups(institutionId, productId);
+            evictQueries(institutionId);
+        }
+    }
+
+    @Override
+    public List<MemberOperationResult> bulkUpdateMembers(List<MemberOperation> operations) {
+        try {
+            List<MemberOperationResult> result = delegate.bulkUpdateMembers(operations);
+            // a group that isn't found has no institution, and no cached query holds it
+            result.stream()
+                    .map(MemberOperationResult::getInstitutionId)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(this::evictQueries);
+            return result;
+        } finally {
+            operations.forEach(operation -> evict(operation.getGroupId()));
+        }
+    }
+
+    @Override
+    public Optional<UserGroupOperations> findById(String id) {
+        log.trace("findById start");
+        log.debug("findById id = {} ", id);
+        Optional<UserGroupOperations> result = Optional.ofNullable(cache.get(id, key -> delegate.findById(key).orElse(null)));
+        log.debug("findById result = {}", result);
+        log.trace("findById end");
+        return result;
+    }
+
+    @Override
+    public UserGroupRevision findRevision(String id) {
+        // answered from the cache when possible, to validate against the same version findById would return
+        UserGroupOperations cached = cache.getIfPresent(id);
+        return cached != null ? UserGroupRevision.of(cached) : delegate.findRevision(id);
+    }
+
+    @Override
+    public Page<UUID> findMembers(String id, Pageable pageable) {
+        return delegate.findMembers(id, pageable);
+    }
+
+    @Override
+    public boolean existsMember(String id, String memberId) {
+        return delegate.existsMember(id, memberId);
+    }
+
+    @Override
+    public List<MemberGroup> findGroupsOfMember(String memberId, List<UserGroupStatus> status) {
+        return delegate.findGroupsOfMember(memberId, status);
+    }
+
+    @Override
+    public Page<UserGroupOperations> findAll(UserGroupFilter filter, Pageable pageable) {
+        if (queryCache == null) {
+            return delegate.findAll(filter, pageable);
+        }
+        log.trace("findAll start");
+        log.debug("findAll filter = {}, pageable = {}", filter, pageable);
+        Page<UserGroupOperations> result = queryCache.get(FindAllKey.of(filter, pageable, generations),
+                key -> delegate.findAll(filter, pageable));
+        log.debug("findAll result = {}", result);
+        log.trace("findAll end");
+        return result;
+    }
+
+    @Override
+    public Slice<UserGroupOperations> findSlice(UserGroupFilter filter, Pageable pageable) {
+        return delegate.findSlice(filter, pageable);
+    }
+
+    @Override
+    public Slice<UserGroupOperations> findAllAfter(UserGroupFilter filter, ContinuationToken continuationToken, int size) {
+        return delegate.findAllAfter(filter, continuationToken, size);
+    }
+
+    @Override
+    public Page<UserGroupSummary> findSummaries(UserGroupFilter filter, Pageable pageable) {
+        return delegate.findSummaries(filter, pageable);
+    }
+
+    @Override
+    public Stream<UserGroupOperations> streamAll(UserGroupFilter filter) {
+        return delegate.streamAll(filter);
+    }
+
+    @Override
+    public String activateById(String id) {
+        try {
+            String institutionId = delegate.activateById(id);
+            evictQueries(institutionId);
+            return institutionId;
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public String deleteById(String id) {
+        try {
+            String institutionId = delegate.deleteById(id);
+            evictQueries(institutionId);
+            return institutionId;
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public String suspendById(String id) {
+        try {
+            String institutionId = delegate.suspendById(id);
+            evictQueries(institutionId);
+            return institutionId;
+        } finally {
+            evict(id);
+        }
+    }
+
+
+    /**
+     * Evicts the given group, together with the cached queries of its institution, or of all institutions when it
+     * isn't known
+     */
+    public void evict(String id, String institutionId) {
+        evict(id);
+        evictQueries(institutionId);
+    }
+
+
+    public void evictQueries(String institutionId) {
+        if (queryCache != null) {
+            log.debug("evictQueries institutionId = {}", institutionId);
+            generations.bump(institutionId);
+        }
+    }
+
+
+    public void evictAll() {
+        evictGroups();
+        evictQueries(null);
+    }
+
+
+    private void evict(String id) {
+        if (id != null) {
+            log.debug("evict id = {}", id);
+            cache.invalidate(id);
+        }
+    }
+
+
+    private void evictGroups() {
+        log.debug("evicting all cached groups");
+        cache.invalidateAll();
+    }
+
+
+    private void evictGroups(String institutionId, String productId) {
+        log.debug("evictGroups institutionId = {}, productId = {}", institutionId, productId);
+        // the groups changed by the write aren't read back, so all the cached ones it may have touched are evicted,
+        // while a group loaded concurrently with the write is left to the change stream
+        cache.asMap().values().removeIf(group -> Objects.equals(institutionId, group.getInstitutionId())
+                && Objects.equals(productId, group.getProductId()));
+    }
+
+
+    @Data
+    static class FindAllKey {
+        private final String institutionId;
+        private final String productId;
+        private final String userId;
+        private final Set<UserGroupStatus> status;
+        private final Pageable pageable;
+        private final long generation;
+        private final long unknownInstitutionGeneration;
+
+        static FindAllKey of(UserGroupFilter filter, Pageable pageable, UserGroupGenerations generations) {
+            // the statuses are matched with $in, so neither their order nor their repetitions change the result
+            Set<UserGroupStatus> status = filter.getStatus() == null || filter.getStatus().isEmpty()
+                    ? Collections.emptySet()
+                    : EnumSet.copyOf(filter.getStatus());
+            return new FindAllKey(filter.getInstitutionId(), filter.getProductId(), filter.getUserId(), status, pageable,
+                    generations.get(filter.getInstitutionId()), generations.getUnknownInstitution());
+        }
+    }
+
+}
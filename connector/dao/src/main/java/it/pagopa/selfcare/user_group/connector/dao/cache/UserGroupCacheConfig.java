@@ -0,0 +1,62 @@
+package it.pagopa.selfcare.user_group.connector.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.dao.UserGroupConnectorImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+class UserGroupCacheConfig {
+
+    static final String CACHE_NAME = "user-groups";
+    static final String QUERY_CACHE_NAME = "user-group-queries";
+
+
+    @Bean
+    @Primary
+    public UserGroupConnector cachingUserGroupConnector(UserGroupConnectorImpl userGroupConnector,
+                                                        ObjectProvider<MeterRegistry> meterRegistry,
+                                                        @Value("${user-group.cache.enabled:false}") boolean enabled,
+                                                        @Value("${user-group.cache.maximum-size:10000}") long maximumSize,
+                                                        @Value("${user-group.cache.expire-after-write:30s}") Duration expireAfterWrite,
+                                                        @Value("${user-group.cache.query.enabled:true}") boolean queryEnabled,
+                                                        @Value("${user-group.cache.query.maximum-size:1000}") long queryMaximumSize,
+                                                        @Value("${user-group.cache.query.expire-after-write:30s}") Duration queryExpireAfterWrite) {
+        if (!enabled) {
+            return userGroupConnector;
+        }
+        log.info("Caching user groups by id: maximum size = {}, expire after write = {}", maximumSize, expireAfterWrite);
+        Cache<String, UserGroupOperations> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+        if (!queryEnabled) {
+            return new CachingUserGroupConnector(userGroupConnector, cache);
+        }
+        log.info("Caching user group queries: maximum size = {}, expire after write = {}", queryMaximumSize, queryExpireAfterWrite);
+        // the pages superseded by a write are never read again, and are left to the size and time bounds
+        Cache<CachingUserGroupConnector.FindAllKey, Page<UserGroupOperations>> queryCache = Caffeine.newBuilder()
+                .maximumSize(queryMaximumSize)
+                .expireAfterWrite(queryExpireAfterWrite)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, queryCache, QUERY_CACHE_NAME));
+        return new CachingUserGroupConnector(userGroupConnector, cache, queryCache);
+    }
+
+}
@@ -0,0 +1,195 @@
+package it.pagopa.selfcare.user_group.connector.dao.cache;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the cache of {@link CachingUserGroupConnector} coherent with the writes made by the other replicas,
+ * evicting the groups reported by a change stream on the user groups collection, together with the cached queries
+ * of their institution, looked up from the current version of the group.
+ * After a failure the whole cache is evicted, since the writes made in the meantime aren't seen until the stream
+ * is reopened, and the stream is reopened from the last seen resume token, so the events raised in between
+ * are replayed; when the token can't be used anymore, or the failure isn't raised by Mongo and could happen
+ * again on the same event, the stream is reopened from the current time instead.
+ */
+@Slf4j
+@Component
+public class UserGroupChangeStreamListener implements SmartLifecycle {
+
+    private static final long MAX_AWAIT_MILLIS = 1000;
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final String FULL_DOCUMENT = "fullDocument";
+
+    private final MongoTemplate mongoTemplate;
+    private final UserGroupConnector groupConnector;
+    private final boolean enabled;
+    private final Duration retryDelay;
+    private volatile boolean running;
+    private volatile BsonDocument resumeToken;
+    private Thread worker;
+
+
+    @Autowired
+    public UserGroupChangeStreamListener(MongoTemplate mongoTemplate,
+                                         UserGroupConnector groupConnector,
+                                         @Value("${user-group.cache.change-stream.enabled:true}") boolean enabled,
+                                         @Value("${user-group.cache.change-stream.retry-delay:5s}") Duration retryDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.groupConnector = groupConnector;
+        this.enabled = enabled;
+        this.retryDelay = retryDelay;
+    }
+
+
+    @Override
+    public void start() {
+        if (!enabled || !(groupConnector instanceof CachingUserGroupConnector)) {
+            return;
+        }
+        log.info("Watching collection {} to evict cached user groups", mongoTemplate.getCollectionName(UserGroupEntity.class));
+        running = true;
+        worker = new Thread(() -> listen((CachingUserGroupConnector) groupConnector), "user-group-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(2 * MAX_AWAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+
+    BsonDocument getResumeToken() {
+        return resumeToken;
+    }
+
+
+    private void listen(CachingUserGroupConnector cache) {
+        while (running) {
+            try {
+                watch(cache);
+            } catch (RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                if (!(e instanceof MongoException) || isResumePointLost((MongoException) e)) {
+                    resumeToken = null;
+                }
+                log.warn("Change stream on user groups interrupted, retrying in {}", retryDelay, e);
+                cache.evictAll();
+                try {
+                    Thread.sleep(retryDelay.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+
+    private void watch(CachingUserGroupConnector cache) {
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(UserGroupEntity.class))
+                .watch(List.of(Aggregates.project(Projections.include("operationType", "documentKey",
+                        FULL_DOCUMENT + "." + UserGroupEntity.Fields.institutionId))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+        if (resumeToken == null) {
+            // whatever changed before the stream was opened is unknown
+            cache.evictAll();
+        } else {
+            changeStream = changeStream.resumeAfter(resumeToken);
+        }
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && !onChange(cache, change)) {
+                    resumeToken = null;
+                    return;
+                }
+                if (cursor.getResumeToken() != null) {
+                    resumeToken = cursor.getResumeToken();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * @return false if the stream has been invalidated and must be reopened
+     */
+    private boolean onChange(CachingUserGroupConnector cache, ChangeStreamDocument<Document> change) {
+        log.debug("onChange operationType = {}, documentKey = {}", change.getOperationType(), change.getDocumentKey());
+        switch (change.getOperationType()) {
+            case INSERT:
+                // missing groups aren't cached, but the new one may be part of the cached queries
+                cache.evictQueries(toInstitutionId(change));
+                return true;
+            case UPDATE:
+            case REPLACE:
+            case DELETE:
+                cache.evict(toId(change.getDocumentKey().get(UserGroupEntity.Fields.id)), toInstitutionId(change));
+                return true;
+            case INVALIDATE:
+                cache.evictAll();
+                return false;
+            default:
+                cache.evictAll();
+                return true;
+        }
+    }
+
+
+    private static boolean isResumePointLost(MongoException e) {
+        // the oplog no longer holds the resume point
+        return e.getCode() == CHANGE_STREAM_HISTORY_LOST || e.getCode() == CHANGE_STREAM_FATAL_ERROR;
+    }
+
+
+    private static String toInstitutionId(ChangeStreamDocument<Document> change) {
+        // missing when the group has been deleted since, so all the institutions are evicted
+        return change.getFullDocument() != null ? change.getFullDocument().getString(UserGroupEntity.Fields.institutionId) : null;
+    }
+
+
+    private static String toId(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+}
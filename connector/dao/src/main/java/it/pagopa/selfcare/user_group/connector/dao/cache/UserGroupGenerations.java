@@ -0,0 +1,42 @@
+package it.pagopa.selfcare.user_group.connector.dao.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters bumped once a write has been applied, so that the query results cached under an older generation are
+ * never read again, without looking for them. Every institution has its own counter; the writes whose institution
+ * isn't known bump a shared one instead, and every write bumps the one of the queries spanning all institutions.
+ */
+class UserGroupGenerations {
+
+    private final ConcurrentMap<String, AtomicLong> institutions = new ConcurrentHashMap<>();
+    private final AtomicLong unknownInstitution = new AtomicLong();
+    private final AtomicLong anyInstitution = new AtomicLong();
+
+
+    long get(String institutionId) {
+        if (institutionId == null) {
+            return anyInstitution.get();
+        }
+        AtomicLong generation = institutions.get(institutionId);
+        return generation != null ? generation.get() : 0;
+    }
+
+
+    long getUnknownInstitution() {
+        return unknownInstitution.get();
+    }
+
+
+    void bump(String institutionId) {
+        if (institutionId == null) {
+            unknownInstitution.incrementAndGet();
+        } else {
+            institutions.computeIfAbsent(institutionId, key -> new AtomicLong()).incrementAndGet();
+        }
+        anyInstitution.incrementAndGet();
+    }
+
+}
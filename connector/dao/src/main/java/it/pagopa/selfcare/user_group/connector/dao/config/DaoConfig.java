@@ -1,14 +1,24 @@
 package it.pagopa.selfcare.user_group.connector.dao.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import it.pagopa.selfcare.user_group.connector.dao.auditing.SpringSecurityAuditorAware;
+import it.pagopa.selfcare.user_group.connector.dao.monitoring.SlowCommandListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
 
 @Configuration
 @EnableMongoAuditing(modifyOnCreate = false)
+@EnableScheduling
 @PropertySource("classpath:config/dao-config.properties")
 class DaoConfig {
 
@@ -17,4 +27,20 @@ class DaoConfig {
         return new SpringSecurityAuditorAware();
     }
 
+
+    @Bean(destroyMethod = "shutdown")
+    public SlowCommandListener slowCommandListener(ObjectProvider<MongoTemplate> mongoTemplate,
+                                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                                   @Value("${user-group.mongo.slow-commands.threshold:500ms}") Duration threshold,
+                                                   @Value("${user-group.mongo.slow-commands.capacity:50}") int capacity,
+                                                   @Value("${user-group.mongo.slow-commands.explain:true}") boolean explain) {
+        return new SlowCommandListener(mongoTemplate, meterRegistry, threshold, capacity, explain);
+    }
+
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowCommandListenerCustomizer(SlowCommandListener slowCommandListener) {
+        return builder -> builder.addCommandListener(slowCommandListener);
+    }
+
 }
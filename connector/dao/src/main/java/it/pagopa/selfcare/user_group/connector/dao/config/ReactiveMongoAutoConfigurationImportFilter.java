@@ -0,0 +1,44 @@
+package it.pagopa.selfcare.user_group.connector.dao.config;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+/**
+ * Leaves out the reactive Mongo auto-configurations, brought in by the reactive driver, unless the reactive read
+ * path is enabled, so that no second MongoClient, with its own connection pool, is created when nothing uses it
+ */
+public class ReactiveMongoAutoConfigurationImportFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+
+    static final String ENABLED_PROPERTY = "user-group.reactive.enabled";
+    private static final Set<String> REACTIVE_AUTO_CONFIGURATIONS = Set.of(
+            "org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration");
+
+    private Environment environment;
+
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+
+    @Override
+    public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+        boolean enabled = environment.getProperty(ENABLED_PROPERTY, Boolean.class, false);
+        boolean[] matches = new boolean[autoConfigurationClasses.length];
+        for (int i = 0; i < autoConfigurationClasses.length; i++) {
+            // the classes already filtered out by the other filters are passed as null
+            matches[i] = enabled
+                    || autoConfigurationClasses[i] == null
+                    || !REACTIVE_AUTO_CONFIGURATIONS.contains(autoConfigurationClasses[i]);
+        }
+        return matches;
+    }
+
+}
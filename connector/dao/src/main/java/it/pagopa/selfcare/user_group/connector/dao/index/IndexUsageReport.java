@@ -0,0 +1,30 @@
+package it.pagopa.selfcare.user_group.connector.dao.index;
+
+import lombok.Value;
+
+import java.util.Set;
+
+@Value
+public class IndexUsageReport {
+
+    /**
+     * Indexes declared on the entity that are not present on the collection
+     */
+    Set<String> missing;
+
+    /**
+     * Indexes present on the collection that have not been used since the server (re)started
+     */
+    Set<String> unused;
+
+    /**
+     * Indexes present on the collection that are not declared on the entity
+     */
+    Set<String> undeclared;
+
+
+    public boolean isHealthy() {
+        return missing.isEmpty();
+    }
+
+}
@@ -0,0 +1,136 @@
+package it.pagopa.selfcare.user_group.connector.dao.index;
+
+import it.pagopa.selfcare.user_group.connector.dao.model.OffboardingJobEntity;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the indexes declared on {@link UserGroupEntity} and {@link OffboardingJobEntity} aligned with the ones present
+ * on their collections and reports, at boot, the declared indexes of the groups that are missing and the ones that are
+ * never used.
+ */
+@Slf4j
+@Component
+public class UserGroupIndexManager {
+
+    private static final String ID_INDEX_NAME = "_id_";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean autoCreation;
+
+
+    @Autowired
+    public UserGroupIndexManager(MongoTemplate mongoTemplate,
+                                 @Value("${user-group.indexes.auto-creation:true}") boolean autoCreation) {
+        this.mongoTemplate = mongoTemplate;
+        this.autoCreation = autoCreation;
+    }
+
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed() {
+        log.trace("onContextRefreshed start");
+        try {
+            if (autoCreation) {
+                ensureIndexes();
+            }
+            IndexUsageReport report = reportIndexUsage();
+            if (!report.isHealthy()) {
+                log.warn("Missing indexes on collection {}: {}", getCollectionName(), report.getMissing());
+            }
+            if (!report.getUnused().isEmpty()) {
+                log.info("Unused indexes on collection {}: {}", getCollectionName(), report.getUnused());
+            }
+            if (!report.getUndeclared().isEmpty()) {
+                log.info("Undeclared indexes on collection {}: {}", getCollectionName(), report.getUndeclared());
+            }
+        } catch (RuntimeException e) {
+            log.error("Unable to verify indexes on collection " + getCollectionName(), e);
+        }
+        log.trace("onContextRefreshed end");
+    }
+
+
+    public void ensureIndexes() {
+        log.trace("ensureIndexes start");
+        ensureIndexes(UserGroupEntity.class);
+        ensureIndexes(OffboardingJobEntity.class);
+        log.trace("ensureIndexes end");
+    }
+
+
+    private void ensureIndexes(Class<?> entityClass) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(entityClass);
+        for (IndexDefinition indexDefinition : getDeclaredIndexes(entityClass)) {
+            String indexName = indexOperations.ensureIndex(indexDefinition);
+            log.debug("ensureIndexes index = {}", indexName);
+        }
+    }
+
+
+    public IndexUsageReport reportIndexUsage() {
+        log.trace("reportIndexUsage start");
+        Set<String> declared = getDeclaredIndexes(UserGroupEntity.class).stream()
+                .map(indexDefinition -> indexDefinition.getIndexOptions().getString("name"))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> existing = mongoTemplate.indexOps(UserGroupEntity.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Set<String> missing = new LinkedHashSet<>(declared);
+        missing.removeAll(existing);
+
+        Set<String> undeclared = new LinkedHashSet<>(existing);
+        undeclared.removeAll(declared);
+        undeclared.remove(ID_INDEX_NAME);
+
+        Set<String> unused = new LinkedHashSet<>();
+        mongoTemplate.getCollection(getCollectionName())
+                .aggregate(List.of(new Document("$indexStats", new Document())))
+                .forEach(stats -> {
+                    String name = stats.getString("name");
+                    Document accesses = stats.get("accesses", Document.class);
+                    Number ops = accesses != null ? accesses.get("ops", Number.class) : null;
+                    if (!ID_INDEX_NAME.equals(name) && (ops == null || ops.longValue() == 0)) {
+                        unused.add(name);
+                    }
+                });
+
+        IndexUsageReport report = new IndexUsageReport(missing, unused, undeclared);
+        log.debug("reportIndexUsage result = {}", report);
+        log.trace("reportIndexUsage end");
+        return report;
+    }
+
+
+    private List<IndexDefinition> getDeclaredIndexes(Class<?> entityClass) {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        List<IndexDefinition> indexes = new ArrayList<>();
+        resolver.resolveIndexFor(entityClass).forEach(indexes::add);
+        return indexes;
+    }
+
+
+    private String getCollectionName() {
+        return mongoTemplate.getCollectionName(UserGroupEntity.class);
+    }
+
+}
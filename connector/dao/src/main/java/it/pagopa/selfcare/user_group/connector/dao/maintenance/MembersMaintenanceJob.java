@@ -0,0 +1,185 @@
+package it.pagopa.selfcare.user_group.connector.dao.maintenance;
+
+import com.mongodb.client.result.UpdateResult;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Normalizes the stored members of the groups, scanning in batches only the groups needing it: the members still
+ * stored as strings are converted to binary UUIDs (BSON subtype 4), and the duplicated ones accumulated by the former
+ * $push based insertMember, or present in both forms, are kept once.
+ * Every replica schedules the job, but a lease stored in {@value #LOCKS_COLLECTION} lets only one of them run it.
+ */
+@Slf4j
+@Component
+public class MembersMaintenanceJob {
+
+    static final String LOCKS_COLLECTION = "userGroupLocks";
+    static final String LOCK_ID = "membersMaintenance";
+    private static final String ID = "_id";
+    private static final String LOCKED_UNTIL = "lockedUntil";
+    private static final String LOCKED_BY = "lockedBy";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration lockDuration;
+    private final String instanceId = UUID.randomUUID().toString();
+
+
+    @Autowired
+    public MembersMaintenanceJob(MongoTemplate mongoTemplate,
+                                 @Value("${user-group.members.maintenance.enabled:false}") boolean enabled,
+                                 @Value("${user-group.members.maintenance.batch-size:500}") int batchSize,
+                                 @Value("${user-group.members.maintenance.lock-duration:1h}") Duration lockDuration) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lockDuration = lockDuration;
+    }
+
+
+    @Scheduled(cron = "${user-group.members.maintenance.cron:0 0 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        log.trace("run start");
+        if (!tryLock()) {
+            log.info("Members maintenance skipped: it is running on another replica");
+            log.trace("run end");
+            return;
+        }
+        try {
+            MembersMaintenanceReport report = maintain();
+            log.info("Members maintenance completed: {} groups normalized out of {} scanned, {} invalid members, {} bytes reclaimed",
+                    report.getNormalized(), report.getScanned(), report.getInvalid(), report.getReclaimedBytes());
+        } catch (RuntimeException e) {
+            log.error("Members maintenance failed", e);
+        } finally {
+            unlock();
+        }
+        log.trace("run end");
+    }
+
+
+    public MembersMaintenanceReport maintain() {
+        log.trace("maintain start");
+        String collectionName = mongoTemplate.getCollectionName(UserGroupEntity.class);
+        long scanned = 0;
+        long normalized = 0;
+        long invalid = 0;
+        long reclaimedBytes = 0;
+        Object lastId = null;
+        List<Document> batch;
+        do {
+            batch = mongoTemplate.find(membersToNormalizeQuery(lastId), Document.class, collectionName);
+            for (Document group : batch) {
+                lastId = group.get(UserGroupEntity.Fields.id);
+                List<?> members = group.getList(UserGroupEntity.Fields.members, Object.class);
+                Set<Object> distinctMembers = new LinkedHashSet<>(members.size());
+                for (Object member : members) {
+                    if (member instanceof String) {
+                        try {
+                            member = UUID.fromString((String) member);
+                        } catch (IllegalArgumentException e) {
+                            log.warn("Group {} has a member that isn't a valid UUID: {}", lastId, member);
+                            invalid++;
+                        }
+                    }
+                    distinctMembers.add(member);
+                }
+                List<Object> normalizedMembers = new ArrayList<>(distinctMembers);
+                scanned++;
+                // matching the whole array makes the update a no-op if the members changed since the read
+                UpdateResult updateResult = mongoTemplate.updateFirst(
+                        new BasicQuery(new Document(UserGroupEntity.Fields.id, lastId)
+                                .append(UserGroupEntity.Fields.members, members)),
+                        new Update().set(UserGroupEntity.Fields.members, normalizedMembers),
+                        collectionName);
+                if (updateResult.getModifiedCount() > 0) {
+                    normalized++;
+                    reclaimedBytes += bsonSize(members) - bsonSize(normalizedMembers);
+                }
+            }
+        } while (batch.size() == batchSize);
+        MembersMaintenanceReport report = new MembersMaintenanceReport(scanned, normalized, invalid, reclaimedBytes);
+        log.debug("maintain result = {}", report);
+        log.trace("maintain end");
+        return report;
+    }
+
+
+    boolean tryLock() {
+        Instant now = Instant.now();
+        try {
+            // an expired or missing lease is taken, while a held one makes the upsert insert a duplicate id
+            mongoTemplate.upsert(Query.query(Criteria.where(ID).is(LOCK_ID)
+                                    .and(LOCKED_UNTIL).lte(Date.from(now))),
+                    new Update().set(LOCKED_UNTIL, Date.from(now.plus(lockDuration)))
+                            .set(LOCKED_BY, instanceId),
+                    LOCKS_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+
+    void unlock() {
+        mongoTemplate.updateFirst(Query.query(Criteria.where(ID).is(LOCK_ID)
+                                .and(LOCKED_BY).is(instanceId)),
+                new Update().set(LOCKED_UNTIL, new Date()),
+                LOCKS_COLLECTION);
+    }
+
+
+    private Query membersToNormalizeQuery(Object lastId) {
+        Document members = new Document("$ifNull", List.of("$" + UserGroupEntity.Fields.members, List.of()));
+        Document filter = new Document("$or", List.of(
+                new Document(UserGroupEntity.Fields.members, new Document("$type", BsonType.STRING.getValue())),
+                new Document("$expr", new Document("$ne", List.of(
+                        new Document("$size", members),
+                        new Document("$size", new Document("$setUnion", List.of(members, List.of()))))))));
+        if (lastId != null) {
+            filter.append(UserGroupEntity.Fields.id, new Document("$gt", lastId));
+        }
+        BasicQuery query = new BasicQuery(filter, new Document(UserGroupEntity.Fields.members, 1));
+        query.with(Sort.by(UserGroupEntity.Fields.id));
+        query.limit(batchSize);
+        return query;
+    }
+
+
+    private static long bsonSize(List<?> members) {
+        return new RawBsonDocument(new Document(UserGroupEntity.Fields.members, members),
+                new DocumentCodec().withUuidRepresentation(UuidRepresentation.STANDARD))
+                .getByteBuffer().remaining();
+    }
+
+}
@@ -0,0 +1,28 @@
+package it.pagopa.selfcare.user_group.connector.dao.maintenance;
+
+import lombok.Value;
+
+@Value
+public class MembersMaintenanceReport {
+
+    /**
+     * Groups found with members stored as strings or duplicated
+     */
+    long scanned;
+
+    /**
+     * Groups whose members have been converted to binary UUIDs and deduplicated
+     */
+    long normalized;
+
+    /**
+     * Members left as strings since they aren't valid UUIDs
+     */
+    long invalid;
+
+    /**
+     * Estimated BSON bytes no longer stored once the members have been normalized
+     */
+    long reclaimedBytes;
+
+}
@@ -1,5 +1,6 @@
 package it.pagopa.selfcare.user_group.connector.dao.model;
 
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
@@ -47,4 +48,17 @@ public class CriteriaBuilder {
         }
         return this;
     }
+
+    public CriteriaBuilder afterIfNotNull(@NonNull String sortKey, @NonNull Sort.Direction direction, @Nullable Object sortValue,
+                                          @NonNull String idKey, @Nullable Object lastId) {
+        if (sortValue != null && lastId != null) {
+            Criteria beyondSortValue = direction.isAscending()
+                    ? Criteria.where(sortKey).gt(sortValue)
+                    : Criteria.where(sortKey).lt(sortValue);
+            Criteria beyondId = Criteria.where(sortKey).is(sortValue).and(idKey).gt(lastId);
+            criteria = criteria.orOperator(beyondSortValue, beyondId);
+            first = false;
+        }
+        return this;
+    }
 }
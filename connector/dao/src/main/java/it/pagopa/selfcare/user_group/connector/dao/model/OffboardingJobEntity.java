@@ -0,0 +1,76 @@
+package it.pagopa.selfcare.user_group.connector.dao.model;
+
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJobStatus;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldNameConstants;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+@Document("userGroupOffboardingJobs")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_claimedUntil", def = "{'status': 1, 'claimedUntil': 1}"),
+        @CompoundIndex(name = "status_completedAt", def = "{'status': 1, 'completedAt': 1}")
+})
+@FieldNameConstants(onlyExplicitlyIncluded = true)
+public class OffboardingJobEntity {
+
+    public OffboardingJobEntity(OffboardingJob job) {
+        this();
+        id = job.getId();
+        memberId = job.getMemberId();
+        institutionId = job.getInstitutionId();
+        productId = job.getProductId();
+        status = job.getStatus();
+        completedAt = job.getCompletedAt();
+    }
+
+    @Id
+    private String id;
+    private String memberId;
+    private String institutionId;
+    private String productId;
+    @FieldNameConstants.Include
+    private OffboardingJobStatus status;
+    @CreatedDate
+    private Instant submittedAt;
+    @CreatedBy
+    private String submittedBy;
+    @FieldNameConstants.Include
+    private String claimedBy;
+    @FieldNameConstants.Include
+    private Instant claimedUntil;
+    @FieldNameConstants.Include
+    private Instant completedAt;
+
+
+    public OffboardingJob toOffboardingJob() {
+        OffboardingJob job = new OffboardingJob();
+        job.setId(id);
+        job.setMemberId(memberId);
+        job.setInstitutionId(institutionId);
+        job.setProductId(productId);
+        job.setStatus(status);
+        job.setSubmittedAt(submittedAt);
+        job.setSubmittedBy(submittedBy);
+        job.setCompletedAt(completedAt);
+        return job;
+    }
+
+
+    public static class Fields {
+        public static String id = org.springframework.data.mongodb.core.aggregation.Fields.UNDERSCORE_ID;
+    }
+
+}
@@ -8,15 +8,25 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldNameConstants;
 import org.springframework.data.annotation.*;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 import java.util.Set;
+import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @EqualsAndHashCode(of = "id")
 @Document("userGroups")
+@CompoundIndexes({
+        @CompoundIndex(name = "institutionId_productId_status", def = "{'institutionId': 1, 'productId': 1, 'status': 1}"),
+        @CompoundIndex(name = "institutionId_productId_name", def = "{'institutionId': 1, 'productId': 1, 'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "productId_status", def = "{'productId': 1, 'status': 1}"),
+        @CompoundIndex(name = "members_institutionId_productId", def = "{'members': 1, 'institutionId': 1, 'productId': 1}"),
+        @CompoundIndex(name = "members_status_name", def = "{'members': 1, 'status': 1, 'name': 1, '_id': 1}")
+})
 @FieldNameConstants(onlyExplicitlyIncluded = true)
 public class UserGroupEntity implements UserGroupOperations {
 
@@ -33,6 +43,7 @@ public class UserGroupEntity implements UserGroupOperations {
         createdBy = userGroup.getCreatedBy();
         modifiedAt = userGroup.getModifiedAt();
         modifiedBy = userGroup.getModifiedBy();
+        version = userGroup.getVersion();
     }
 
     @Id
@@ -41,12 +52,14 @@ public class UserGroupEntity implements UserGroupOperations {
     private String institutionId;
     @FieldNameConstants.Include
     private String productId;
+    @FieldNameConstants.Include
     private String name;
+    @FieldNameConstants.Include
     private String description;
     @FieldNameConstants.Include
     private UserGroupStatus status;
     @FieldNameConstants.Include
-    private Set<String> members;
+    private Set<UUID> members;
     @CreatedDate
     private Instant createdAt;
     @CreatedBy
@@ -57,6 +70,9 @@ public class UserGroupEntity implements UserGroupOperations {
     @LastModifiedBy
     @FieldNameConstants.Include
     private String modifiedBy;
+    @Version
+    @FieldNameConstants.Include
+    private Long version;
 
 
     public static class Fields {
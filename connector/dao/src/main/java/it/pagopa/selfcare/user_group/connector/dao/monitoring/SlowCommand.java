@@ -0,0 +1,33 @@
+package it.pagopa.selfcare.user_group.connector.dao.monitoring;
+
+import lombok.Value;
+import org.bson.Document;
+
+import java.time.Instant;
+
+@Value
+public class SlowCommand {
+
+    Instant completedAt;
+
+    String database;
+
+    String commandName;
+
+    long durationMillis;
+
+    boolean failed;
+
+    /**
+     * The shape of the command as sent to the server, without the values it is matched against,
+     * only for the explainable commands
+     */
+    Document command;
+
+    /**
+     * The query planner section of the explain output, without the values it is matched against,
+     * null if the command isn't explainable or the plan couldn't be captured
+     */
+    Document plan;
+
+}
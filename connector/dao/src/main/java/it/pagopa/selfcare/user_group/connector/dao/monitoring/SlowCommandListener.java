@@ -0,0 +1,197 @@
+package it.pagopa.selfcare.user_group.connector.dao.monitoring;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Times every command sent to Mongo and keeps the latest ones slower than the given threshold in a bounded buffer.
+ * The plan of the slow find, count and aggregate commands is captured by explaining them again, on a single
+ * background thread: when it can't keep up the command is kept without its plan.
+ * Only the shape of the commands and plans is logged and kept: the values they are matched against, such as
+ * the member ids, are redacted.
+ */
+@Slf4j
+public class SlowCommandListener implements CommandListener {
+
+    static final String COMMAND_METRIC = "user-group.mongo.command";
+    static final Set<String> EXPLAINABLE_COMMANDS = Set.of("find", "count", "aggregate");
+    private static final Set<String> DRIVER_FIELDS = Set.of("$db", "lsid", "txnNumber", "$clusterTime", "$readPreference", "readConcern", "apiVersion", "apiStrict", "apiDeprecationErrors");
+    private static final Set<String> VALUE_FIELDS = Set.of("filter", "query", "pipeline", "parsedQuery", "indexBounds", "$match");
+    static final String REDACTED_VALUE = "?";
+    private static final String QUERY_PLANNER = "queryPlanner";
+    private static final int EXPLAIN_QUEUE_CAPACITY = 16;
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long thresholdNanos;
+    private final int capacity;
+    private final ExecutorService explainExecutor;
+    private final Map<Integer, BsonDocument> startedCommands = new ConcurrentHashMap<>();
+    private final Deque<SlowCommand> slowCommands = new ArrayDeque<>();
+
+
+    public SlowCommandListener(ObjectProvider<MongoTemplate> mongoTemplate,
+                               ObjectProvider<MeterRegistry> meterRegistry,
+                               Duration threshold,
+                               int capacity,
+                               boolean explain) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+        this.explainExecutor = explain
+                ? new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-command-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (EXPLAINABLE_COMMANDS.contains(event.getCommandName())) {
+            // the event document is only valid for the duration of the callback
+            startedCommands.put(event.getRequestId(), event.getCommand().clone());
+        }
+    }
+
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        onCompleted(event.getRequestId(), event.getDatabaseName(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+    }
+
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        onCompleted(event.getRequestId(), event.getDatabaseName(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+    }
+
+
+    public synchronized List<SlowCommand> getSlowCommands() {
+        List<SlowCommand> result = new ArrayList<>(slowCommands);
+        Collections.reverse(result);
+        return result;
+    }
+
+
+    public void shutdown() {
+        if (explainExecutor != null) {
+            explainExecutor.shutdownNow();
+        }
+    }
+
+
+    private void onCompleted(int requestId, String database, String commandName, long elapsedNanos, boolean failed) {
+        BsonDocument command = startedCommands.remove(requestId);
+        meterRegistry.ifAvailable(registry -> Timer.builder(COMMAND_METRIC)
+                .tag("command", commandName)
+                .tag("outcome", failed ? "failure" : "success")
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS));
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        Document commandDocument = command == null ? null : toExplainable(command);
+        Document commandShape = commandDocument == null ? null : redact(commandDocument);
+        log.warn("Slow Mongo command {} on {} took {} ms: {}", commandName, database, durationMillis,
+                commandShape == null ? "" : commandShape.toJson());
+        if (commandDocument == null || explainExecutor == null) {
+            add(new SlowCommand(Instant.now(), database, commandName, durationMillis, failed, commandShape, null));
+            return;
+        }
+        try {
+            // the actual command is explained, since the plan may depend on the values
+            explainExecutor.execute(() -> add(new SlowCommand(Instant.now(), database, commandName, durationMillis, failed,
+                    commandShape, explain(database, commandDocument, commandShape))));
+        } catch (RejectedExecutionException e) {
+            log.debug("Explain queue full, slow command {} kept without its plan", commandName);
+            add(new SlowCommand(Instant.now(), database, commandName, durationMillis, failed, commandShape, null));
+        }
+    }
+
+
+    private Document explain(String database, Document command, Document commandShape) {
+        try {
+            Document result = mongoTemplate.getObject().getMongoDatabaseFactory().getMongoDatabase(database)
+                    .runCommand(new Document("explain", command).append("verbosity", QUERY_PLANNER));
+            Document plan = result.get(QUERY_PLANNER, Document.class);
+            return redact(plan != null ? plan : result);
+        } catch (RuntimeException e) {
+            log.warn("Unable to explain slow Mongo command " + commandShape.toJson(), e);
+            return null;
+        }
+    }
+
+
+    private synchronized void add(SlowCommand slowCommand) {
+        if (slowCommands.size() == capacity) {
+            slowCommands.pollFirst();
+        }
+        slowCommands.addLast(slowCommand);
+    }
+
+
+    private static Document toExplainable(BsonDocument command) {
+        Document document = Document.parse(command.toJson());
+        DRIVER_FIELDS.forEach(document::remove);
+        return document;
+    }
+
+
+    /**
+     * @return a copy of the given command or plan, with the values held by its filters, pipelines and index bounds
+     * replaced by {@link #REDACTED_VALUE}, keeping the field names and operators
+     */
+    static Document redact(Document document) {
+        Document result = new Document();
+        document.forEach((key, value) -> result.put(key, VALUE_FIELDS.contains(key) ? redactValues(value) : redactNested(value)));
+        return result;
+    }
+
+
+    private static Object redactNested(Object value) {
+        if (value instanceof Document) {
+            return redact((Document) value);
+        }
+        if (value instanceof List) {
+            List<Object> result = new ArrayList<>();
+            ((List<?>) value).forEach(element -> result.add(redactNested(element)));
+            return result;
+        }
+        return value;
+    }
+
+
+    private static Object redactValues(Object value) {
+        if (value instanceof Document) {
+            Document result = new Document();
+            ((Document) value).forEach((key, nested) -> result.put(key, redactValues(nested)));
+            return result;
+        }
+        if (value instanceof List) {
+            List<Object> result = new ArrayList<>();
+            ((List<?>) value).forEach(element -> result.add(redactValues(element)));
+            return result;
+        }
+        return REDACTED_VALUE;
+    }
+
+}
@@ -0,0 +1,32 @@
+package it.pagopa.selfcare.user_group.connector.dao.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Exposes the latest slow Mongo commands, most recent first, with their plan.
+ * Not exposed over HTTP by default: add slowcommands to MANAGEMENT_ENDPOINTS_EXPOSED to publish it.
+ */
+@Component
+@Endpoint(id = "slowcommands")
+public class SlowCommandsEndpoint {
+
+    private final SlowCommandListener slowCommandListener;
+
+
+    @Autowired
+    public SlowCommandsEndpoint(SlowCommandListener slowCommandListener) {
+        this.slowCommandListener = slowCommandListener;
+    }
+
+
+    @ReadOperation
+    public List<SlowCommand> slowCommands() {
+        return slowCommandListener.getSlowCommands();
+    }
+
+}
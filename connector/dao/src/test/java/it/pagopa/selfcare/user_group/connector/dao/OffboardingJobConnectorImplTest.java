@@ -0,0 +1,158 @@
+package it.pagopa.selfcare.user_group.connector.dao;
+
+import it.pagopa.selfcare.commons.base.security.SelfCareUser;
+import it.pagopa.selfcare.user_group.connector.dao.config.DaoTestConfig;
+import it.pagopa.selfcare.user_group.connector.dao.model.OffboardingJobEntity;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.test.context.TestSecurityContextHolder;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@EnableAutoConfiguration
+@ContextConfiguration(classes = {UserGroupEntity.class, UserGroupRepository.class, DaoTestConfig.class, OffboardingJobConnectorImpl.class})
+class OffboardingJobConnectorImplTest {
+
+    @Autowired
+    private OffboardingJobConnectorImpl jobConnector;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        TestSecurityContextHolder.setAuthentication(new TestingAuthenticationToken(SelfCareUser.builder("submitterId").build(), null));
+    }
+
+    @AfterEach
+    void clear() {
+        mongoTemplate.dropCollection(OffboardingJobEntity.class);
+        TestSecurityContextHolder.clearContext();
+    }
+
+
+    @Test
+    void insert() {
+        //given
+        Instant now = Instant.now().minusSeconds(1);
+        //when
+        OffboardingJob job = jobConnector.insert(job("memberId"));
+        //then
+        assertNotNull(job.getId());
+        assertEquals(OffboardingJobStatus.PENDING, job.getStatus());
+        assertEquals("submitterId", job.getSubmittedBy());
+        assertTrue(now.isBefore(job.getSubmittedAt()));
+        assertNull(job.getCompletedAt());
+        OffboardingJob found = jobConnector.findById(job.getId()).orElseThrow();
+        assertEquals("memberId", found.getMemberId());
+        assertEquals("institutionId", found.getInstitutionId());
+        assertEquals("productId", found.getProductId());
+        assertEquals("submitterId", found.getSubmittedBy());
+    }
+
+
+    @Test
+    void findById_notFound() {
+        //when
+        boolean found = jobConnector.findById("jobId").isPresent();
+        //then
+        assertFalse(found);
+    }
+
+
+    @Test
+    void claimPending() {
+        //given
+        OffboardingJob job1 = jobConnector.insert(job("member1"));
+        OffboardingJob job2 = jobConnector.insert(job("member2"));
+        OffboardingJob job3 = jobConnector.insert(job("member3"));
+        //when
+        List<OffboardingJob> claimed = jobConnector.claimPending(2, Duration.ofMinutes(5));
+        List<OffboardingJob> claimedByOtherReplica = jobConnector.claimPending(2, Duration.ofMinutes(5));
+        //then
+        assertEquals(2, claimed.size());
+        assertEquals(1, claimedByOtherReplica.size());
+        Set<String> claimedIds = claimed.stream()
+                .map(OffboardingJob::getId)
+                .collect(Collectors.toSet());
+        claimedIds.add(claimedByOtherReplica.get(0).getId());
+        assertEquals(Set.of(job1.getId(), job2.getId(), job3.getId()), claimedIds);
+        assertTrue(jobConnector.claimPending(2, Duration.ofMinutes(5)).isEmpty());
+    }
+
+
+    @Test
+    void claimPending_timedOut() {
+        //given
+        OffboardingJob job = jobConnector.insert(job("memberId"));
+        jobConnector.claimPending(10, Duration.ZERO);
+        //when
+        List<OffboardingJob> claimed = jobConnector.claimPending(10, Duration.ofMinutes(5));
+        //then
+        assertEquals(1, claimed.size());
+        assertEquals(job.getId(), claimed.get(0).getId());
+    }
+
+
+    @Test
+    void complete() {
+        //given
+        OffboardingJob job = jobConnector.insert(job("memberId"));
+        jobConnector.claimPending(10, Duration.ZERO);
+        //when
+        jobConnector.complete(List.of(job.getId()), OffboardingJobStatus.FAILED);
+        //then
+        OffboardingJob completed = jobConnector.findById(job.getId()).orElseThrow();
+        assertEquals(OffboardingJobStatus.FAILED, completed.getStatus());
+        assertNotNull(completed.getCompletedAt());
+        assertTrue(jobConnector.claimPending(10, Duration.ofMinutes(5)).isEmpty());
+    }
+
+
+    @Test
+    void deleteCompletedBefore() {
+        //given
+        OffboardingJob completed = jobConnector.insert(job("member1"));
+        OffboardingJob pending = jobConnector.insert(job("member2"));
+        jobConnector.complete(List.of(completed.getId()), OffboardingJobStatus.COMPLETED);
+        mongoTemplate.updateFirst(Query.query(Criteria.where(OffboardingJobEntity.Fields.id).is(completed.getId())),
+                new Update().set(OffboardingJobEntity.Fields.completedAt, Instant.now().minusSeconds(60)),
+                OffboardingJobEntity.class);
+        //when
+        long deletedCount = jobConnector.deleteCompletedBefore(Instant.now().minusSeconds(30));
+        //then
+        assertEquals(1, deletedCount);
+        assertTrue(jobConnector.findById(completed.getId()).isEmpty());
+        assertTrue(jobConnector.findById(pending.getId()).isPresent());
+    }
+
+
+    private static OffboardingJob job(String memberId) {
+        OffboardingJob job = new OffboardingJob();
+        job.setMemberId(memberId);
+        job.setInstitutionId("institutionId");
+        job.setProductId("productId");
+        return job;
+    }
+
+}
@@ -0,0 +1,137 @@
+package it.pagopa.selfcare.user_group.connector.dao;
+
+import it.pagopa.selfcare.commons.utils.TestUtils;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.dao.config.DaoTestConfig;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.validation.ValidationException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@EnableAutoConfiguration
+@ContextConfiguration(classes = {UserGroupEntity.class, UserGroupRepository.class, DaoTestConfig.class, ReactiveUserGroupConnectorImpl.class})
+@TestPropertySource(properties = {
+        "user-group.reactive.enabled=true"
+})
+class ReactiveUserGroupConnectorImplTest {
+
+    @Autowired
+    private ReactiveUserGroupConnectorImpl groupConnector;
+
+    @Autowired
+    private UserGroupRepository repository;
+
+    @AfterEach
+    void clear() {
+        repository.deleteAll();
+    }
+
+
+    @Test
+    void findById() {
+        //given
+        UserGroupEntity group = repository.insert(TestUtils.mockInstance(new UserGroupEntity(), "setId"));
+        //when
+        UserGroupOperations found = groupConnector.findById(group.getId()).block();
+        UserGroupOperations notFound = groupConnector.findById("notExisting").block();
+        //then
+        assertNotNull(found);
+        assertEquals(group.getName(), found.getName());
+        assertNull(notFound);
+    }
+
+
+    @Test
+    void existsMember() {
+        //given
+        UUID memberId = UUID.randomUUID();
+        UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId");
+        group.setMembers(Set.of(memberId));
+        group = repository.insert(group);
+        //when
+        Boolean isMember = groupConnector.existsMember(group.getId(), memberId.toString()).block();
+        Boolean isNotMember = groupConnector.existsMember(group.getId(), UUID.randomUUID().toString()).block();
+        //then
+        assertEquals(Boolean.TRUE, isMember);
+        assertEquals(Boolean.FALSE, isNotMember);
+    }
+
+
+    @Test
+    void findGroupsOfMember() {
+        //given
+        UUID memberId = UUID.randomUUID();
+        for (String name : List.of("b", "a", "c")) {
+            UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId");
+            group.setName(name);
+            group.setStatus("c".equals(name) ? UserGroupStatus.SUSPENDED : UserGroupStatus.ACTIVE);
+            group.setMembers(Set.of(memberId));
+            repository.insert(group);
+        }
+        //when
+        List<MemberGroup> groups = groupConnector.findGroupsOfMember(memberId.toString(), List.of(UserGroupStatus.ACTIVE))
+                .collectList()
+                .block();
+        //then
+        assertNotNull(groups);
+        assertEquals(List.of("a", "b"), groups.stream().map(MemberGroup::getName).collect(Collectors.toList()));
+        groups.forEach(group -> assertNotNull(group.getId()));
+    }
+
+
+    @Test
+    void findAll() {
+        //given
+        String institutionId = "institutionId";
+        for (int i = 0; i < 3; i++) {
+            UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId");
+            group.setName("name" + i);
+            group.setInstitutionId(institutionId);
+            repository.insert(group);
+        }
+        UserGroupFilter filter = new UserGroupFilter(institutionId, null, (String) null, List.of());
+        //when
+        Page<UserGroupOperations> firstPage = groupConnector.findAll(filter, PageRequest.of(0, 2, Sort.by("name"))).block();
+        Page<UserGroupOperations> lastPage = groupConnector.findAll(filter, PageRequest.of(1, 2, Sort.by("name"))).block();
+        //then
+        assertNotNull(firstPage);
+        assertEquals(2, firstPage.getNumberOfElements());
+        assertEquals(3, firstPage.getTotalElements());
+        assertNotNull(lastPage);
+        assertEquals(1, lastPage.getNumberOfElements());
+        assertEquals(3, lastPage.getTotalElements());
+    }
+
+
+    @Test
+    void findAll_invalidFilter() {
+        //given
+        UserGroupFilter filter = new UserGroupFilter(null, null, (String) null, List.of());
+        //when
+        Executable executable = () -> groupConnector.findAll(filter, PageRequest.of(0, 2, Sort.by("name"))).block();
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Sorting not allowed without productId or institutionId", e.getMessage());
+    }
+
+}
@@ -1,7 +1,10 @@
 package it.pagopa.selfcare.user_group.connector.dao;
 
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.pagopa.selfcare.commons.base.security.SelfCareUser;
 import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
 import it.pagopa.selfcare.user_group.connector.dao.auditing.SpringSecurityAuditorAware;
@@ -9,9 +12,19 @@ import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceAlreadyExistsException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceVersionMismatchException;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationOutcome;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationType;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
+import org.bson.BsonDocument;
 import org.bson.BsonValue;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -22,8 +35,15 @@ import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.authentication.TestingAuthenticationToken;
@@ -31,10 +51,13 @@ import org.springframework.security.test.context.TestSecurityContextHolder;
 
 import javax.validation.ValidationException;
 import java.time.Instant;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static it.pagopa.selfcare.commons.utils.TestUtils.mockInstance;
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +79,8 @@ class UserGroupConnectorImplTest {
 
     private final MongoTemplate mongoTemplateMock;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private final UserGroupConnectorImpl groupConnector;
 
     private final SelfCareUser selfCareUser;
@@ -66,7 +91,7 @@ class UserGroupConnectorImplTest {
         TestSecurityContextHolder.setAuthentication(authenticationToken);
         repositoryMock = Mockito.mock(UserGroupRepository.class);
         mongoTemplateMock = Mockito.mock(MongoTemplate.class);
-        groupConnector = new UserGroupConnectorImpl(repositoryMock, mongoTemplateMock, new SpringSecurityAuditorAware());
+        groupConnector = new UserGroupConnectorImpl(repositoryMock, mongoTemplateMock, new SpringSecurityAuditorAware(), meterRegistry);
     }
 
     @Test
@@ -131,8 +156,6 @@ class UserGroupConnectorImplTest {
         final long countResult = pageable.isPaged()
                 ? (long) pageable.getPageSize() * pageable.getPageNumber() + entities.size()
                 : entities.size();
-        when(mongoTemplateMock.count(any(Query.class), eq(UserGroupEntity.class)))
-                .thenReturn(countResult);
         when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
                 .thenReturn(entities);
         //when
@@ -143,13 +166,11 @@ class UserGroupConnectorImplTest {
         assertEquals(entities.size(), page.getContent().size());
         assertEquals(countResult, page.getTotalElements());
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
-        verify(mongoTemplateMock, times(1))
-                .count(queryCaptor.capture(), eq(UserGroupEntity.class));
-        Query queryCount = queryCaptor.getValue();
         verify(mongoTemplateMock, times(1))
                 .find(queryCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
-        assertEquals(queryCount, query);
+        verify(mongoTemplateMock, never())
+                .count(any(Query.class), eq(UserGroupEntity.class));
         assertEquals(pageable.getSort().isSorted(), query.isSorted());
         assertEquals(pageable.isPaged() ? pageable.getPageSize() : 0, query.getLimit());
         assertTrue(query.toString().contains(institutionId));
@@ -167,8 +188,6 @@ class UserGroupConnectorImplTest {
         final long countResult = pageable.isPaged()
                 ? (long) pageable.getPageSize() * pageable.getPageNumber() + entities.size()
                 : entities.size();
-        when(mongoTemplateMock.count(any(Query.class), eq(UserGroupEntity.class)))
-                .thenReturn(countResult);
         when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
                 .thenReturn(entities);
         //when
@@ -180,12 +199,10 @@ class UserGroupConnectorImplTest {
         assertEquals(countResult, page.getTotalElements());
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         verify(mongoTemplateMock, times(1))
-                .count(queryCaptor.capture(), eq(UserGroupEntity.class));
-        Query queryCount = queryCaptor.getValue();
-        verify(mongoTemplateMock, times(1))
-                .find(queryCaptor.capture(), any());
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
-        assertEquals(queryCount, query);
+        verify(mongoTemplateMock, never())
+                .count(any(Query.class), eq(UserGroupEntity.class));
         assertEquals(pageable.getSort().isSorted(), query.isSorted());
         assertEquals(pageable.isPaged() ? pageable.getPageSize() : 0, query.getLimit());
         assertTrue(query.getFieldsObject().isEmpty());
@@ -203,8 +220,6 @@ class UserGroupConnectorImplTest {
         final long countResult = pageable.isPaged()
                 ? (long) pageable.getPageSize() * pageable.getPageNumber() + entities.size()
                 : entities.size();
-        when(mongoTemplateMock.count(any(Query.class), eq(UserGroupEntity.class)))
-                .thenReturn(countResult);
         when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
                 .thenReturn(entities);
         //when
@@ -216,12 +231,10 @@ class UserGroupConnectorImplTest {
         assertEquals(countResult, page.getTotalElements());
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         verify(mongoTemplateMock, times(1))
-                .count(queryCaptor.capture(), eq(UserGroupEntity.class));
-        Query queryCount = queryCaptor.getValue();
-        verify(mongoTemplateMock, times(1))
-                .find(queryCaptor.capture(), any());
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
-        assertEquals(queryCount, query);
+        verify(mongoTemplateMock, never())
+                .count(any(Query.class), eq(UserGroupEntity.class));
         assertEquals(pageable.getSort().isSorted(), query.isSorted());
         assertEquals(pageable.isPaged() ? pageable.getPageSize() : 0, query.getLimit());
         assertTrue(query.toString().contains(productId));
@@ -239,8 +252,6 @@ class UserGroupConnectorImplTest {
         final long countResult = pageable.isPaged()
                 ? (long) pageable.getPageSize() * pageable.getPageNumber() + entities.size()
                 : entities.size();
-        when(mongoTemplateMock.count(any(Query.class), eq(UserGroupEntity.class)))
-                .thenReturn(countResult);
         when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
                 .thenReturn(entities);
         //when
@@ -252,12 +263,10 @@ class UserGroupConnectorImplTest {
         assertEquals(countResult, page.getTotalElements());
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         verify(mongoTemplateMock, times(1))
-                .count(queryCaptor.capture(), eq(UserGroupEntity.class));
-        Query queryCount = queryCaptor.getValue();
-        verify(mongoTemplateMock, times(1))
-                .find(queryCaptor.capture(), any());
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
-        assertEquals(queryCount, query);
+        verify(mongoTemplateMock, never())
+                .count(any(Query.class), eq(UserGroupEntity.class));
         assertEquals(pageable.getSort().isSorted(), query.isSorted());
         assertEquals(pageable.isPaged() ? pageable.getPageSize() : 0, query.getLimit());
         assertTrue(query.toString().contains(institutionId));
@@ -265,6 +274,270 @@ class UserGroupConnectorImplTest {
         verifyNoMoreInteractions(mongoTemplateMock);
     }
 
+    @Test
+    void findAll_fullPage() {
+        //given
+        String institutionId = "institutionId";
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("name"));
+        UserGroupFilter groupFilter = new UserGroupFilter(institutionId, null, "", List.of(UserGroupStatus.ACTIVE));
+        List<UserGroupEntity> entities = List.of(mockInstance(new UserGroupEntity()));
+        long countResult = 5;
+        when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(entities);
+        when(mongoTemplateMock.count(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(countResult);
+        //when
+        Page<UserGroupOperations> page = groupConnector.findAll(groupFilter, pageable);
+        //then
+        assertEquals(countResult, page.getTotalElements());
+        assertEquals(entities.size(), page.getContent().size());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplateMock, times(1))
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
+        Query query = queryCaptor.getValue();
+        verify(mongoTemplateMock, times(1))
+                .count(queryCaptor.capture(), eq(UserGroupEntity.class));
+        Query queryCount = queryCaptor.getValue();
+        assertEquals(query.getQueryObject(), queryCount.getQueryObject());
+        assertEquals(pageable.getPageSize(), query.getLimit());
+        assertEquals(0, queryCount.getLimit());
+        assertEquals(0, queryCount.getSkip());
+        assertFalse(queryCount.isSorted());
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findSummaries() {
+        //given
+        String institutionId = "institutionId";
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("name"));
+        UserGroupFilter groupFilter = new UserGroupFilter(institutionId, null, "", List.of(UserGroupStatus.ACTIVE));
+        UserGroupSummary summary = mockInstance(new UserGroupSummary());
+        when(mongoTemplateMock.aggregate(any(TypedAggregation.class), eq(UserGroupSummary.class)))
+                .thenReturn(new AggregationResults<>(List.of(summary), new Document()));
+        //when
+        Page<UserGroupSummary> page = groupConnector.findSummaries(groupFilter, pageable);
+        //then
+        assertEquals(List.of(summary), page.getContent());
+        assertEquals(3, page.getTotalElements());
+        ArgumentCaptor<TypedAggregation<UserGroupEntity>> aggregationCaptor = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplateMock, times(1))
+                .aggregate(aggregationCaptor.capture(), eq(UserGroupSummary.class));
+        List<Document> pipeline = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(List.of("$match", "$sort", "$skip", "$limit", "$project"), pipeline.stream()
+                .map(stage -> stage.keySet().iterator().next())
+                .collect(Collectors.toList()));
+        assertEquals(new Document("name", 1).append("_id", 1), pipeline.get(1).get("$sort"));
+        assertEquals(2L, ((Number) pipeline.get(2).get("$skip")).longValue());
+        Document projection = pipeline.get(4).get("$project", Document.class);
+        assertFalse(projection.containsKey("members"));
+        assertTrue(projection.containsKey("membersCount"));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findSummaries_sortNotAllowedException() {
+        //given
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("name"));
+        UserGroupFilter groupFilter = new UserGroupFilter(null, null, UUID.randomUUID().toString(), List.of());
+        //when
+        Executable executable = () -> groupConnector.findSummaries(groupFilter, pageable);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Sorting not allowed without productId or institutionId", e.getMessage());
+        verifyNoInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findMembers() {
+        //given
+        String groupId = "groupId";
+        Pageable pageable = PageRequest.of(1, 2);
+        UUID member = UUID.randomUUID();
+        UUID notMigratedMember = UUID.randomUUID();
+        when(mongoTemplateMock.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("members", List.of(member, notMigratedMember.toString()))
+                        .append("membersCount", 5)), new Document()));
+        //when
+        Page<UUID> page = groupConnector.findMembers(groupId, pageable);
+        //then
+        assertEquals(List.of(member, notMigratedMember), page.getContent());
+        assertEquals(5, page.getTotalElements());
+        assertEquals(pageable, page.getPageable());
+        ArgumentCaptor<TypedAggregation<UserGroupEntity>> aggregationCaptor = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplateMock, times(1))
+                .aggregate(aggregationCaptor.capture(), eq(Document.class));
+        List<Document> pipeline = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(new Document(UserGroupEntity.Fields.id, groupId), pipeline.get(0).get("$match"));
+        Document slice = pipeline.get(1).get("$project", Document.class).get("members", Document.class);
+        List<?> sliceArguments = slice.getList("$slice", Object.class);
+        assertEquals(2L, ((Number) sliceArguments.get(1)).longValue());
+        assertEquals(2, ((Number) sliceArguments.get(2)).intValue());
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findMembers_notFound() {
+        //given
+        String groupId = "groupId";
+        when(mongoTemplateMock.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        //when
+        Executable executable = () -> groupConnector.findMembers(groupId, PageRequest.of(0, 2));
+        //then
+        assertThrows(ResourceNotFoundException.class, executable);
+    }
+
+    @Test
+    void existsMember() {
+        //given
+        String groupId = "groupId";
+        String memberId = UUID.randomUUID().toString();
+        when(mongoTemplateMock.exists(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(true);
+        //when
+        boolean exists = groupConnector.existsMember(groupId, memberId);
+        //then
+        assertTrue(exists);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplateMock, times(1))
+                .exists(queryCaptor.capture(), eq(UserGroupEntity.class));
+        assertEquals(new Document(UserGroupEntity.Fields.id, groupId)
+                        .append(UserGroupEntity.Fields.members, new Document("$in", List.of(UUID.fromString(memberId), memberId))),
+                queryCaptor.getValue().getQueryObject());
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findGroupsOfMember() {
+        //given
+        String memberId = UUID.randomUUID().toString();
+        UserGroupEntity entity = new UserGroupEntity();
+        entity.setId("groupId");
+        entity.setName("groupName");
+        when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(List.of(entity));
+        //when
+        List<MemberGroup> groups = groupConnector.findGroupsOfMember(memberId, List.of(UserGroupStatus.ACTIVE));
+        //then
+        assertEquals(1, groups.size());
+        assertEquals("groupId", groups.get(0).getId());
+        assertEquals("groupName", groups.get(0).getName());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplateMock, times(1))
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
+        Query query = queryCaptor.getValue();
+        assertEquals(new Document("$in", List.of(UUID.fromString(memberId), memberId)), query.getQueryObject().get(UserGroupEntity.Fields.members));
+        assertEquals(new Document("$in", List.of(UserGroupStatus.ACTIVE)), query.getQueryObject().get(UserGroupEntity.Fields.status));
+        assertEquals(new Document(UserGroupEntity.Fields.name, 1), query.getFieldsObject());
+        assertEquals(new Document(UserGroupEntity.Fields.name, 1).append(UserGroupEntity.Fields.id, 1), query.getSortObject());
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findSlice_hasNext() {
+        //given
+        String institutionId = "institutionId";
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("name"));
+        UserGroupFilter groupFilter = new UserGroupFilter(institutionId, null, "", List.of(UserGroupStatus.ACTIVE));
+        List<UserGroupEntity> entities = List.of(mockInstance(new UserGroupEntity()),
+                mockInstance(new UserGroupEntity()),
+                mockInstance(new UserGroupEntity()));
+        when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(entities);
+        //when
+        Slice<UserGroupOperations> slice = groupConnector.findSlice(groupFilter, pageable);
+        //then
+        assertTrue(slice.hasNext());
+        assertEquals(pageable, slice.getPageable());
+        assertEquals(pageable.getPageSize(), slice.getContent().size());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplateMock, times(1))
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
+        Query query = queryCaptor.getValue();
+        assertEquals(pageable.getPageSize() + 1, query.getLimit());
+        assertEquals(pageable.getOffset(), query.getSkip());
+        assertTrue(query.isSorted());
+        assertTrue(query.toString().contains(institutionId));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findSlice_lastSlice() {
+        //given
+        Pageable pageable = PageRequest.of(0, 2);
+        UserGroupFilter groupFilter = new UserGroupFilter("institutionId", null, "", List.of());
+        List<UserGroupEntity> entities = List.of(mockInstance(new UserGroupEntity()));
+        when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(entities);
+        //when
+        Slice<UserGroupOperations> slice = groupConnector.findSlice(groupFilter, pageable);
+        //then
+        assertFalse(slice.hasNext());
+        assertEquals(entities.size(), slice.getContent().size());
+        verify(mongoTemplateMock, times(1))
+                .find(any(Query.class), eq(UserGroupEntity.class));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findSlice_sortNotAllowedException() {
+        //given
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("name"));
+        UserGroupFilter groupFilter = new UserGroupFilter();
+        //when
+        Executable executable = () -> groupConnector.findSlice(groupFilter, pageable);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Sorting not allowed without productId or institutionId", e.getMessage());
+        verifyNoInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findAllAfter() {
+        //given
+        String institutionId = "institutionId";
+        int size = 2;
+        ContinuationToken continuationToken = new ContinuationToken("name", Sort.Direction.ASC, "groupName", "lastId");
+        UserGroupFilter groupFilter = new UserGroupFilter(institutionId, null, "", List.of(UserGroupStatus.ACTIVE));
+        List<UserGroupEntity> entities = List.of(mockInstance(new UserGroupEntity()),
+                mockInstance(new UserGroupEntity()),
+                mockInstance(new UserGroupEntity()));
+        when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(entities);
+        //when
+        Slice<UserGroupOperations> slice = groupConnector.findAllAfter(groupFilter, continuationToken, size);
+        //then
+        assertTrue(slice.hasNext());
+        assertEquals(size, slice.getContent().size());
+        assertEquals(continuationToken.getSort(), slice.getSort());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplateMock, times(1))
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
+        Query query = queryCaptor.getValue();
+        assertEquals(size + 1, query.getLimit());
+        assertEquals(0, query.getSkip());
+        assertEquals(new Document("name", 1).append(UserGroupEntity.Fields.id, 1), query.getSortObject());
+        assertEquals(institutionId, query.getQueryObject().get(UserGroupEntity.Fields.institutionId));
+        assertTrue(query.getQueryObject().containsKey("$or"));
+        assertTrue(query.toString().contains(continuationToken.getSortValue()));
+        assertTrue(query.toString().contains(continuationToken.getLastId()));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
+
+    @Test
+    void findAllAfter_sortNotAllowedException() {
+        //given
+        ContinuationToken continuationToken = new ContinuationToken("name", Sort.Direction.ASC, "groupName", "lastId");
+        UserGroupFilter groupFilter = new UserGroupFilter();
+        //when
+        Executable executable = () -> groupConnector.findAllAfter(groupFilter, continuationToken, 2);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Sorting not allowed without productId or institutionId", e.getMessage());
+        verifyNoInteractions(mongoTemplateMock);
+    }
+
     @Test
     void findAll_sortNotAllowedException() {
         //given
@@ -294,93 +567,44 @@ class UserGroupConnectorImplTest {
 
     @Test
     void deleteById() {
+        //given
         String groupId = "groupId";
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
-
-            @Override
-            public long getMatchedCount() {
-                return 1;
-            }
-
-            @Override
-            public long getModifiedCount() {
-                return 1;
-            }
-
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+        UserGroupEntity updatedGroup = new UserGroupEntity();
+        updatedGroup.setInstitutionId("institutionId");
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class)))
+                .thenReturn(updatedGroup);
         //when
-        Executable executable = () -> groupConnector.deleteById(groupId);
+        String institutionId = groupConnector.deleteById(groupId);
         //then
-        assertDoesNotThrow(executable);
+        assertEquals("institutionId", institutionId);
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
+                .findAndModify(queryCaptor.capture(), updateCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
         Update update = updateCaptor.getValue();
         Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
         Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
         assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
+        assertEquals(new Document(UserGroupEntity.Fields.institutionId, 1), query.getFieldsObject());
         assertEquals(UserGroupStatus.DELETED, set.get("status"));
         assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
         assertTrue(currentDate.containsKey("modifiedAt"));
         verifyNoMoreInteractions(mongoTemplateMock);
-
     }
 
     @Test
     void deleteById_resourceNotFound() {
         //given
         String groupId = "groupId";
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
-
-            @Override
-            public long getMatchedCount() {
-                return 0;
-            }
-
-            @Override
-            public long getModifiedCount() {
-                return 1;
-            }
-
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class)))
+                .thenReturn(null);
         //when
         Executable executable = () -> groupConnector.deleteById(groupId);
         //then
         assertThrows(ResourceNotFoundException.class, executable);
-        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
-        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
-        Query query = queryCaptor.getValue();
-        Update update = updateCaptor.getValue();
-        Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
-        Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
-        assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
-        assertEquals(UserGroupStatus.DELETED, set.get("status"));
-        assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
-        assertTrue(currentDate.containsKey("modifiedAt"));
+                .findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class));
         verifyNoMoreInteractions(mongoTemplateMock);
     }
 
@@ -388,374 +612,502 @@ class UserGroupConnectorImplTest {
     void suspendById() {
         //given
         String groupId = "groupId";
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
-
-            @Override
-            public long getMatchedCount() {
-                return 1;
-            }
-
-            @Override
-            public long getModifiedCount() {
-                return 1;
-            }
-
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+        UserGroupEntity updatedGroup = new UserGroupEntity();
+        updatedGroup.setInstitutionId("institutionId");
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class)))
+                .thenReturn(updatedGroup);
         //when
-        Executable executable = () -> groupConnector.suspendById(groupId);
+        String institutionId = groupConnector.suspendById(groupId);
         //then
-        assertDoesNotThrow(executable);
+        assertEquals("institutionId", institutionId);
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
+                .findAndModify(queryCaptor.capture(), updateCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
         Update update = updateCaptor.getValue();
         Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
         Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
         assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
+        assertEquals(new Document(UserGroupEntity.Fields.institutionId, 1), query.getFieldsObject());
         assertEquals(UserGroupStatus.SUSPENDED, set.get("status"));
         assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
         assertTrue(currentDate.containsKey("modifiedAt"));
         verifyNoMoreInteractions(mongoTemplateMock);
-
-
     }
 
     @Test
     void suspendById_resourceNotFound() {
         //given
         String groupId = "groupId";
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
-
-            @Override
-            public long getMatchedCount() {
-                return 0;
-            }
-
-            @Override
-            public long getModifiedCount() {
-                return 1;
-            }
-
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class)))
+                .thenReturn(null);
         //when
         Executable executable = () -> groupConnector.suspendById(groupId);
         //then
         assertThrows(ResourceNotFoundException.class, executable);
-        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
-        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
-        Query query = queryCaptor.getValue();
-        Update update = updateCaptor.getValue();
-        Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
-        Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
-        assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
-        assertEquals(UserGroupStatus.SUSPENDED, set.get("status"));
-        assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
-        assertTrue(currentDate.containsKey("modifiedAt"));
+                .findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class));
         verifyNoMoreInteractions(mongoTemplateMock);
-
     }
 
     @Test
     void activateById() {
         //given
         String groupId = "groupId";
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
-
-            @Override
-            public long getMatchedCount() {
-                return 1;
-            }
-
-            @Override
-            public long getModifiedCount() {
-                return 1;
-            }
-
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+        UserGroupEntity updatedGroup = new UserGroupEntity();
+        updatedGroup.setInstitutionId("institutionId");
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class)))
+                .thenReturn(updatedGroup);
         //when
-        Executable executable = () -> groupConnector.activateById(groupId);
+        String institutionId = groupConnector.activateById(groupId);
         //then
-        assertDoesNotThrow(executable);
+        assertEquals("institutionId", institutionId);
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
+                .findAndModify(queryCaptor.capture(), updateCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
         Update update = updateCaptor.getValue();
         Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
         Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
         assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
+        assertEquals(new Document(UserGroupEntity.Fields.institutionId, 1), query.getFieldsObject());
         assertEquals(UserGroupStatus.ACTIVE, set.get("status"));
         assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
         assertTrue(currentDate.containsKey("modifiedAt"));
         verifyNoMoreInteractions(mongoTemplateMock);
-
-
     }
 
     @Test
     void activateById_resourceNotFound() {
         //given
         String groupId = "groupId";
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class)))
+                .thenReturn(null);
+        //when
+        Executable executable = () -> groupConnector.activateById(groupId);
+        //then
+        assertThrows(ResourceNotFoundException.class, executable);
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
 
-            @Override
-            public long getMatchedCount() {
-                return 0;
-            }
+    @Test
+    void insertMember_alreadyMember() {
+        //given
+        String groupId = "groupId";
+        String memberId = UUID.randomUUID().toString();
+        UserGroupEntity foundGroup = new UserGroupEntity();
+        foundGroup.setStatus(UserGroupStatus.ACTIVE);
+        foundGroup.setInstitutionId("institutionId");
+        when(mongoTemplateMock.findOne(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(foundGroup);
+        //when
+        String institutionId = groupConnector.insertMember(groupId, memberId);
+        //then
+        assertEquals("institutionId", institutionId);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class));
+        verify(mongoTemplateMock, times(1))
+                .findOne(queryCaptor.capture(), eq(UserGroupEntity.class));
+        assertEquals(new Document(UserGroupEntity.Fields.institutionId, 1)
+                        .append(UserGroupEntity.Fields.status, 1)
+                        .append(UserGroupEntity.Fields.version, 1),
+                queryCaptor.getValue().getFieldsObject());
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
 
-            @Override
-            public long getModifiedCount() {
-                return 1;
-            }
+    @Test
+    void insertMember_groupSuspended() {
+        //given
+        String groupId = "groupId";
+        String memberId = UUID.randomUUID().toString();
+        UserGroupEntity foundGroup = new UserGroupEntity();
+        foundGroup.setStatus(UserGroupStatus.SUSPENDED);
+        when(mongoTemplateMock.findOne(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(foundGroup);
+        //when
+        Executable executable = () -> groupConnector.insertMember(groupId, memberId);
+        //then
+        ResourceUpdateException e = assertThrows(ResourceUpdateException.class, executable);
+        assertEquals("Trying to modify suspended group", e.getMessage());
+    }
 
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+    @Test
+    void insertMember() {
+        //given
+        String groupId = "groupId";
+        String memberId = UUID.randomUUID().toString();
+        UserGroupEntity updatedGroup = new UserGroupEntity();
+        updatedGroup.setInstitutionId("institutionId");
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class)))
+                .thenReturn(updatedGroup);
         //when
-        Executable executable = () -> groupConnector.activateById(groupId);
+        String institutionId = groupConnector.insertMember(groupId, memberId);
         //then
-        assertThrows(ResourceNotFoundException.class, executable);
+        assertEquals("institutionId", institutionId);
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
+                .findAndModify(queryCaptor.capture(), updateCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
         Update update = updateCaptor.getValue();
         Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
         Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
+        assertEquals(new Document(UserGroupEntity.Fields.members, UUID.fromString(memberId)), update.getUpdateObject().get("$addToSet"));
         assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
-        assertEquals(UserGroupStatus.ACTIVE, set.get("status"));
+        assertEquals(new Document("$nin", List.of(UUID.fromString(memberId), memberId)), query.getQueryObject().get(UserGroupEntity.Fields.members));
+        assertEquals(UserGroupStatus.ACTIVE, query.getQueryObject().get("status", UserGroupStatus.class));
+        assertEquals(new Document(UserGroupEntity.Fields.institutionId, 1), query.getFieldsObject());
         assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
         assertTrue(currentDate.containsKey("modifiedAt"));
         verifyNoMoreInteractions(mongoTemplateMock);
     }
 
     @Test
-    void insertMember_updateError() {
+    void deleteMember_notMember() {
         //given
         String groupId = "groupId";
         String memberId = UUID.randomUUID().toString();
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
-
-            @Override
-            public long getMatchedCount() {
-                return 1;
-            }
-
-            @Override
-            public long getModifiedCount() {
-                return 0;
-            }
-
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+        UserGroupEntity foundGroup = new UserGroupEntity();
+        foundGroup.setStatus(UserGroupStatus.ACTIVE);
+        when(mongoTemplateMock.findOne(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(foundGroup);
         //when
-        Executable executable = () -> groupConnector.insertMember(groupId, memberId);
+        Executable executable = () -> groupConnector.deleteMember(groupId, memberId);
         //then
         ResourceUpdateException resourceUpdateException = assertThrows(ResourceUpdateException.class, executable);
         assertEquals("Couldn't update resource", resourceUpdateException.getMessage());
-
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
+                .findAndModify(queryCaptor.capture(), updateCaptor.capture(), eq(UserGroupEntity.class));
+        verify(mongoTemplateMock, times(1))
+                .findOne(any(Query.class), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
         Update update = updateCaptor.getValue();
         Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
         Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
         assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
         assertEquals(UserGroupStatus.ACTIVE, query.getQueryObject().get("status", UserGroupStatus.class));
+        assertEquals(new Document("$in", List.of(UUID.fromString(memberId), memberId)), query.getQueryObject().get(UserGroupEntity.Fields.members));
         assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
         assertTrue(currentDate.containsKey("modifiedAt"));
         verifyNoMoreInteractions(mongoTemplateMock);
     }
 
     @Test
-    void insertMember() {
+    void deleteMember() {
         //given
         String groupId = "groupId";
         String memberId = UUID.randomUUID().toString();
+        UserGroupEntity updatedGroup = new UserGroupEntity();
+        updatedGroup.setInstitutionId("institutionId");
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class)))
+                .thenReturn(updatedGroup);
+        //when
+        String institutionId = groupConnector.deleteMember(groupId, memberId);
+        //then
+        assertEquals("institutionId", institutionId);
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
 
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
-
-            @Override
-            public long getMatchedCount() {
-                return 1;
-            }
-
-            @Override
-            public long getModifiedCount() {
-                return 1;
-            }
-
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+    @Test
+    void insertMember_notFound() {
+        //given
+        String groupId = "groupId";
+        String memberId = UUID.randomUUID().toString();
         //when
         Executable executable = () -> groupConnector.insertMember(groupId, memberId);
         //then
-        assertDoesNotThrow(executable);
+        assertThrows(ResourceNotFoundException.class, executable);
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
-        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
+                .findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class));
+        verify(mongoTemplateMock, times(1))
+                .findOne(queryCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
-        Update update = updateCaptor.getValue();
-        Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
-        Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
         assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
-        assertEquals(UserGroupStatus.ACTIVE, query.getQueryObject().get("status", UserGroupStatus.class));
-        assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
-        assertTrue(currentDate.containsKey("modifiedAt"));
         verifyNoMoreInteractions(mongoTemplateMock);
     }
 
     @Test
-    void deleteMember_updateError() {
+    void deleteMember_groupSuspended() {
         //given
         String groupId = "groupId";
         String memberId = UUID.randomUUID().toString();
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
-
-            @Override
-            public long getMatchedCount() {
-                return 1;
-            }
-
-            @Override
-            public long getModifiedCount() {
-                return 0;
-            }
+        UserGroupEntity foundGroup = new UserGroupEntity();
+        foundGroup.setStatus(UserGroupStatus.SUSPENDED);
+        when(mongoTemplateMock.findOne(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(foundGroup);
+        //when
+        Executable executable = () -> groupConnector.deleteMember(groupId, memberId);
+        //then
+        ResourceUpdateException e = assertThrows(ResourceUpdateException.class, executable);
+        assertEquals("Trying to modify suspended group", e.getMessage());
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(any(Query.class), any(Update.class), eq(UserGroupEntity.class));
+        verify(mongoTemplateMock, times(1))
+                .findOne(any(Query.class), eq(UserGroupEntity.class));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
 
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+    @Test
+    void deleteMember_groupDeleted() {
+        //given
+        String groupId = "groupId";
+        String memberId = UUID.randomUUID().toString();
+        UserGroupEntity foundGroup = new UserGroupEntity();
+        foundGroup.setStatus(UserGroupStatus.DELETED);
+        when(mongoTemplateMock.findOne(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(foundGroup);
         //when
         Executable executable = () -> groupConnector.deleteMember(groupId, memberId);
         //then
-        ResourceUpdateException resourceUpdateException = assertThrows(ResourceUpdateException.class, executable);
-        assertEquals("Couldn't update resource", resourceUpdateException.getMessage());
+        assertThrows(ResourceNotFoundException.class, executable);
+    }
+
+    @Test
+    void updateGroup() {
+        //given
+        String groupId = "groupId";
+        UserGroupOperations group = mockInstance(new UserGroupEntity(), "setId");
+        group.setMembers(Set.of(UUID.randomUUID()));
+        UserGroupEntity updatedGroup = new UserGroupEntity(group);
+        updatedGroup.setId(groupId);
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserGroupEntity.class)))
+                .thenReturn(updatedGroup);
+        //when
+        UserGroupOperations result = groupConnector.updateGroup(groupId, group);
+        //then
+        assertSame(updatedGroup, result);
         ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
         ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> optionsCaptor = ArgumentCaptor.forClass(FindAndModifyOptions.class);
         verify(mongoTemplateMock, times(1))
-                .updateFirst(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
+                .findAndModify(queryCaptor.capture(), updateCaptor.capture(), optionsCaptor.capture(), eq(UserGroupEntity.class));
         Query query = queryCaptor.getValue();
-        Update update = updateCaptor.getValue();
-        Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
-        Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
+        Map<String, Object> set = (Map<String, Object>) updateCaptor.getValue().getUpdateObject().get("$set");
         assertEquals(groupId, query.getQueryObject().get(UserGroupEntity.Fields.id));
         assertEquals(UserGroupStatus.ACTIVE, query.getQueryObject().get("status", UserGroupStatus.class));
+        assertEquals(group.getName(), set.get("name"));
+        assertEquals(group.getDescription(), set.get("description"));
+        assertEquals(group.getMembers(), set.get("members"));
         assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
-        assertTrue(currentDate.containsKey("modifiedAt"));
+        assertFalse(set.containsKey("status"));
+        assertEquals(Map.of("version", 1), updateCaptor.getValue().getUpdateObject().get("$inc"));
+        assertTrue(optionsCaptor.getValue().isReturnNew());
         verifyNoMoreInteractions(mongoTemplateMock);
     }
 
     @Test
-    void deleteMember() {
+    void updateGroup_partial() {
         //given
         String groupId = "groupId";
-        String memberId = UUID.randomUUID().toString();
+        UserGroupEntity group = new UserGroupEntity();
+        group.setName("name");
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserGroupEntity.class)))
+                .thenReturn(group);
+        //when
+        groupConnector.updateGroup(groupId, group);
+        //then
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(any(Query.class), updateCaptor.capture(), any(FindAndModifyOptions.class), eq(UserGroupEntity.class));
+        Map<String, Object> set = (Map<String, Object>) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("name", "modifiedBy"), set.keySet());
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
 
-        UpdateResult result = mockInstance(new UpdateResult() {
-            @Override
-            public boolean wasAcknowledged() {
-                return false;
-            }
+    @Test
+    void updateGroup_expectedVersion() {
+        //given
+        String groupId = "groupId";
+        UserGroupEntity group = new UserGroupEntity();
+        group.setName("name");
+        group.setVersion(2L);
+        when(mongoTemplateMock.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserGroupEntity.class)))
+                .thenReturn(group);
+        //when
+        groupConnector.updateGroup(groupId, group);
+        //then
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(queryCaptor.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(UserGroupEntity.class));
+        assertEquals(new Document("$in", List.of(2L)), queryCaptor.getValue().getQueryObject().get("version"));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
 
-            @Override
-            public long getMatchedCount() {
-                return 1;
-            }
+    @Test
+    void updateGroup_versionMismatch() {
+        //given
+        String groupId = "groupId";
+        UserGroupEntity group = new UserGroupEntity();
+        group.setName("name");
+        group.setVersion(2L);
+        UserGroupEntity foundGroup = new UserGroupEntity();
+        foundGroup.setStatus(UserGroupStatus.ACTIVE);
+        foundGroup.setVersion(3L);
+        when(mongoTemplateMock.findOne(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(foundGroup);
+        //when
+        Executable executable = () -> groupConnector.updateGroup(groupId, group);
+        //then
+        assertThrows(ResourceVersionMismatchException.class, executable);
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserGroupEntity.class));
+        verify(mongoTemplateMock, times(1))
+                .findOne(any(Query.class), eq(UserGroupEntity.class));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
 
-            @Override
-            public long getModifiedCount() {
-                return 1;
-            }
+    @Test
+    void updateGroup_notFound() {
+        //given
+        String groupId = "groupId";
+        UserGroupOperations group = mockInstance(new UserGroupEntity(), "setId");
+        //when
+        Executable executable = () -> groupConnector.updateGroup(groupId, group);
+        //then
+        assertThrows(ResourceNotFoundException.class, executable);
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserGroupEntity.class));
+        verify(mongoTemplateMock, times(1))
+                .findOne(any(Query.class), eq(UserGroupEntity.class));
+        verifyNoMoreInteractions(mongoTemplateMock);
+    }
 
-            @Override
-            public BsonValue getUpsertedId() {
-                return null;
-            }
-        });
-        when(mongoTemplateMock.updateFirst(any(Query.class), any(Update.class), (Class<?>) any()))
-                .thenReturn(result);
+    @Test
+    void updateGroup_groupSuspended() {
+        //given
+        String groupId = "groupId";
+        UserGroupOperations group = mockInstance(new UserGroupEntity(), "setId");
+        UserGroupEntity foundGroup = new UserGroupEntity();
+        foundGroup.setStatus(UserGroupStatus.SUSPENDED);
+        when(mongoTemplateMock.findOne(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(foundGroup);
         //when
-        Executable executable = () -> groupConnector.deleteMember(groupId, memberId);
+        Executable executable = () -> groupConnector.updateGroup(groupId, group);
         //then
-        assertDoesNotThrow(executable);
+        ResourceUpdateException e = assertThrows(ResourceUpdateException.class, executable);
+        assertEquals("Trying to modify suspended group", e.getMessage());
+    }
+
+    @Test
+    void updateGroup_groupDeleted() {
+        //given
+        String groupId = "groupId";
+        UserGroupOperations group = mockInstance(new UserGroupEntity(), "setId");
+        UserGroupEntity foundGroup = new UserGroupEntity();
+        foundGroup.setStatus(UserGroupStatus.DELETED);
+        when(mongoTemplateMock.findOne(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(foundGroup);
+        //when
+        Executable executable = () -> groupConnector.updateGroup(groupId, group);
+        //then
+        assertThrows(ResourceNotFoundException.class, executable);
+        verify(mongoTemplateMock, times(1))
+                .findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserGroupEntity.class));
         verify(mongoTemplateMock, times(1))
-                .updateFirst(any(Query.class), any(Update.class), (Class<?>) any());
+                .findOne(any(Query.class), eq(UserGroupEntity.class));
         verifyNoMoreInteractions(mongoTemplateMock);
     }
 
+    @Test
+    void bulkUpdateMembers() {
+        //given
+        List<MemberOperation> operations = List.of(
+                new MemberOperation("groupId1", UUID.randomUUID().toString(), MemberOperationType.ADD),
+                new MemberOperation("groupId2", UUID.randomUUID().toString(), MemberOperationType.REMOVE));
+        BulkOperations bulkOperationsMock = mock(BulkOperations.class);
+        when(mongoTemplateMock.bulkOps(any(BulkOperations.BulkMode.class), eq(UserGroupEntity.class)))
+                .thenReturn(bulkOperationsMock);
+        when(bulkOperationsMock.execute())
+                .thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of()));
+        UserGroupEntity group1 = new UserGroupEntity();
+        group1.setId("groupId1");
+        group1.setInstitutionId("institutionId1");
+        UserGroupEntity group2 = new UserGroupEntity();
+        group2.setId("groupId2");
+        group2.setInstitutionId("institutionId2");
+        when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(List.of(group1, group2));
+        //when
+        List<MemberOperationResult> results = groupConnector.bulkUpdateMembers(operations);
+        //then
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> MemberOperationOutcome.APPLIED.equals(result.getOutcome())));
+        assertEquals(operations.get(0), results.get(0).getOperation());
+        assertEquals(List.of("institutionId1", "institutionId2"),
+                results.stream().map(MemberOperationResult::getInstitutionId).collect(Collectors.toList()));
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplateMock, times(1))
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, UserGroupEntity.class);
+        verify(mongoTemplateMock, times(1))
+                .find(any(Query.class), eq(UserGroupEntity.class));
+        verify(bulkOperationsMock, times(2))
+                .updateOne(queryCaptor.capture(), updateCaptor.capture());
+        verify(bulkOperationsMock, times(1))
+                .execute();
+        assertEquals("groupId1", queryCaptor.getAllValues().get(0).getQueryObject().get(UserGroupEntity.Fields.id));
+        assertEquals(UserGroupStatus.ACTIVE, queryCaptor.getAllValues().get(0).getQueryObject().get("status", UserGroupStatus.class));
+        String addedMemberId = operations.get(0).getMemberId();
+        assertEquals(new Document("$nin", List.of(UUID.fromString(addedMemberId), addedMemberId)),
+                queryCaptor.getAllValues().get(0).getQueryObject().get(UserGroupEntity.Fields.members));
+        assertFalse(queryCaptor.getAllValues().get(1).getQueryObject().containsKey(UserGroupEntity.Fields.members));
+        assertTrue(updateCaptor.getAllValues().get(0).getUpdateObject().containsKey("$addToSet"));
+        assertTrue(updateCaptor.getAllValues().get(1).getUpdateObject().containsKey("$pullAll"));
+        verifyNoMoreInteractions(mongoTemplateMock, bulkOperationsMock);
+    }
+
+    @Test
+    void bulkUpdateMembers_notMatched() {
+        //given
+        List<MemberOperation> operations = List.of(
+                new MemberOperation("groupId1", UUID.randomUUID().toString(), MemberOperationType.ADD),
+                new MemberOperation("groupId2", UUID.randomUUID().toString(), MemberOperationType.ADD),
+                new MemberOperation("groupId3", UUID.randomUUID().toString(), MemberOperationType.ADD),
+                new MemberOperation("groupId4", UUID.randomUUID().toString(), MemberOperationType.ADD));
+        BulkOperations bulkOperationsMock = mock(BulkOperations.class);
+        when(mongoTemplateMock.bulkOps(any(BulkOperations.BulkMode.class), eq(UserGroupEntity.class)))
+                .thenReturn(bulkOperationsMock);
+        BulkWriteResult bulkWriteResult = BulkWriteResult.acknowledged(0, 1, 0, 1, List.of());
+        when(bulkOperationsMock.execute())
+                .thenThrow(new BulkOperationException("error",
+                        List.of(new BulkWriteError(1, "error", new BsonDocument(), 3)),
+                        bulkWriteResult));
+        UserGroupEntity activeGroup = new UserGroupEntity();
+        activeGroup.setId("groupId1");
+        activeGroup.setStatus(UserGroupStatus.ACTIVE);
+        activeGroup.setInstitutionId("institutionId");
+        UserGroupEntity suspendedGroup = new UserGroupEntity();
+        suspendedGroup.setId("groupId3");
+        suspendedGroup.setStatus(UserGroupStatus.SUSPENDED);
+        when(mongoTemplateMock.find(any(Query.class), eq(UserGroupEntity.class)))
+                .thenReturn(List.of(activeGroup, suspendedGroup));
+        //when
+        List<MemberOperationResult> results = groupConnector.bulkUpdateMembers(operations);
+        //then
+        assertEquals(List.of(MemberOperationOutcome.APPLIED,
+                        MemberOperationOutcome.FAILED,
+                        MemberOperationOutcome.GROUP_NOT_ACTIVE,
+                        MemberOperationOutcome.GROUP_NOT_FOUND),
+                results.stream().map(MemberOperationResult::getOutcome).collect(Collectors.toList()));
+        assertEquals("institutionId", results.get(0).getInstitutionId());
+        assertNull(results.get(3).getInstitutionId());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplateMock, times(1))
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
+        assertEquals(new Document(UserGroupEntity.Fields.institutionId, 1).append(UserGroupEntity.Fields.status, 1),
+                queryCaptor.getValue().getFieldsObject());
+    }
+
     @Test
     void deleteMembers_updateError() {
         //given
@@ -798,7 +1150,7 @@ class UserGroupConnectorImplTest {
         Update update = updateCaptor.getValue();
         Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
         Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
-        assertEquals(memberId, query.getQueryObject().get(UserGroupEntity.Fields.members));
+        assertEquals(new Document("$in", List.of(UUID.fromString(memberId), memberId)), query.getQueryObject().get(UserGroupEntity.Fields.members));
         assertEquals(institutionId, query.getQueryObject().get(UserGroupEntity.Fields.institutionId));
         assertEquals(productId, query.getQueryObject().get(UserGroupEntity.Fields.productId));
         assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
@@ -847,7 +1199,7 @@ class UserGroupConnectorImplTest {
         Update update = updateCaptor.getValue();
         Map<String, Object> set = (Map<String, Object>) update.getUpdateObject().get("$set");
         Map<String, Object> currentDate = (Map<String, Object>) update.getUpdateObject().get("$currentDate");
-        assertEquals(memberId, query.getQueryObject().get(UserGroupEntity.Fields.members));
+        assertEquals(new Document("$in", List.of(UUID.fromString(memberId), memberId)), query.getQueryObject().get(UserGroupEntity.Fields.members));
         assertEquals(institutionId, query.getQueryObject().get(UserGroupEntity.Fields.institutionId));
         assertEquals(productId, query.getQueryObject().get(UserGroupEntity.Fields.productId));
         assertEquals(selfCareUser.getId(), set.get("modifiedBy"));
@@ -856,38 +1208,36 @@ class UserGroupConnectorImplTest {
     }
 
     @Test
-    void save() {
+    void bulkDeleteMembers() {
         //given
-        UserGroupEntity entity = mockInstance(new UserGroupEntity());
-        when(repositoryMock.save(any()))
-                .thenReturn(entity);
-        //when
-        UserGroupOperations saved = groupConnector.save(entity);
-        //then
-        assertEquals(entity, saved);
-        ArgumentCaptor<UserGroupEntity> entityCaptor = ArgumentCaptor.forClass(UserGroupEntity.class);
-        verify(repositoryMock, times(1))
-                .save(entityCaptor.capture());
-        UserGroupEntity capturedEntity = entityCaptor.getValue();
-        assertEquals(entity, capturedEntity);
-        verifyNoMoreInteractions(repositoryMock);
-    }
-
-    @Test
-    void save_duplicateKey() {
-        //givenn
-        UserGroupEntity entity = mockInstance(new UserGroupEntity());
-        Mockito.doThrow(DuplicateKeyException.class)
-                .when(repositoryMock)
-                .save(any(UserGroupEntity.class));
+        UUID memberId1 = UUID.randomUUID();
+        UUID memberId2 = UUID.randomUUID();
+        String institutionId = "institutionId";
+        String productId = "productId";
+        when(mongoTemplateMock.updateMulti(any(Query.class), any(Update.class), (Class<?>) any()))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
         //when
-        Executable executable = () -> groupConnector.save(entity);
+        long modifiedCount = groupConnector.bulkDeleteMembers(new LinkedHashSet<>(List.of(memberId1.toString(), memberId2.toString())),
+                institutionId, productId, "submitterId");
         //then
-        ResourceAlreadyExistsException e = assertThrows(ResourceAlreadyExistsException.class, executable);
-        assertEquals("Failed _id or unique index constraint.", e.getMessage());
-        verify(repositoryMock, times(1))
-                .save(entity);
-        verifyNoMoreInteractions(repositoryMock);
+        assertEquals(3, modifiedCount);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplateMock, times(1))
+                .updateMulti(queryCaptor.capture(), updateCaptor.capture(), (Class<?>) any());
+        List<Object> memberValues = List.of(memberId1, memberId1.toString(), memberId2, memberId2.toString());
+        assertEquals(new Document("$in", memberValues), queryCaptor.getValue().getQueryObject().get(UserGroupEntity.Fields.members));
+        assertEquals(institutionId, queryCaptor.getValue().getQueryObject().get(UserGroupEntity.Fields.institutionId));
+        assertEquals(productId, queryCaptor.getValue().getQueryObject().get(UserGroupEntity.Fields.productId));
+        Map<String, Object> pullAll = (Map<String, Object>) updateCaptor.getValue().getUpdateObject().get("$pullAll");
+        assertEquals(memberValues, pullAll.get(UserGroupEntity.Fields.members));
+        Map<String, Object> set = (Map<String, Object>) updateCaptor.getValue().getUpdateObject().get("$set");
+        assertEquals("submitterId", set.get(UserGroupEntity.Fields.modifiedBy));
+        assertEquals(3, meterRegistry.get(UserGroupConnectorImpl.MODIFIED_COUNT_METRIC)
+                .tag("operation", "bulkDeleteMembers")
+                .summary()
+                .totalAmount());
+        verifyNoMoreInteractions(mongoTemplateMock);
     }
 
 
@@ -1,20 +1,34 @@
 package it.pagopa.selfcare.user_group.connector.dao;
 
 import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.pagopa.selfcare.commons.base.security.SelfCareUser;
 import it.pagopa.selfcare.commons.utils.TestUtils;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
 import it.pagopa.selfcare.user_group.connector.dao.config.DaoTestConfig;
 import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceVersionMismatchException;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -26,6 +40,8 @@ import org.springframework.test.context.ContextConfiguration;
 import javax.validation.ValidationException;
 import java.time.Instant;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -64,7 +80,8 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         //when
         UserGroupEntity savedGroup = repository.insert(group);
         //then
@@ -90,7 +107,8 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         UserGroupEntity savedGroup = repository.insert(group);
         Optional<UserGroupEntity> found = repository.findById(savedGroup.getId());
         //when
@@ -116,7 +134,8 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         UserGroupEntity savedGroup = repository.insert(group);
 
         Optional<UserGroupEntity> groupMod = repository.findById(savedGroup.getId());
@@ -147,7 +166,8 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         UserGroupEntity savedGroup = repository.insert(group);
         UUID memberUID = UUID.randomUUID();
         //when
@@ -172,6 +192,40 @@ class UserGroupRepositoryTest {
         assertEquals(2, groupMod.get().getMembers().size());
     }
 
+    @Test
+    void partialUpdate() {
+        //given
+        UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId",
+                "setCreatedAt",
+                "setCreateBy",
+                "setModifiedAt",
+                "setModifiedBy",
+                "setVersion");
+        group.setStatus(UserGroupStatus.ACTIVE);
+        group.setMembers(Set.of(UUID.randomUUID()));
+        UserGroupEntity savedGroup = repository.insert(group);
+        UUID concurrentMember = UUID.randomUUID();
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(savedGroup.getId())),
+                new Update().push("members", concurrentMember),
+                UserGroupEntity.class);
+        UserGroupEntity changes = new UserGroupEntity();
+        changes.setName("updatedName");
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        //when
+        UserGroupOperations updatedGroup = groupConnector.updateGroup(savedGroup.getId(), changes);
+        //then
+        assertNotNull(updatedGroup);
+        assertEquals("updatedName", updatedGroup.getName());
+        assertEquals(savedGroup.getDescription(), updatedGroup.getDescription());
+        assertEquals(UserGroupStatus.ACTIVE, updatedGroup.getStatus());
+        assertEquals(savedGroup.getCreatedAt().toEpochMilli(), updatedGroup.getCreatedAt().toEpochMilli());
+        assertFalse(updatedGroup.getModifiedAt().isBefore(savedGroup.getModifiedAt()));
+        assertEquals(1L, updatedGroup.getVersion());
+        assertEquals(2, updatedGroup.getMembers().size());
+        assertTrue(updatedGroup.getMembers().contains(concurrentMember));
+    }
+
     @Test
     void suspend() {
         Instant now = Instant.now().minusSeconds(1);
@@ -186,7 +240,8 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         UserGroupEntity savedGroup = repository.insert(group);
         UUID memberUID = UUID.randomUUID();
         //when
@@ -217,24 +272,26 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         String institutionId = "institutionId";
         String productId = "productId";
-        String userId = "userId";
+        UUID userId = UUID.randomUUID();
         group1.setProductId(productId);
         group1.setName("alfa");
-        group1.setMembers(Set.of("userId", "userId2"));
+        group1.setMembers(Set.of(userId, UUID.randomUUID()));
         group1.setInstitutionId(institutionId);
         UserGroupEntity savedGroup = repository.insert(group1);
         UserGroupEntity group2 = TestUtils.mockInstance(new UserGroupEntity(), "setId",
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         group2.setProductId(productId);
         group2.setName("beta");
         group2.setInstitutionId(institutionId);
-        group2.setMembers(Set.of("userId"));
+        group2.setMembers(Set.of(userId));
         UserGroupEntity savedGroup1 = repository.insert(group2);
 
         Pageable pageable = PageRequest.of(0, 3);
@@ -259,7 +316,7 @@ class UserGroupRepositoryTest {
         Instant now = Instant.now().minusSeconds(1);
         String institutionId = "institutionId";
         String productId = "productId";
-        String userId = "userId";
+        UUID userId = UUID.randomUUID();
         List<UserGroupStatus> allowedStatus = List.of(UserGroupStatus.ACTIVE);
         SelfCareUser selfCareUser = SelfCareUser.builder("id")
                 .email("test@example.com")
@@ -272,10 +329,11 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         group1.setProductId(productId);
         group1.setName("alfa");
-        group1.setMembers(Set.of("userId", "userId2"));
+        group1.setMembers(Set.of(userId, UUID.randomUUID()));
         group1.setInstitutionId(institutionId);
         group1.setStatus(UserGroupStatus.SUSPENDED);
         UserGroupEntity savedGroup = repository.insert(group1);
@@ -283,11 +341,12 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         group2.setProductId(productId);
         group2.setName("beta");
         group2.setInstitutionId(institutionId);
-        group2.setMembers(Set.of("userId"));
+        group2.setMembers(Set.of(userId));
         UserGroupEntity savedGroup1 = repository.insert(group2);
         UserGroupFilter filter = new UserGroupFilter(institutionId, productId, userId, allowedStatus);
         Pageable pageable = PageRequest.of(0, 3);
@@ -305,6 +364,233 @@ class UserGroupRepositoryTest {
         assertEquals(1, foundGroups.size());
     }
 
+    @Test
+    void findAllAfter() {
+        //given
+        SelfCareUser selfCareUser = SelfCareUser.builder("id")
+                .email("test@example.com")
+                .name("name")
+                .surname("surname")
+                .build();
+        TestingAuthenticationToken authenticationToken = new TestingAuthenticationToken(selfCareUser, null);
+        TestSecurityContextHolder.setAuthentication(authenticationToken);
+        String institutionId = "institutionId";
+        List<String> names = List.of("alfa", "beta", "beta", "delta", "gamma");
+        for (String name : names) {
+            UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId",
+                    "setCreatedAt",
+                    "setCreateBy",
+                    "setModifiedAt",
+                    "setModifiedBy",
+                    "setVersion");
+            group.setInstitutionId(institutionId);
+            group.setName(name);
+            repository.insert(group);
+        }
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        UserGroupFilter filter = new UserGroupFilter(institutionId, null, (String) null, Collections.emptyList());
+        int size = 2;
+        Page<UserGroupOperations> firstPage = groupConnector.findAll(filter, PageRequest.of(0, size, Sort.by("name")));
+        List<String> foundIds = new ArrayList<>();
+        firstPage.forEach(group -> foundIds.add(group.getId()));
+        Optional<ContinuationToken> continuationToken = ContinuationToken.after(firstPage.getContent().get(size - 1), firstPage.getSort());
+        //when
+        while (continuationToken.isPresent()) {
+            Slice<UserGroupOperations> slice = groupConnector.findAllAfter(filter, continuationToken.get(), size);
+            slice.forEach(group -> foundIds.add(group.getId()));
+            continuationToken = slice.hasNext()
+                    ? ContinuationToken.after(slice.getContent().get(slice.getNumberOfElements() - 1), slice.getSort())
+                    : Optional.empty();
+        }
+        //then
+        List<String> expectedIds = mongoTemplate.find(new Query().with(Sort.by("name", "_id")), UserGroupEntity.class).stream()
+                .map(UserGroupEntity::getId)
+                .collect(Collectors.toList());
+        assertEquals(expectedIds, foundIds);
+    }
+
+    @Test
+    void findSummaries() {
+        //given
+        String institutionId = "institutionId";
+        UserGroupEntity group1 = TestUtils.mockInstance(new UserGroupEntity(), "setId",
+                "setCreatedAt",
+                "setCreateBy",
+                "setModifiedAt",
+                "setModifiedBy",
+                "setVersion");
+        group1.setInstitutionId(institutionId);
+        group1.setName("alfa");
+        group1.setMembers(Set.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+        repository.insert(group1);
+        UserGroupEntity group2 = TestUtils.mockInstance(new UserGroupEntity(), "setId",
+                "setCreatedAt",
+                "setCreateBy",
+                "setModifiedAt",
+                "setModifiedBy",
+                "setVersion");
+        group2.setInstitutionId(institutionId);
+        group2.setName("beta");
+        group2.setMembers(null);
+        repository.insert(group2);
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        UserGroupFilter filter = new UserGroupFilter(institutionId, null, (String) null, Collections.emptyList());
+        //when
+        Page<UserGroupSummary> page = groupConnector.findSummaries(filter, PageRequest.of(0, 10, Sort.by("name")));
+        //then
+        assertEquals(2, page.getTotalElements());
+        UserGroupSummary summary1 = page.getContent().get(0);
+        assertNotNull(summary1.getId());
+        assertEquals(group1.getName(), summary1.getName());
+        assertEquals(group1.getProductId(), summary1.getProductId());
+        assertEquals(group1.getStatus(), summary1.getStatus());
+        assertEquals(3, summary1.getMembersCount());
+        assertEquals(0, page.getContent().get(1).getMembersCount());
+    }
+
+    @Test
+    void findMembers() {
+        //given
+        UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId",
+                "setCreatedAt",
+                "setCreateBy",
+                "setModifiedAt",
+                "setModifiedBy",
+                "setVersion");
+        group.setMembers(null);
+        UserGroupEntity savedGroup = repository.insert(group);
+        List<UUID> members = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        members.forEach(member -> mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(savedGroup.getId())),
+                new Update().addToSet("members", member),
+                UserGroupEntity.class));
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        //when
+        Page<UUID> page = groupConnector.findMembers(savedGroup.getId(), PageRequest.of(1, 2));
+        boolean isMember = groupConnector.existsMember(savedGroup.getId(), members.get(4).toString());
+        boolean isNotMember = groupConnector.existsMember(savedGroup.getId(), UUID.randomUUID().toString());
+        //then
+        assertEquals(members.subList(2, 4), page.getContent());
+        assertEquals(5, page.getTotalElements());
+        assertTrue(isMember);
+        assertFalse(isNotMember);
+    }
+
+    @Test
+    void findRevision() {
+        //given
+        UserGroupEntity savedGroup = repository.insert(TestUtils.mockInstance(new UserGroupEntity(), "setId", "setVersion"));
+        Instant modifiedAt = repository.findById(savedGroup.getId()).map(UserGroupEntity::getModifiedAt).orElseThrow();
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        //when
+        UserGroupRevision revision = groupConnector.findRevision(savedGroup.getId());
+        groupConnector.suspendById(savedGroup.getId());
+        UserGroupRevision modifiedRevision = groupConnector.findRevision(savedGroup.getId());
+        Executable executable = () -> groupConnector.findRevision("notExisting");
+        //then
+        assertEquals(0, revision.getVersion());
+        assertEquals(modifiedAt, revision.getModifiedAt());
+        assertEquals(1, modifiedRevision.getVersion());
+        assertThrows(ResourceNotFoundException.class, executable);
+    }
+
+    @Test
+    void updateGroup_expectedVersion() {
+        //given
+        UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId", "setVersion");
+        group.setStatus(UserGroupStatus.ACTIVE);
+        UserGroupEntity savedGroup = repository.insert(group);
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        UserGroupEntity update = new UserGroupEntity();
+        update.setName("newName");
+        update.setVersion(savedGroup.getVersion());
+        //when
+        UserGroupOperations updatedGroup = groupConnector.updateGroup(savedGroup.getId(), update);
+        Executable executable = () -> groupConnector.updateGroup(savedGroup.getId(), update);
+        //then
+        assertEquals("newName", updatedGroup.getName());
+        assertEquals(savedGroup.getVersion() + 1, updatedGroup.getVersion().longValue());
+        assertThrows(ResourceVersionMismatchException.class, executable);
+        assertEquals(updatedGroup.getVersion(), repository.findById(savedGroup.getId()).map(UserGroupEntity::getVersion).orElseThrow());
+    }
+
+    @Test
+    void updateGroup_storedWithoutVersion() {
+        //given
+        String collectionName = mongoTemplate.getCollectionName(UserGroupEntity.class);
+        String id = mongoTemplate.insert(new Document("name", "name")
+                        .append("status", UserGroupStatus.ACTIVE.name()), collectionName)
+                .getObjectId("_id").toHexString();
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        UserGroupEntity update = new UserGroupEntity();
+        update.setDescription("description");
+        update.setVersion(groupConnector.findRevision(id).getVersion());
+        //when
+        UserGroupOperations updatedGroup = groupConnector.updateGroup(id, update);
+        //then
+        assertEquals(0, update.getVersion().longValue());
+        assertEquals("description", updatedGroup.getDescription());
+        assertEquals(1, updatedGroup.getVersion().longValue());
+    }
+
+    @Test
+    void insertMember_storedAsString() {
+        //given
+        String collectionName = mongoTemplate.getCollectionName(UserGroupEntity.class);
+        String memberId = UUID.randomUUID().toString();
+        String id = mongoTemplate.insert(new Document("name", "name")
+                        .append("status", UserGroupStatus.ACTIVE.name())
+                        .append("members", List.of(memberId)), collectionName)
+                .getObjectId("_id").toHexString();
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        //when
+        groupConnector.insertMember(id, memberId);
+        //then
+        Document stored = mongoTemplate.findById(id, Document.class, collectionName);
+        assertNotNull(stored);
+        assertEquals(List.of(memberId), stored.getList("members", Object.class));
+        assertFalse(stored.containsKey("version"));
+    }
+
+    @Test
+    void deleteMember_returnsInstitution() {
+        //given
+        String memberId = UUID.randomUUID().toString();
+        UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId", "setVersion");
+        group.setStatus(UserGroupStatus.ACTIVE);
+        group.setMembers(Set.of(UUID.fromString(memberId)));
+        UserGroupEntity savedGroup = repository.insert(group);
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        //when
+        String institutionId = groupConnector.deleteMember(savedGroup.getId(), memberId);
+        Executable executable = () -> groupConnector.deleteMember(savedGroup.getId(), memberId);
+        //then
+        assertEquals(savedGroup.getInstitutionId(), institutionId);
+        assertThrows(ResourceUpdateException.class, executable);
+        assertTrue(repository.findById(savedGroup.getId()).map(UserGroupEntity::getMembers).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void streamAll() {
+        //given
+        String institutionId = "institutionId";
+        for (int i = 0; i < UserGroupConnectorImpl.STREAM_BATCH_SIZE + 5; i++) {
+            UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity(), "setId", "setVersion");
+            group.setName("name" + i);
+            group.setInstitutionId(i % 2 == 0 ? institutionId : "otherInstitutionId");
+            repository.insert(group);
+        }
+        UserGroupConnectorImpl groupConnector = new UserGroupConnectorImpl(repository, mongoTemplate, auditorAware, new SimpleMeterRegistry());
+        //when
+        List<UserGroupOperations> groups;
+        try (Stream<UserGroupOperations> stream = groupConnector.streamAll(new UserGroupFilter(institutionId, null, (String) null, List.of()))) {
+            groups = stream.collect(Collectors.toList());
+        }
+        //then
+        assertEquals(UserGroupConnectorImpl.STREAM_BATCH_SIZE / 2 + 3, groups.size());
+        groups.forEach(group -> assertEquals(institutionId, group.getInstitutionId()));
+    }
+
     @Test
     void deleteMembers() {
         //given
@@ -320,27 +606,30 @@ class UserGroupRepositoryTest {
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         String productId = "productId";
         String institutionId = "institutionId";
         group1.setProductId(productId);
         group1.setName("alfa");
-        group1.setMembers(Set.of("userId", "userId2"));
+        UUID userId = UUID.randomUUID();
+        UUID userId2 = UUID.randomUUID();
+        group1.setMembers(Set.of(userId, userId2));
         group1.setInstitutionId(institutionId);
         UserGroupEntity savedGroup = repository.insert(group1);
         UserGroupEntity group2 = TestUtils.mockInstance(new UserGroupEntity(), "setId",
                 "setCreatedAt",
                 "setCreateBy",
                 "setModifiedAt",
-                "setModifiedBy");
+                "setModifiedBy",
+                "setVersion");
         group2.setProductId(productId);
         group2.setName("beta");
         group2.setInstitutionId(institutionId);
-        group2.setMembers(Set.of("userId"));
+        group2.setMembers(Set.of(userId));
         UserGroupEntity savedGroup1 = repository.insert(group2);
         Pageable pageable = PageRequest.of(0, 3);
         UserGroupFilter filter = new UserGroupFilter();
-        String userId = "userId";
         filter.setInstitutionId(institutionId);
         filter.setProductId(productId);
         Query query = new Query();
@@ -350,10 +639,10 @@ class UserGroupRepositoryTest {
 
         //when
         UpdateResult updateResult = mongoTemplate.updateMulti(
-                Query.query(Criteria.where(UserGroupEntity.Fields.members).is("userId2")
+                Query.query(Criteria.where(UserGroupEntity.Fields.members).is(userId2)
                         .and(UserGroupEntity.Fields.institutionId).is(institutionId)
                         .and(UserGroupEntity.Fields.productId).is(productId)),
-                new Update().pull("members", "userId2")
+                new Update().pull("members", userId2)
                         .set("modifiedBy", auditorAware.getCurrentAuditor().get())
                         .set("modifiedAt", now),
                 UserGroupEntity.class);
@@ -0,0 +1,376 @@
+package it.pagopa.selfcare.user_group.connector.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import it.pagopa.selfcare.commons.utils.TestUtils;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationOutcome;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationType;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingUserGroupConnectorTest {
+
+    private final UserGroupConnector delegateMock = Mockito.mock(UserGroupConnector.class);
+
+    private final Cache<String, UserGroupOperations> cache = Caffeine.newBuilder()
+            .recordStats()
+            .build();
+
+    private final CachingUserGroupConnector groupConnector = new CachingUserGroupConnector(delegateMock, cache);
+
+    private final Cache<CachingUserGroupConnector.FindAllKey, Page<UserGroupOperations>> queryCache = Caffeine.newBuilder()
+            .build();
+
+    private final CachingUserGroupConnector queryCachingConnector = new CachingUserGroupConnector(delegateMock, cache, queryCache);
+
+
+    @Test
+    void findById_hit() {
+        //given
+        String groupId = "groupId";
+        UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity());
+        when(delegateMock.findById(any()))
+                .thenReturn(Optional.of(group));
+        //when
+        Optional<UserGroupOperations> first = groupConnector.findById(groupId);
+        Optional<UserGroupOperations> second = groupConnector.findById(groupId);
+        //then
+        assertSame(group, first.orElseThrow());
+        assertSame(group, second.orElseThrow());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, cache.stats().hitCount());
+        verify(delegateMock, times(1))
+                .findById(groupId);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void findById_notFound() {
+        //given
+        String groupId = "groupId";
+        when(delegateMock.findById(any()))
+                .thenReturn(Optional.empty());
+        //when
+        Optional<UserGroupOperations> first = groupConnector.findById(groupId);
+        Optional<UserGroupOperations> second = groupConnector.findById(groupId);
+        //then
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        verify(delegateMock, times(2))
+                .findById(groupId);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void findRevision_cached() {
+        //given
+        String groupId = "groupId";
+        UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity());
+        group.setModifiedAt(Instant.now());
+        group.setVersion(3L);
+        when(delegateMock.findById(any()))
+                .thenReturn(Optional.of(group));
+        groupConnector.findById(groupId);
+        //when
+        UserGroupRevision revision = groupConnector.findRevision(groupId);
+        //then
+        assertEquals(3, revision.getVersion());
+        assertEquals(group.getModifiedAt(), revision.getModifiedAt());
+        verify(delegateMock, times(1))
+                .findById(groupId);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void findRevision_notCached() {
+        //given
+        String groupId = "groupId";
+        UserGroupRevision revision = new UserGroupRevision();
+        when(delegateMock.findRevision(any()))
+                .thenReturn(revision);
+        //when
+        UserGroupRevision result = groupConnector.findRevision(groupId);
+        //then
+        assertSame(revision, result);
+        assertEquals(0, cache.estimatedSize());
+        verify(delegateMock, times(1))
+                .findRevision(groupId);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void insertMember_evicts() {
+        //given
+        String groupId = "groupId";
+        String memberId = UUID.randomUUID().toString();
+        cache.put(groupId, TestUtils.mockInstance(new UserGroupEntity()));
+        //when
+        groupConnector.insertMember(groupId, memberId);
+        //then
+        assertNull(cache.getIfPresent(groupId));
+        verify(delegateMock, times(1))
+                .insertMember(groupId, memberId);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void suspendById_evictsOnFailure() {
+        //given
+        String groupId = "groupId";
+        cache.put(groupId, TestUtils.mockInstance(new UserGroupEntity()));
+        doThrow(ResourceUpdateException.class)
+                .when(delegateMock)
+                .suspendById(any());
+        //when
+        Executable executable = () -> groupConnector.suspendById(groupId);
+        //then
+        assertThrows(ResourceUpdateException.class, executable);
+        assertNull(cache.getIfPresent(groupId));
+    }
+
+    @Test
+    void bulkUpdateMembers_evictsTouchedGroups() {
+        //given
+        String memberId = UUID.randomUUID().toString();
+        cache.put("groupId1", TestUtils.mockInstance(new UserGroupEntity()));
+        cache.put("groupId2", TestUtils.mockInstance(new UserGroupEntity()));
+        cache.put("groupId3", TestUtils.mockInstance(new UserGroupEntity()));
+        List<MemberOperation> operations = List.of(
+                new MemberOperation("groupId1", memberId, MemberOperationType.ADD),
+                new MemberOperation("groupId2", memberId, MemberOperationType.REMOVE));
+        when(delegateMock.bulkUpdateMembers(any()))
+                .thenReturn(List.of(new MemberOperationResult(operations.get(0), MemberOperationOutcome.APPLIED, "institutionId"),
+                        new MemberOperationResult(operations.get(1), MemberOperationOutcome.GROUP_NOT_FOUND, null)));
+        //when
+        groupConnector.bulkUpdateMembers(operations);
+        //then
+        assertNull(cache.getIfPresent("groupId1"));
+        assertNull(cache.getIfPresent("groupId2"));
+        assertNotNull(cache.getIfPresent("groupId3"));
+        verify(delegateMock, times(1))
+                .bulkUpdateMembers(operations);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void deleteMembers_evictsGroupsOfTheInstitutionProduct() {
+        //given
+        String memberId = UUID.randomUUID().toString();
+        cache.put("groupId1", group("institutionId", "productId"));
+        cache.put("groupId2", group("institutionId", "otherProductId"));
+        cache.put("groupId3", group("otherInstitutionId", "productId"));
+        //when
+        groupConnector.deleteMembers(memberId, "institutionId", "productId");
+        //then
+        assertNull(cache.getIfPresent("groupId1"));
+        assertNotNull(cache.getIfPresent("groupId2"));
+        assertNotNull(cache.getIfPresent("groupId3"));
+        verify(delegateMock, times(1))
+                .deleteMembers(memberId, "institutionId", "productId");
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void bulkDeleteMembers_evictsGroupsOfTheInstitutionProduct() {
+        //given
+        Set<String> memberIds = Set.of(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        cache.put("groupId1", group("institutionId", "productId"));
+        cache.put("groupId2", group("institutionId", "otherProductId"));
+        cache.put("groupId3", group("otherInstitutionId", "productId"));
+        when(delegateMock.bulkDeleteMembers(any(), any(), any(), any()))
+                .thenReturn(1L);
+        //when
+        long modifiedCount = groupConnector.bulkDeleteMembers(memberIds, "institutionId", "productId", "modifiedBy");
+        //then
+        assertEquals(1, modifiedCount);
+        assertNull(cache.getIfPresent("groupId1"));
+        assertNotNull(cache.getIfPresent("groupId2"));
+        assertNotNull(cache.getIfPresent("groupId3"));
+        verify(delegateMock, times(1))
+                .bulkDeleteMembers(memberIds, "institutionId", "productId", "modifiedBy");
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void findAll_notCachingQueries() {
+        //given
+        UserGroupFilter filter = new UserGroupFilter("institutionId", "productId", (String) null, List.of());
+        Pageable pageable = PageRequest.of(0, 10);
+        when(delegateMock.findAll(any(), any()))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(), pageable, 0));
+        //when
+        groupConnector.findAll(filter, pageable);
+        groupConnector.findAll(filter, pageable);
+        //then
+        verify(delegateMock, times(2))
+                .findAll(filter, pageable);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void findAll_hit() {
+        //given
+        Pageable pageable = PageRequest.of(0, 10);
+        UserGroupFilter filter = new UserGroupFilter("institutionId", "productId", (String) null,
+                List.of(UserGroupStatus.SUSPENDED, UserGroupStatus.ACTIVE));
+        UserGroupFilter sameFilter = new UserGroupFilter("institutionId", "productId", (String) null,
+                List.of(UserGroupStatus.ACTIVE, UserGroupStatus.SUSPENDED));
+        Page<UserGroupOperations> page = new PageImpl<>(List.of(TestUtils.mockInstance(new UserGroupEntity())), pageable, 1);
+        when(delegateMock.findAll(any(), any()))
+                .thenReturn(page);
+        //when
+        Page<UserGroupOperations> first = queryCachingConnector.findAll(filter, pageable);
+        Page<UserGroupOperations> second = queryCachingConnector.findAll(sameFilter, PageRequest.of(0, 10));
+        //then
+        assertSame(page, first);
+        assertSame(page, second);
+        verify(delegateMock, times(1))
+                .findAll(filter, pageable);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void findAll_evictedByWritesToTheInstitution() {
+        //given
+        Pageable pageable = PageRequest.of(0, 10);
+        UserGroupFilter filter = new UserGroupFilter("institutionId", null, (String) null, List.of());
+        UserGroupFilter otherFilter = new UserGroupFilter("otherInstitutionId", null, (String) null, List.of());
+        when(delegateMock.findAll(any(), any()))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(), pageable, 0));
+        queryCachingConnector.findAll(filter, pageable);
+        queryCachingConnector.findAll(otherFilter, pageable);
+        //when
+        queryCachingConnector.deleteMembers("memberId", "institutionId", "productId");
+        queryCachingConnector.findAll(filter, pageable);
+        queryCachingConnector.findAll(otherFilter, pageable);
+        //then
+        verify(delegateMock, times(2))
+                .findAll(filter, pageable);
+        verify(delegateMock, times(1))
+                .findAll(otherFilter, pageable);
+    }
+
+    @Test
+    void findAll_evictedByWritesToAnyInstitution() {
+        //given
+        Pageable pageable = PageRequest.of(0, 10);
+        UserGroupFilter filter = new UserGroupFilter(null, "productId", (String) null, List.of());
+        when(delegateMock.findAll(any(), any()))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(), pageable, 0));
+        queryCachingConnector.findAll(filter, pageable);
+        //when
+        queryCachingConnector.deleteMembers("memberId", "institutionId", "productId");
+        queryCachingConnector.findAll(filter, pageable);
+        //then
+        verify(delegateMock, times(2))
+                .findAll(filter, pageable);
+    }
+
+    @Test
+    void bulkUpdateMembers_evictsQueriesOfTheGroupsInstitutions() {
+        //given
+        Pageable pageable = PageRequest.of(0, 10);
+        UserGroupFilter filter = new UserGroupFilter("institutionId", null, (String) null, List.of());
+        UserGroupFilter otherFilter = new UserGroupFilter("otherInstitutionId", null, (String) null, List.of());
+        List<MemberOperation> operations = List.of(new MemberOperation("groupId1", "memberId", MemberOperationType.ADD),
+                new MemberOperation("groupId2", "memberId", MemberOperationType.ADD));
+        when(delegateMock.findAll(any(), any()))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(), pageable, 0));
+        when(delegateMock.bulkUpdateMembers(any()))
+                .thenReturn(List.of(new MemberOperationResult(operations.get(0), MemberOperationOutcome.APPLIED, "institutionId"),
+                        new MemberOperationResult(operations.get(1), MemberOperationOutcome.GROUP_NOT_FOUND, null)));
+        queryCachingConnector.findAll(filter, pageable);
+        queryCachingConnector.findAll(otherFilter, pageable);
+        //when
+        queryCachingConnector.bulkUpdateMembers(operations);
+        queryCachingConnector.findAll(filter, pageable);
+        queryCachingConnector.findAll(otherFilter, pageable);
+        //then
+        verify(delegateMock, times(2))
+                .findAll(filter, pageable);
+        verify(delegateMock, times(1))
+                .findAll(otherFilter, pageable);
+    }
+
+    @Test
+    void insertMember_evictsQueriesOfTheGroupInstitution() {
+        //given
+        Pageable pageable = PageRequest.of(0, 10);
+        UserGroupFilter filter = new UserGroupFilter("institutionId", null, (String) null, List.of());
+        UserGroupFilter otherFilter = new UserGroupFilter("otherInstitutionId", null, (String) null, List.of());
+        when(delegateMock.findAll(any(), any()))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(), pageable, 0));
+        when(delegateMock.insertMember(any(), any()))
+                .thenReturn("institutionId");
+        queryCachingConnector.findAll(filter, pageable);
+        queryCachingConnector.findAll(otherFilter, pageable);
+        //when
+        String institutionId = queryCachingConnector.insertMember("groupId", "memberId");
+        queryCachingConnector.findAll(filter, pageable);
+        queryCachingConnector.findAll(otherFilter, pageable);
+        //then
+        assertEquals("institutionId", institutionId);
+        verify(delegateMock, times(1))
+                .insertMember("groupId", "memberId");
+        verify(delegateMock, times(2))
+                .findAll(filter, pageable);
+        verify(delegateMock, times(1))
+                .findAll(otherFilter, pageable);
+        verifyNoMoreInteractions(delegateMock);
+    }
+
+    @Test
+    void suspendById_failure_leavesQueries() {
+        //given
+        Pageable pageable = PageRequest.of(0, 10);
+        UserGroupFilter filter = new UserGroupFilter("institutionId", null, (String) null, List.of());
+        cache.put("groupId", group("institutionId", "productId"));
+        when(delegateMock.findAll(any(), any()))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(), pageable, 0));
+        doThrow(ResourceUpdateException.class)
+                .when(delegateMock)
+                .suspendById(any());
+        queryCachingConnector.findAll(filter, pageable);
+        //when
+        Executable executable = () -> queryCachingConnector.suspendById("groupId");
+        //then
+        assertThrows(ResourceUpdateException.class, executable);
+        queryCachingConnector.findAll(filter, pageable);
+        assertNull(cache.getIfPresent("groupId"));
+        verify(delegateMock, times(1))
+                .findAll(filter, pageable);
+    }
+
+
+    private static UserGroupEntity group(String institutionId, String productId) {
+        UserGroupEntity group = TestUtils.mockInstance(new UserGroupEntity());
+        group.setInstitutionId(institutionId);
+        group.setProductId(productId);
+        return group;
+    }
+
+}
@@ -0,0 +1,150 @@
+package it.pagopa.selfcare.user_group.connector.dao.cache;
+
+import it.pagopa.selfcare.commons.utils.TestUtils;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.dao.UserGroupConnectorImpl;
+import it.pagopa.selfcare.user_group.connector.dao.UserGroupRepository;
+import it.pagopa.selfcare.user_group.connector.dao.config.DaoTestConfig;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataMongoTest
+@EnableAutoConfiguration
+@ContextConfiguration(classes = {UserGroupEntity.class, UserGroupRepository.class, DaoTestConfig.class,
+        UserGroupConnectorImpl.class, UserGroupCacheConfig.class, UserGroupChangeStreamListener.class})
+@TestPropertySource(properties = {
+        "spring.mongodb.embedded.storage.repl-set-name=rs0",
+        "USER_GROUP_CACHE_ENABLED=true",
+        "USER_GROUP_CACHE_CHANGE_STREAM_RETRY_DELAY=100ms"
+})
+class UserGroupChangeStreamListenerTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private UserGroupConnector groupConnector;
+
+    @Autowired
+    private UserGroupChangeStreamListener listener;
+
+    @Autowired
+    private UserGroupRepository repository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @AfterEach
+    void clear() {
+        repository.deleteAll();
+        if (!listener.isRunning()) {
+            listener.start();
+        }
+    }
+
+
+    @Test
+    void evictsGroupsUpdatedElsewhere() {
+        //given
+        assertTrue(groupConnector instanceof CachingUserGroupConnector);
+        UserGroupEntity group = repository.insert(TestUtils.mockInstance(new UserGroupEntity(), "setId"));
+        await(() -> listener.getResumeToken() != null);
+        assertEquals(group.getName(), groupConnector.findById(group.getId()).orElseThrow().getName());
+        //when
+        renameBehindTheCache(group.getId());
+        //then
+        await(() -> "renamed".equals(groupConnector.findById(group.getId()).orElseThrow().getName()));
+    }
+
+
+    @Test
+    void evictsQueriesOfGroupsUpdatedElsewhere() {
+        //given
+        UserGroupEntity group = repository.insert(TestUtils.mockInstance(new UserGroupEntity(), "setId"));
+        await(() -> listener.getResumeToken() != null);
+        UserGroupFilter filter = new UserGroupFilter(group.getInstitutionId(), null, (String) null, List.of());
+        assertEquals(group.getName(), groupConnector.findAll(filter, PageRequest.of(0, 10)).getContent().get(0).getName());
+        //when
+        renameBehindTheCache(group.getId());
+        //then
+        await(() -> "renamed".equals(groupConnector.findAll(filter, PageRequest.of(0, 10)).getContent().get(0).getName()));
+    }
+
+
+    @Test
+    void resumesAfterStop() {
+        //given
+        UserGroupEntity group = repository.insert(TestUtils.mockInstance(new UserGroupEntity(), "setId"));
+        await(() -> listener.getResumeToken() != null);
+        groupConnector.findById(group.getId());
+        listener.stop();
+        //when
+        renameBehindTheCache(group.getId());
+        //then
+        assertEquals(group.getName(), groupConnector.findById(group.getId()).orElseThrow().getName());
+        listener.start();
+        await(() -> "renamed".equals(groupConnector.findById(group.getId()).orElseThrow().getName()));
+    }
+
+
+    @Test
+    void retriesAfterUnexpectedFailures() {
+        //given
+        MongoTemplate mongoTemplateMock = mock(MongoTemplate.class);
+        when(mongoTemplateMock.getCollection(any()))
+                .thenThrow(IllegalStateException.class);
+        CachingUserGroupConnector cacheMock = mock(CachingUserGroupConnector.class);
+        UserGroupChangeStreamListener failingListener = new UserGroupChangeStreamListener(mongoTemplateMock, cacheMock, true, Duration.ofMillis(10));
+        //when
+        failingListener.start();
+        //then
+        try {
+            verify(cacheMock, timeout(TIMEOUT_MILLIS).atLeast(2))
+                    .evictAll();
+            assertTrue(failingListener.isRunning());
+        } finally {
+            failingListener.stop();
+        }
+    }
+
+
+    private void renameBehindTheCache(String id) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where(UserGroupEntity.Fields.id).is(id)),
+                new Update().set(UserGroupEntity.Fields.name, "renamed"),
+                UserGroupEntity.class);
+    }
+
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package it.pagopa.selfcare.user_group.connector.dao.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class ReactiveMongoAutoConfigurationImportFilterTest {
+
+    private static final String[] AUTO_CONFIGURATIONS = {
+            MongoDataAutoConfiguration.class.getName(),
+            MongoReactiveAutoConfiguration.class.getName(),
+            MongoReactiveDataAutoConfiguration.class.getName(),
+            null
+    };
+
+
+    @Test
+    void match_disabled() {
+        //given
+        ReactiveMongoAutoConfigurationImportFilter filter = new ReactiveMongoAutoConfigurationImportFilter();
+        filter.setEnvironment(new MockEnvironment());
+        //when
+        boolean[] matches = filter.match(AUTO_CONFIGURATIONS, null);
+        //then
+        assertArrayEquals(new boolean[]{true, false, false, true}, matches);
+    }
+
+
+    @Test
+    void match_enabled() {
+        //given
+        ReactiveMongoAutoConfigurationImportFilter filter = new ReactiveMongoAutoConfigurationImportFilter();
+        filter.setEnvironment(new MockEnvironment()
+                .withProperty(ReactiveMongoAutoConfigurationImportFilter.ENABLED_PROPERTY, "true"));
+        //when
+        boolean[] matches = filter.match(AUTO_CONFIGURATIONS, null);
+        //then
+        assertArrayEquals(new boolean[]{true, true, true, true}, matches);
+    }
+
+}
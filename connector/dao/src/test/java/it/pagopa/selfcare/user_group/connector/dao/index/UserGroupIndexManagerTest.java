@@ -0,0 +1,162 @@
+package it.pagopa.selfcare.user_group.connector.dao.index;
+
+import it.pagopa.selfcare.user_group.connector.dao.UserGroupConnectorImpl;
+import it.pagopa.selfcare.user_group.connector.dao.UserGroupRepository;
+import it.pagopa.selfcare.user_group.connector.dao.config.DaoTestConfig;
+import it.pagopa.selfcare.user_group.connector.dao.model.OffboardingJobEntity;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataMongoTest
+@EnableAutoConfiguration
+@ContextConfiguration(classes = {UserGroupEntity.class, UserGroupRepository.class, DaoTestConfig.class, UserGroupIndexManager.class,
+        UserGroupConnectorImpl.class})
+class UserGroupIndexManagerTest {
+
+    private static final Set<String> DECLARED_INDEXES = Set.of("institutionId_productId_status",
+            "institutionId_productId_name",
+            "productId_status",
+            "members_institutionId_productId",
+            "members_status_name");
+
+    @Autowired
+    private UserGroupIndexManager indexManager;
+
+    @Autowired
+    private UserGroupConnectorImpl groupConnector;
+
+    @SpyBean
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void clear() {
+        mongoTemplate.dropCollection(UserGroupEntity.class);
+        mongoTemplate.dropCollection(OffboardingJobEntity.class);
+    }
+
+
+    @Test
+    void ensureIndexes() {
+        //when
+        indexManager.ensureIndexes();
+        indexManager.ensureIndexes();
+        //then
+        Set<String> indexNames = mongoTemplate.indexOps(UserGroupEntity.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+        assertTrue(indexNames.containsAll(DECLARED_INDEXES));
+        Set<String> jobIndexNames = mongoTemplate.indexOps(OffboardingJobEntity.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+        assertTrue(jobIndexNames.containsAll(Set.of("status_claimedUntil", "status_completedAt")));
+    }
+
+
+    @Test
+    void reportIndexUsage_missingIndexes() {
+        //given
+        mongoTemplate.createCollection(UserGroupEntity.class);
+        //when
+        IndexUsageReport report = indexManager.reportIndexUsage();
+        //then
+        assertFalse(report.isHealthy());
+        assertEquals(DECLARED_INDEXES, report.getMissing());
+        assertTrue(report.getUndeclared().isEmpty());
+    }
+
+
+    @Test
+    void reportIndexUsage() {
+        //given
+        indexManager.ensureIndexes();
+        //when
+        IndexUsageReport report = indexManager.reportIndexUsage();
+        //then
+        assertTrue(report.isHealthy());
+        assertTrue(report.getUndeclared().isEmpty());
+        assertEquals(DECLARED_INDEXES, report.getUnused());
+    }
+
+
+    @Test
+    void queryShapes_noCollectionScan() {
+        //given
+        indexManager.ensureIndexes();
+        String memberId = UUID.randomUUID().toString();
+        Document activeStatus = new Document("$in", List.of("ACTIVE"));
+        List<Document> filters = List.of(
+                new Document("institutionId", "institutionId"),
+                new Document("institutionId", "institutionId").append("productId", "productId").append("status", activeStatus),
+                new Document("productId", "productId").append("status", activeStatus),
+                new Document("members", memberId).append("institutionId", "institutionId").append("productId", "productId"),
+                new Document("members", memberId).append("status", activeStatus));
+        //when
+        List<String> winningPlans = filters.stream()
+                .map(this::getWinningPlan)
+                .collect(Collectors.toList());
+        //then
+        winningPlans.forEach(plan -> assertFalse(plan.contains("COLLSCAN"), plan));
+    }
+
+
+    @Test
+    void findGroupsOfMember_usesIndex() {
+        //given
+        indexManager.ensureIndexes();
+        groupConnector.findGroupsOfMember(UUID.randomUUID().toString(), List.of(UserGroupStatus.ACTIVE));
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1))
+                .find(queryCaptor.capture(), eq(UserGroupEntity.class));
+        Query query = queryCaptor.getValue();
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(UserGroupEntity.class);
+        //when
+        String winningPlan = explainWinningPlan(new Document("find", mongoTemplate.getCollectionName(UserGroupEntity.class))
+                .append("filter", queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .append("projection", queryMapper.getMappedFields(query.getFieldsObject(), entity))
+                .append("sort", queryMapper.getMappedSort(query.getSortObject(), entity)));
+        //then
+        assertTrue(winningPlan.contains("members_status_name"), winningPlan);
+        assertFalse(winningPlan.contains("COLLSCAN"), winningPlan);
+    }
+
+
+    private String getWinningPlan(Document filter) {
+        return explainWinningPlan(new Document("find", mongoTemplate.getCollectionName(UserGroupEntity.class))
+                .append("filter", filter));
+    }
+
+
+    private String explainWinningPlan(Document findCommand) {
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain", findCommand)
+                .append("verbosity", "queryPlanner"));
+        return explain.get("queryPlanner", Document.class)
+                .get("winningPlan", Document.class)
+                .toJson();
+    }
+
+}
@@ -0,0 +1,127 @@
+package it.pagopa.selfcare.user_group.connector.dao.maintenance;
+
+import it.pagopa.selfcare.user_group.connector.dao.UserGroupRepository;
+import it.pagopa.selfcare.user_group.connector.dao.config.DaoTestConfig;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@EnableAutoConfiguration
+@ContextConfiguration(classes = {UserGroupEntity.class, UserGroupRepository.class, DaoTestConfig.class, MembersMaintenanceJob.class})
+@TestPropertySource(properties = {
+        "USER_GROUP_MEMBERS_MAINTENANCE_BATCH_SIZE=2"
+})
+class MembersMaintenanceJobTest {
+
+    @Autowired
+    private MembersMaintenanceJob maintenanceJob;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void clear() {
+        mongoTemplate.dropCollection(UserGroupEntity.class);
+        mongoTemplate.dropCollection(MembersMaintenanceJob.LOCKS_COLLECTION);
+    }
+
+
+    @Test
+    void maintain() {
+        //given
+        UUID member1 = UUID.randomUUID();
+        UUID member2 = UUID.randomUUID();
+        String collectionName = mongoTemplate.getCollectionName(UserGroupEntity.class);
+        for (int i = 0; i < 3; i++) {
+            mongoTemplate.insert(new Document("name", "strings" + i)
+                    .append("members", List.of(member1.toString(), member2.toString())), collectionName);
+        }
+        mongoTemplate.insert(new Document("name", "duplicated")
+                .append("members", List.of(member1, member2, member1, member1)), collectionName);
+        mongoTemplate.insert(new Document("name", "mixed")
+                .append("members", List.of(member1, member1.toString())), collectionName);
+        mongoTemplate.insert(new Document("name", "invalid")
+                .append("members", List.of("notAUuid", member2.toString())), collectionName);
+        mongoTemplate.insert(new Document("name", "normalized")
+                .append("members", List.of(member1)), collectionName);
+        mongoTemplate.insert(new Document("name", "empty"), collectionName);
+        //when
+        MembersMaintenanceReport report = maintenanceJob.maintain();
+        //then
+        assertEquals(6, report.getScanned());
+        assertEquals(6, report.getNormalized());
+        assertEquals(1, report.getInvalid());
+        assertTrue(report.getReclaimedBytes() > 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Set.of(member1, member2), findGroup("strings" + i).getMembers());
+        }
+        assertEquals(List.of(member1, member2), mongoTemplate.findOne(Query.query(Criteria.where("name").is("duplicated")),
+                Document.class, collectionName).getList("members", Object.class));
+        assertEquals(Set.of(member1), findGroup("mixed").getMembers());
+        assertEquals(List.of("notAUuid", member2), mongoTemplate.findOne(Query.query(Criteria.where("name").is("invalid")),
+                Document.class, collectionName).getList("members", Object.class));
+    }
+
+
+    @Test
+    void maintain_nothingToNormalize() {
+        //given
+        mongoTemplate.insert(new Document("name", "normalized")
+                .append("members", List.of(UUID.randomUUID())), mongoTemplate.getCollectionName(UserGroupEntity.class));
+        //when
+        MembersMaintenanceReport report = maintenanceJob.maintain();
+        //then
+        assertEquals(new MembersMaintenanceReport(0, 0, 0, 0), report);
+    }
+
+
+    @Test
+    void tryLock_heldByAnotherReplica() {
+        //given
+        MembersMaintenanceJob otherReplicaJob = new MembersMaintenanceJob(mongoTemplate, true, 2, Duration.ofHours(1));
+        assertTrue(maintenanceJob.tryLock());
+        //when
+        boolean locked = otherReplicaJob.tryLock();
+        //then
+        assertFalse(locked);
+        maintenanceJob.unlock();
+        assertTrue(otherReplicaJob.tryLock());
+    }
+
+
+    @Test
+    void tryLock_expired() {
+        //given
+        MembersMaintenanceJob crashedReplicaJob = new MembersMaintenanceJob(mongoTemplate, true, 2, Duration.ZERO);
+        assertTrue(crashedReplicaJob.tryLock());
+        //when
+        boolean locked = maintenanceJob.tryLock();
+        //then
+        assertTrue(locked);
+    }
+
+
+    private UserGroupEntity findGroup(String name) {
+        UserGroupEntity group = mongoTemplate.findOne(Query.query(Criteria.where(UserGroupEntity.Fields.name).is(name)), UserGroupEntity.class);
+        assertNotNull(group);
+        return group;
+    }
+
+}
@@ -0,0 +1,119 @@
+package it.pagopa.selfcare.user_group.connector.dao.monitoring;
+
+import it.pagopa.selfcare.commons.utils.TestUtils;
+import it.pagopa.selfcare.user_group.connector.dao.UserGroupRepository;
+import it.pagopa.selfcare.user_group.connector.dao.config.DaoTestConfig;
+import it.pagopa.selfcare.user_group.connector.dao.model.UserGroupEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataMongoTest
+@EnableAutoConfiguration
+@ContextConfiguration(classes = {UserGroupEntity.class, UserGroupRepository.class, DaoTestConfig.class, SlowCommandsEndpoint.class})
+@TestPropertySource(properties = {
+        "USER_GROUP_MONGO_SLOW_COMMANDS_THRESHOLD=0ms"
+})
+class SlowCommandListenerTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private SlowCommandsEndpoint slowCommandsEndpoint;
+
+    @Autowired
+    private UserGroupRepository repository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @AfterEach
+    void clear() {
+        repository.deleteAll();
+    }
+
+
+    @Test
+    void capturesSlowFindPlan() {
+        //given
+        UserGroupEntity group = repository.insert(TestUtils.mockInstance(new UserGroupEntity(), "setId"));
+        //when
+        mongoTemplate.find(Query.query(Criteria.where(UserGroupEntity.Fields.name).is(group.getName())), UserGroupEntity.class);
+        //then
+        SlowCommand slowCommand = await(() -> slowCommandsEndpoint.slowCommands().stream()
+                .filter(command -> "find".equals(command.getCommandName()))
+                .filter(command -> command.getPlan() != null)
+                .filter(command -> command.getCommand().get("filter", Document.class).containsKey(UserGroupEntity.Fields.name))
+                .findFirst());
+        assertFalse(slowCommand.isFailed());
+        assertFalse(slowCommand.getCommand().containsKey("$db"));
+        assertEquals(SlowCommandListener.REDACTED_VALUE, slowCommand.getCommand().get("filter", Document.class).get(UserGroupEntity.Fields.name));
+        assertTrue(slowCommand.getPlan().containsKey("winningPlan"));
+        assertFalse(slowCommand.getPlan().toJson().contains(group.getName()), slowCommand.getPlan().toJson());
+    }
+
+
+    @Test
+    void redact() {
+        //given
+        Document command = new Document("find", "userGroups")
+                .append("filter", new Document("members", new Document("$in", List.of("memberId1", "memberId2")))
+                        .append("status", "ACTIVE"))
+                .append("sort", new Document("name", 1))
+                .append("limit", 10);
+        //when
+        Document shape = SlowCommandListener.redact(command);
+        //then
+        assertEquals(new Document("find", "userGroups")
+                        .append("filter", new Document("members", new Document("$in", List.of("?", "?")))
+                                .append("status", "?"))
+                        .append("sort", new Document("name", 1))
+                        .append("limit", 10),
+                shape);
+    }
+
+
+    @Test
+    void keepsOtherSlowCommandsWithoutPlan() {
+        //when
+        repository.insert(TestUtils.mockInstance(new UserGroupEntity(), "setId"));
+        //then
+        SlowCommand slowCommand = await(() -> slowCommandsEndpoint.slowCommands().stream()
+                .filter(command -> "insert".equals(command.getCommandName()))
+                .findFirst());
+        assertNull(slowCommand.getCommand());
+        assertNull(slowCommand.getPlan());
+    }
+
+
+    private static <T> T await(Supplier<Optional<T>> condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        Optional<T> result = condition.get();
+        while (result.isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+            result = condition.get();
+        }
+        return result.get();
+    }
+
+}
@@ -0,0 +1,24 @@
+package it.pagopa.selfcare.user_group.core;
+
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveUserGroupService {
+
+    Mono<UserGroupOperations> getUserGroup(String id);
+
+    Mono<Boolean> isMember(String id, String memberId);
+
+    Flux<MemberGroup> getGroupsOfMember(String memberId, List<UserGroupStatus> status);
+
+    Mono<Page<UserGroupOperations>> getUserGroups(UserGroupFilter filter, Pageable pageable);
+
+}
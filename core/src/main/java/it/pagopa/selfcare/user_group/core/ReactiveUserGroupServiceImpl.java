@@ -0,0 +1,92 @@
+package it.pagopa.selfcare.user_group.core;
+
+import it.pagopa.selfcare.user_group.connector.api.ReactiveUserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ValidationException;
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "user-group.reactive", name = "enabled", havingValue = "true")
+class ReactiveUserGroupServiceImpl implements ReactiveUserGroupService {
+
+    private static final String USER_GROUP_ID_REQUIRED_MESSAGE = "A user group id is required";
+    private static final String MEMBER_ID_REQUIRED = "A member id is required";
+
+    private final ReactiveUserGroupConnector groupConnector;
+    private final List<String> allowedSortingParams;
+
+    @Autowired
+    ReactiveUserGroupServiceImpl(ReactiveUserGroupConnector groupConnector,
+                                 @Value("${user-group.allowed.sorting.parameters}") String[] allowedSortingParams) {
+        this.groupConnector = groupConnector;
+        this.allowedSortingParams = Arrays.asList(allowedSortingParams);
+    }
+
+
+    @Override
+    public Mono<UserGroupOperations> getUserGroup(String id) {
+        log.trace("getUserGroup start");
+        log.debug("getUserGroup id = {}", id);
+        Assert.hasText(id, USER_GROUP_ID_REQUIRED_MESSAGE);
+        return groupConnector.findById(id)
+                .switchIfEmpty(Mono.error(ResourceNotFoundException::new))
+                .doOnSuccess(result -> log.trace("getUserGroup end"));
+    }
+
+
+    @Override
+    public Mono<Boolean> isMember(String id, String memberId) {
+        log.trace("isMember start");
+        log.debug("isMember id = {}, memberId = {}", id, memberId);
+        Assert.hasText(id, USER_GROUP_ID_REQUIRED_MESSAGE);
+        Assert.hasText(memberId, MEMBER_ID_REQUIRED);
+        return groupConnector.existsMember(id, memberId)
+                .doOnSuccess(result -> log.trace("isMember end"));
+    }
+
+
+    @Override
+    public Flux<MemberGroup> getGroupsOfMember(String memberId, List<UserGroupStatus> status) {
+        log.trace("getGroupsOfMember start");
+        log.debug("getGroupsOfMember memberId = {}, status = {}", memberId, status);
+        Assert.hasText(memberId, MEMBER_ID_REQUIRED);
+        return groupConnector.findGroupsOfMember(memberId, status)
+                .doOnComplete(() -> log.trace("getGroupsOfMember end"));
+    }
+
+
+    @Override
+    public Mono<Page<UserGroupOperations>> getUserGroups(UserGroupFilter filter, Pageable pageable) {
+        log.trace("getUserGroups start");
+        log.debug("getUserGroups filter = {}, pageable = {}", filter, pageable);
+        validateSort(pageable);
+        return groupConnector.findAll(filter, pageable)
+                .doOnSuccess(result -> log.trace("getUserGroups end"));
+    }
+
+
+    private void validateSort(Pageable pageable) {
+        boolean match = pageable.getSort().stream().allMatch(order -> allowedSortingParams.contains(order.getProperty()));
+        if (!match) {
+            throw new ValidationException("Given sort parameters aren't valid");
+        }
+    }
+
+}
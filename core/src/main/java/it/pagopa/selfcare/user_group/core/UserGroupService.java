@@ -1,11 +1,22 @@
 package it.pagopa.selfcare.user_group.core;
 
 import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface UserGroupService {
 
@@ -17,10 +28,32 @@ public interface UserGroupService {
 
     void deleteMembers(String userId, String institutionId, String memberId);
 
+    OffboardingJob offboardMember(String memberId, String institutionId, String productId);
+
+    OffboardingJob getOffboardingJob(String id);
+
+    List<MemberOperationResult> updateMembers(List<MemberOperation> operations);
+
     UserGroupOperations getUserGroup(String id);
 
+    UserGroupRevision getUserGroupRevision(String id);
+
+    Page<UUID> getMembers(String id, Pageable pageable);
+
+    boolean isMember(String id, String memberId);
+
+    List<MemberGroup> getGroupsOfMember(String memberId, List<UserGroupStatus> status);
+
     Page<UserGroupOperations> getUserGroups(UserGroupFilter filter, Pageable pageable);
 
+    Slice<UserGroupOperations> getUserGroupsSlice(UserGroupFilter filter, Pageable pageable);
+
+    Slice<UserGroupOperations> getUserGroupsAfter(UserGroupFilter filter, ContinuationToken continuationToken, int size);
+
+    Page<UserGroupSummary> getUserGroupSummaries(UserGroupFilter filter, Pageable pageable);
+
+    Stream<UserGroupOperations> getUserGroupsStream(UserGroupFilter filter);
+
     void deleteGroup(String id);
 
     void suspendGroup(String id);
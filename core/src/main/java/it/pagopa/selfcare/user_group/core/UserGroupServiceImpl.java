@@ -1,42 +1,73 @@
 package it.pagopa.selfcare.user_group.core;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import it.pagopa.selfcare.commons.base.security.SelfCareUser;
 import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
 import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
-import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
+import it.pagopa.selfcare.user_group.core.offboarding.MemberOffboardingQueue;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
 
 import javax.validation.ValidationException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 class UserGroupServiceImpl implements UserGroupService {
 
     private final UserGroupConnector groupConnector;
+    private final MemberOffboardingQueue offboardingQueue;
     private static final String USER_GROUP_ID_REQUIRED_MESSAGE = "A user group id is required";
-    private static final String TRYING_TO_MODIFY_SUSPENDED_GROUP = "Trying to modify suspended group";
     private static final String MEMBER_ID_REQUIRED = "A member id is required";
+    private static final String INSTITUTION_ID_REQUIRED = "An institution id is required";
+    static final String COALESCED_METRIC = "user-group.service.coalesced";
     private final List<String> allowedSortingParams;
+    private final int maxMemberOperations;
+    private final boolean queryCoalescingEnabled;
+    private final SingleFlight<UserGroupsQuery, Page<UserGroupOperations>> userGroupsFlight;
 
     @Autowired
     UserGroupServiceImpl(UserGroupConnector groupConnector,
-                         @Value("${user-group.allowed.sorting.parameters}") String[] allowedSortingParams) {
+                         MemberOffboardingQueue offboardingQueue,
+                         @Value("${user-group.allowed.sorting.parameters}") String[] allowedSortingParams,
+                         @Value("${user-group.members.bulk.max-operations}") int maxMemberOperations,
+                         @Value("${user-group.query-coalescing.enabled}") boolean queryCoalescingEnabled,
+                         MeterRegistry meterRegistry) {
         this.groupConnector = groupConnector;
+        this.offboardingQueue = offboardingQueue;
         this.allowedSortingParams = Arrays.asList(allowedSortingParams);
+        this.maxMemberOperations = maxMemberOperations;
+        this.queryCoalescingEnabled = queryCoalescingEnabled;
+        Counter coalesced = meterRegistry.counter(COALESCED_METRIC, "operation", "getUserGroups");
+        this.userGroupsFlight = new SingleFlight<>(coalesced::increment);
     }
 
     @Override
@@ -61,10 +92,6 @@ class UserGroupServiceImpl implements UserGroupService {
         log.debug("addMember id = {}, memberId ={}", id, memberId);
         Assert.hasText(id, USER_GROUP_ID_REQUIRED_MESSAGE);
         Assert.notNull(memberId, MEMBER_ID_REQUIRED);
-        UserGroupOperations foundGroup = groupConnector.findById(id).orElseThrow(ResourceNotFoundException::new);
-        if (UserGroupStatus.SUSPENDED.equals(foundGroup.getStatus())) {
-            throw new ResourceUpdateException(TRYING_TO_MODIFY_SUSPENDED_GROUP);
-        }
         groupConnector.insertMember(id, memberId.toString());
         log.trace("addMember end");
     }
@@ -75,10 +102,6 @@ class UserGroupServiceImpl implements UserGroupService {
         log.debug("deleteMember groupId = {}, memberId = {}", groupId, memberId);
         Assert.hasText(groupId, USER_GROUP_ID_REQUIRED_MESSAGE);
         Assert.hasText(memberId, MEMBER_ID_REQUIRED);
-        UserGroupOperations foundGroup = groupConnector.findById(groupId).orElseThrow(ResourceNotFoundException::new);
-        if (UserGroupStatus.SUSPENDED.equals(foundGroup.getStatus())) {
-            throw new ResourceUpdateException(TRYING_TO_MODIFY_SUSPENDED_GROUP);
-        }
         groupConnector.deleteMember(groupId, memberId);
         log.trace("deleteMember end");
     }
@@ -94,6 +117,50 @@ class UserGroupServiceImpl implements UserGroupService {
         log.trace("deleteMembers end");
     }
 
+    @Override
+    public OffboardingJob offboardMember(String memberId, String institutionId, String productId) {
+        log.trace("offboardMember start");
+        log.debug("offboardMember memberId = {}, institutionId = {}, productId= {}", memberId, institutionId, productId);
+        Assert.hasText(memberId, MEMBER_ID_REQUIRED);
+        Assert.hasText(institutionId, "A institution id is required");
+        Assert.hasText(productId, "A product id is required");
+        OffboardingJob result = offboardingQueue.submit(memberId, institutionId, productId);
+        log.debug("offboardMember result = {}", result);
+        log.trace("offboardMember end");
+        return result;
+    }
+
+    @Override
+    public OffboardingJob getOffboardingJob(String id) {
+        log.trace("getOffboardingJob start");
+        log.debug("getOffboardingJob id = {}", id);
+        Assert.hasText(id, "An offboarding job id is required");
+        OffboardingJob result = offboardingQueue.findJob(id).orElseThrow(ResourceNotFoundException::new);
+        log.debug("getOffboardingJob result = {}", result);
+        log.trace("getOffboardingJob end");
+        return result;
+    }
+
+    @Override
+    public List<MemberOperationResult> updateMembers(List<MemberOperation> operations) {
+        log.trace("updateMembers start");
+        log.debug("updateMembers operations = {}", operations);
+        Assert.notEmpty(operations, "At least one member operation is required");
+        if (operations.size() > maxMemberOperations) {
+            throw new ValidationException(String.format("At most %d member operations are allowed", maxMemberOperations));
+        }
+        operations.forEach(operation -> {
+            Assert.notNull(operation, "A member operation is required");
+            Assert.hasText(operation.getGroupId(), USER_GROUP_ID_REQUIRED_MESSAGE);
+            Assert.hasText(operation.getMemberId(), MEMBER_ID_REQUIRED);
+            Assert.notNull(operation.getType(), "A member operation type is required");
+        });
+        List<MemberOperationResult> result = groupConnector.bulkUpdateMembers(operations);
+        log.debug("updateMembers result = {}", result);
+        log.trace("updateMembers end");
+        return result;
+    }
+
     @Override
     public UserGroupOperations getUserGroup(String id) {
         log.trace("getUserGroup start");
@@ -107,21 +174,123 @@ class UserGroupServiceImpl implements UserGroupService {
     }
 
 
+    @Override
+    public UserGroupRevision getUserGroupRevision(String id) {
+        log.trace("getUserGroupRevision start");
+        log.debug("getUserGroupRevision id = {}", id);
+        Assert.hasText(id, USER_GROUP_ID_REQUIRED_MESSAGE);
+        UserGroupRevision result = groupConnector.findRevision(id);
+        log.debug("getUserGroupRevision result = {}", result);
+        log.trace("getUserGroupRevision end");
+        return result;
+    }
+
+
+    @Override
+    public Page<UUID> getMembers(String id, Pageable pageable) {
+        log.trace("getMembers start");
+        log.debug("getMembers id = {}, pageable = {}", id, pageable);
+        Assert.hasText(id, USER_GROUP_ID_REQUIRED_MESSAGE);
+        if (pageable.getSort().isSorted()) {
+            throw new ValidationException("Given sort parameters aren't valid");
+        }
+        Page<UUID> result = groupConnector.findMembers(id, pageable);
+        log.debug("getMembers result = {}", result);
+        log.trace("getMembers end");
+        return result;
+    }
+
+
+    @Override
+    public boolean isMember(String id, String memberId) {
+        log.trace("isMember start");
+        log.debug("isMember id = {}, memberId = {}", id, memberId);
+        Assert.hasText(id, USER_GROUP_ID_REQUIRED_MESSAGE);
+        Assert.hasText(memberId, MEMBER_ID_REQUIRED);
+        boolean result = groupConnector.existsMember(id, memberId);
+        log.debug("isMember result = {}", result);
+        log.trace("isMember end");
+        return result;
+    }
+
+
+    @Override
+    public List<MemberGroup> getGroupsOfMember(String memberId, List<UserGroupStatus> status) {
+        log.trace("getGroupsOfMember start");
+        log.debug("getGroupsOfMember memberId = {}, status = {}", memberId, status);
+        Assert.hasText(memberId, MEMBER_ID_REQUIRED);
+        List<MemberGroup> result = groupConnector.findGroupsOfMember(memberId, status);
+        log.debug("getGroupsOfMember result = {}", result);
+        log.trace("getGroupsOfMember end");
+        return result;
+    }
+
+
     @Override
     public Page<UserGroupOperations> getUserGroups(UserGroupFilter filter, Pageable pageable) {
         log.trace("getUserGroups start");
         log.debug("getUserGroups filter = {}, pageable = {}", filter, pageable);
-        boolean match = pageable.getSort().stream().allMatch(order -> allowedSortingParams.contains(order.getProperty()));
-        if (!match) {
-            throw new ValidationException("Given sort parameters aren't valid");
-        }
-        Page<UserGroupOperations> result = groupConnector.findAll(filter, pageable);
+        validateSort(pageable);
+        // identical queries running at the same time, as during login storms, share a single count and find
+        Page<UserGroupOperations> result = queryCoalescingEnabled
+                ? userGroupsFlight.execute(UserGroupsQuery.of(filter, pageable), () -> groupConnector.findAll(filter, pageable))
+                : groupConnector.findAll(filter, pageable);
         log.debug("getUserGroups result = {}", result);
         log.trace("getUserGroups end");
         return result;
     }
 
 
+    @Override
+    public Slice<UserGroupOperations> getUserGroupsSlice(UserGroupFilter filter, Pageable pageable) {
+        log.trace("getUserGroupsSlice start");
+        log.debug("getUserGroupsSlice filter = {}, pageable = {}", filter, pageable);
+        validateSort(pageable);
+        Slice<UserGroupOperations> result = groupConnector.findSlice(filter, pageable);
+        log.debug("getUserGroupsSlice result = {}", result);
+        log.trace("getUserGroupsSlice end");
+        return result;
+    }
+
+
+    @Override
+    public Slice<UserGroupOperations> getUserGroupsAfter(UserGroupFilter filter, ContinuationToken continuationToken, int size) {
+        log.trace("getUserGroupsAfter start");
+        log.debug("getUserGroupsAfter filter = {}, continuationToken = {}, size = {}", filter, continuationToken, size);
+        Assert.notNull(continuationToken, "A continuation token is required");
+        Assert.isTrue(size > 0, "A positive page size is required");
+        validateSort(PageRequest.of(0, size, continuationToken.getSort()));
+        Slice<UserGroupOperations> result = groupConnector.findAllAfter(filter, continuationToken, size);
+        log.debug("getUserGroupsAfter result = {}", result);
+        log.trace("getUserGroupsAfter end");
+        return result;
+    }
+
+
+    @Override
+    public Page<UserGroupSummary> getUserGroupSummaries(UserGroupFilter filter, Pageable pageable) {
+        log.trace("getUserGroupSummaries start");
+        log.debug("getUserGroupSummaries filter = {}, pageable = {}", filter, pageable);
+        validateSort(pageable);
+        Page<UserGroupSummary> result = groupConnector.findSummaries(filter, pageable);
+        log.debug("getUserGroupSummaries result = {}", result);
+        log.trace("getUserGroupSummaries end");
+        return result;
+    }
+
+
+    @Override
+    public Stream<UserGroupOperations> getUserGroupsStream(UserGroupFilter filter) {
+        log.trace("getUserGroupsStream start");
+        log.debug("getUserGroupsStream filter = {}", filter);
+        Assert.notNull(filter, "A filter is required");
+        Assert.hasText(filter.getInstitutionId(), INSTITUTION_ID_REQUIRED);
+        Stream<UserGroupOperations> result = groupConnector.streamAll(filter);
+        log.trace("getUserGroupsStream end");
+        return result;
+    }
+
+
     @Override
     public void deleteGroup(String id) {
         log.trace("deleteGroup start");
@@ -155,16 +324,37 @@ class UserGroupServiceImpl implements UserGroupService {
         log.debug("updateGroup id = {}, group = {}", id, group);
         Assert.hasText(id, USER_GROUP_ID_REQUIRED_MESSAGE);
         Assert.notNull(group, "A user group is required");
-        UserGroupOperations foundGroup = groupConnector.findById(id).orElseThrow(ResourceNotFoundException::new);
-        if (UserGroupStatus.SUSPENDED.equals(foundGroup.getStatus())) {
-            throw new ResourceUpdateException(TRYING_TO_MODIFY_SUSPENDED_GROUP);
-        }
-        foundGroup.setMembers(group.getMembers());
-        foundGroup.setName(group.getName());
-        foundGroup.setDescription(group.getDescription());
-        UserGroupOperations updatedGroup = groupConnector.save(foundGroup);
+        UserGroupOperations updatedGroup = groupConnector.updateGroup(id, group);
         log.debug("updateGroup updatedGroup = {}", updatedGroup);
         log.trace("updateGroup end");
         return updatedGroup;
     }
+
+    private void validateSort(Pageable pageable) {
+        boolean match = pageable.getSort().stream().allMatch(order -> allowedSortingParams.contains(order.getProperty()));
+        if (!match) {
+            throw new ValidationException("Given sort parameters aren't valid");
+        }
+    }
+
+
+    @Data
+    static class UserGroupsQuery {
+        private final String institutionId;
+        private final String productId;
+        private final String userId;
+        private final Set<UserGroupStatus> status;
+        private final Pageable pageable;
+
+        static UserGroupsQuery of(UserGroupFilter filter, Pageable pageable) {
+            if (filter == null) {
+                return new UserGroupsQuery(null, null, null, Collections.emptySet(), pageable);
+            }
+            // the statuses are matched with $in, so neither their order nor their repetitions change the result
+            Set<UserGroupStatus> status = CollectionUtils.isEmpty(filter.getStatus())
+                    ? Collections.emptySet()
+                    : EnumSet.copyOf(filter.getStatus());
+            return new UserGroupsQuery(filter.getInstitutionId(), filter.getProductId(), filter.getUserId(), status, pageable);
+        }
+    }
 }
@@ -0,0 +1,165 @@
+package it.pagopa.selfcare.user_group.core.offboarding;
+
+import it.pagopa.selfcare.user_group.connector.api.OffboardingJobConnector;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJobStatus;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces the removals of offboarded members from their groups: the ones submitted within a window are grouped by
+ * institution, product and submitter, and each group is applied with a single bulk update instead of one update per
+ * member, on behalf of the user that submitted it.
+ * Jobs are persisted when submitted, so their status can be read back through any replica and a crash doesn't lose
+ * them: every replica claims the pending ones for a limited time, after which a claim left by a crashed replica is
+ * taken over. Completed jobs are kept for the configured retention.
+ */
+@Slf4j
+@Component
+public class MemberOffboardingQueue implements SmartLifecycle {
+
+    private final UserGroupConnector groupConnector;
+    private final OffboardingJobConnector jobConnector;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Duration jobRetention;
+    private final Duration claimTimeout;
+    private ScheduledExecutorService scheduler;
+
+
+    @Autowired
+    public MemberOffboardingQueue(UserGroupConnector groupConnector,
+                                  OffboardingJobConnector jobConnector,
+                                  @Value("${user-group.offboarding.window}") Duration window,
+                                  @Value("${user-group.offboarding.max-batch-size}") int maxBatchSize,
+                                  @Value("${user-group.offboarding.job-retention}") Duration jobRetention,
+                                  @Value("${user-group.offboarding.claim-timeout}") Duration claimTimeout) {
+        this.groupConnector = groupConnector;
+        this.jobConnector = jobConnector;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.jobRetention = jobRetention;
+        this.claimTimeout = claimTimeout;
+    }
+
+
+    public OffboardingJob submit(String memberId, String institutionId, String productId) {
+        log.trace("submit start");
+        log.debug("submit memberId = {}, institutionId = {}, productId = {}", memberId, institutionId, productId);
+        OffboardingJob job = new OffboardingJob();
+        job.setMemberId(memberId);
+        job.setInstitutionId(institutionId);
+        job.setProductId(productId);
+        OffboardingJob result = jobConnector.insert(job);
+        log.debug("submit result = {}", result);
+        log.trace("submit end");
+        return result;
+    }
+
+
+    public Optional<OffboardingJob> findJob(String id) {
+        return jobConnector.findById(id);
+    }
+
+
+    void flush() {
+        List<OffboardingJob> claimed;
+        do {
+            claimed = jobConnector.claimPending(maxBatchSize, claimTimeout);
+            claimed.stream()
+                    .collect(Collectors.groupingBy(OffboardingTarget::of))
+                    .forEach(this::offboard);
+        } while (claimed.size() == maxBatchSize);
+        jobConnector.deleteCompletedBefore(Instant.now().minus(jobRetention));
+    }
+
+
+    private void offboard(OffboardingTarget target, List<OffboardingJob> targetJobs) {
+        Set<String> memberIds = targetJobs.stream()
+                .map(OffboardingJob::getMemberId)
+                .collect(Collectors.toSet());
+        OffboardingJobStatus status;
+        try {
+            long modifiedCount = groupConnector.bulkDeleteMembers(memberIds, target.getInstitutionId(), target.getProductId(),
+                    target.getSubmittedBy());
+            log.debug("offboard target = {}, members = {}, modifiedCount = {}", target, memberIds.size(), modifiedCount);
+            status = OffboardingJobStatus.COMPLETED;
+        } catch (RuntimeException e) {
+            log.error(String.format("Couldn't offboard %d members of %s", memberIds.size(), target), e);
+            status = OffboardingJobStatus.FAILED;
+        }
+        jobConnector.complete(targetJobs.stream()
+                .map(OffboardingJob::getId)
+                .collect(Collectors.toList()), status);
+    }
+
+
+    private void run() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // the claimed jobs are taken over once their claim times out, and the next run mustn't be cancelled
+            log.error("Couldn't flush the offboarding jobs", e);
+        }
+    }
+
+
+    @Override
+    public void start() {
+        log.info("Offboarded members are removed from their groups every {}", window);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-group-offboarding");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(window.toMillis() + 10_000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+    }
+
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+
+    @Data
+    private static class OffboardingTarget {
+        private final String institutionId;
+        private final String productId;
+        private final String submittedBy;
+
+        static OffboardingTarget of(OffboardingJob job) {
+            return new OffboardingTarget(job.getInstitutionId(), job.getProductId(), job.getSubmittedBy());
+        }
+    }
+
+}
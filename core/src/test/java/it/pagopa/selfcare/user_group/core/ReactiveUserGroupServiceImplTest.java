@@ -0,0 +1,123 @@
+package it.pagopa.selfcare.user_group.core;
+
+import it.pagopa.selfcare.user_group.connector.api.ReactiveUserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ValidationException;
+import java.util.List;
+
+import static java.util.UUID.randomUUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReactiveUserGroupServiceImplTest {
+
+    private final ReactiveUserGroupConnector groupConnectorMock = Mockito.mock(ReactiveUserGroupConnector.class);
+
+    private final ReactiveUserGroupServiceImpl groupService = new ReactiveUserGroupServiceImpl(groupConnectorMock, new String[]{"name"});
+
+
+    @Test
+    void getUserGroup() {
+        //given
+        String id = "id";
+        UserGroupOperations group = Mockito.mock(UserGroupOperations.class);
+        when(groupConnectorMock.findById(any()))
+                .thenReturn(Mono.just(group));
+        //when
+        UserGroupOperations result = groupService.getUserGroup(id).block();
+        //then
+        assertSame(group, result);
+        verify(groupConnectorMock, times(1))
+                .findById(id);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+
+    @Test
+    void getUserGroup_notFound() {
+        //given
+        when(groupConnectorMock.findById(any()))
+                .thenReturn(Mono.empty());
+        //when
+        Executable executable = () -> groupService.getUserGroup("id").block();
+        //then
+        assertThrows(ResourceNotFoundException.class, executable);
+    }
+
+
+    @Test
+    void isMember_nullMemberId() {
+        //when
+        Executable executable = () -> groupService.isMember("id", null);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("A member id is required", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+
+    @Test
+    void getGroupsOfMember() {
+        //given
+        String memberId = randomUUID().toString();
+        List<UserGroupStatus> status = List.of(UserGroupStatus.ACTIVE);
+        MemberGroup group = new MemberGroup();
+        when(groupConnectorMock.findGroupsOfMember(any(), any()))
+                .thenReturn(Flux.just(group));
+        //when
+        List<MemberGroup> result = groupService.getGroupsOfMember(memberId, status).collectList().block();
+        //then
+        assertEquals(List.of(group), result);
+        verify(groupConnectorMock, times(1))
+                .findGroupsOfMember(memberId, status);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+
+    @Test
+    void getUserGroups() {
+        //given
+        UserGroupFilter filter = new UserGroupFilter();
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("name"));
+        Page<UserGroupOperations> page = new PageImpl<>(List.of(), pageable, 0);
+        when(groupConnectorMock.findAll(any(), any()))
+                .thenReturn(Mono.just(page));
+        //when
+        Page<UserGroupOperations> result = groupService.getUserGroups(filter, pageable).block();
+        //then
+        assertSame(page, result);
+        verify(groupConnectorMock, times(1))
+                .findAll(filter, pageable);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+
+    @Test
+    void getUserGroups_invalidSortParams() {
+        //given
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("description"));
+        //when
+        Executable executable = () -> groupService.getUserGroups(new UserGroupFilter(), pageable);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Given sort parameters aren't valid", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+}
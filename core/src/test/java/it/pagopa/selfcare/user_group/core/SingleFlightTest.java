@@ -0,0 +1,83 @@
+package it.pagopa.selfcare.user_group.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void execute_coalesced() throws Exception {
+        //given
+        CountDownLatch coalesced = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(coalesced::countDown);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                try {
+                    // the follower joins the flight before it completes
+                    assertTrue(coalesced.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "result";
+            }));
+            while (calls.get() == 0) {
+                Thread.onSpinWait();
+            }
+            //when
+            Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }));
+            //then
+            assertEquals("result", leader.get(10, TimeUnit.SECONDS));
+            assertEquals("result", follower.get(10, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    void execute_notInFlight() {
+        //given
+        AtomicInteger coalesced = new AtomicInteger();
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(coalesced::incrementAndGet);
+        //when
+        Integer first = singleFlight.execute("key", () -> 1);
+        Integer second = singleFlight.execute("key", () -> 2);
+        //then
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(0, coalesced.get());
+    }
+
+
+    @Test
+    void execute_failure() {
+        //given
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(() -> {
+        });
+        IllegalStateException exception = new IllegalStateException();
+        //when
+        Executable executable = () -> singleFlight.execute("key", () -> {
+            throw exception;
+        });
+        //then
+        assertSame(exception, assertThrows(IllegalStateException.class, executable));
+        assertEquals(1, singleFlight.execute("key", () -> 1));
+    }
+
+}
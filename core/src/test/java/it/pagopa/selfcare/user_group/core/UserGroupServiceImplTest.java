@@ -7,9 +7,19 @@ import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
 import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationOutcome;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationType;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
 import it.pagopa.selfcare.user_group.core.config.CoreTestConfig;
+import it.pagopa.selfcare.user_group.core.offboarding.MemberOffboardingQueue;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +33,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -34,17 +46,20 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import javax.validation.ValidationException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.UUID.randomUUID;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.data.support.PageableExecutionUtils.getPage;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = {UserGroupServiceImpl.class, CoreTestConfig.class})
 @TestPropertySource(properties = {
-        "ALLOWED_SORTING_PARAMETERS=name"
+        "ALLOWED_SORTING_PARAMETERS=name",
+        "MEMBERS_BULK_MAX_OPERATIONS=2"
 })
 class UserGroupServiceImplTest {
 
@@ -56,6 +71,9 @@ class UserGroupServiceImplTest {
     @MockBean
     private UserGroupConnector groupConnectorMock;
 
+    @MockBean
+    private MemberOffboardingQueue offboardingQueueMock;
+
     @Autowired
     private UserGroupServiceImpl groupService;
 
@@ -120,7 +138,7 @@ class UserGroupServiceImplTest {
         Set<UUID> members = Set.of(randomUUID(), randomUUID());
         UserGroupOperations input = TestUtils.mockInstance(new DummyGroup(), "setId", "setCreateAt", "setModifiedAt");
         input.setId("id");
-        input.setMembers(members.stream().map(UUID::toString).collect(Collectors.toSet()));
+        input.setMembers(members);
         when(groupConnectorMock.insert(any(UserGroupOperations.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0, UserGroupOperations.class));
         //when
@@ -238,16 +256,15 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         UserGroupOperations group = TestUtils.mockInstance(new DummyGroup());
-        group.setStatus(UserGroupStatus.SUSPENDED);
-        when(groupConnectorMock.findById(Mockito.anyString()))
-                .thenReturn(Optional.of(group));
+        when(groupConnectorMock.updateGroup(Mockito.anyString(), any()))
+                .thenThrow(new ResourceUpdateException("Trying to modify suspended group"));
         //when
         Executable executable = () -> groupService.updateGroup(id, group);
         //then
         ResourceUpdateException e = assertThrows(ResourceUpdateException.class, executable);
         assertEquals("Trying to modify suspended group", e.getMessage());
         verify(groupConnectorMock, times(1))
-                .findById(id);
+                .updateGroup(id, group);
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
@@ -256,12 +273,14 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         UserGroupOperations input = new DummyGroup();
+        when(groupConnectorMock.updateGroup(Mockito.anyString(), any()))
+                .thenThrow(ResourceNotFoundException.class);
         //when
         Executable executable = () -> groupService.updateGroup(id, input);
         //then
         assertThrows(ResourceNotFoundException.class, executable);
         verify(groupConnectorMock, times(1))
-                .findById(id);
+                .updateGroup(id, input);
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
@@ -270,11 +289,8 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         UserGroupOperations group = TestUtils.mockInstance(new DummyGroup(), "setId");
-        UserGroupOperations foundGroup = TestUtils.mockInstance(new DummyGroup());
-        when(groupConnectorMock.findById(Mockito.anyString()))
-                .thenReturn(Optional.of(foundGroup));
-        when(groupConnectorMock.save(any()))
-                .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0, UserGroupOperations.class));
+        when(groupConnectorMock.updateGroup(Mockito.anyString(), any()))
+                .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(1, UserGroupOperations.class));
         //when
         UserGroupOperations saved = groupService.updateGroup(id, group);
         //then
@@ -282,9 +298,7 @@ class UserGroupServiceImplTest {
         assertEquals(saved.getMembers(), group.getMembers());
         assertEquals(saved.getName(), group.getName());
         verify(groupConnectorMock, times(1))
-                .findById(id);
-        verify(groupConnectorMock, times(1))
-                .save(any());
+                .updateGroup(id, group);
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
@@ -319,12 +333,14 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         UUID memberId = randomUUID();
+        doThrow(ResourceNotFoundException.class)
+                .when(groupConnectorMock).insertMember(Mockito.anyString(), Mockito.anyString());
         //when
         Executable executable = () -> groupService.addMember(id, memberId);
         //then
         assertThrows(ResourceNotFoundException.class, executable);
         verify(groupConnectorMock, times(1))
-                .findById(id);
+                .insertMember(id, memberId.toString());
         verifyNoMoreInteractions(groupConnectorMock);
 
     }
@@ -334,17 +350,15 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         UUID memberId = randomUUID();
-        UserGroupOperations group = TestUtils.mockInstance(new DummyGroup());
-        group.setStatus(UserGroupStatus.SUSPENDED);
-        when(groupConnectorMock.findById(Mockito.anyString()))
-                .thenReturn(Optional.of(group));
+        doThrow(new ResourceUpdateException("Trying to modify suspended group"))
+                .when(groupConnectorMock).insertMember(Mockito.anyString(), Mockito.anyString());
         //when
         Executable executable = () -> groupService.addMember(id, memberId);
         //then
         ResourceUpdateException e = assertThrows(ResourceUpdateException.class, executable);
         assertEquals("Trying to modify suspended group", e.getMessage());
         verify(groupConnectorMock, times(1))
-                .findById(id);
+                .insertMember(id, memberId.toString());
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
@@ -353,16 +367,11 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         UUID memberUUID = randomUUID();
-        UserGroupOperations group = TestUtils.mockInstance(new DummyGroup());
-        when(groupConnectorMock.findById(Mockito.anyString()))
-                .thenReturn(Optional.of(group));
         //when
         groupService.addMember(id, memberUUID);
         //then
         verify(groupConnectorMock, times(1))
-                .findById(id);
-        verify(groupConnectorMock, times(1))
-                .insertMember(Mockito.anyString(), Mockito.anyString());
+                .insertMember(id, memberUUID.toString());
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
@@ -397,12 +406,14 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         String memberId = randomUUID().toString();
+        doThrow(ResourceNotFoundException.class)
+                .when(groupConnectorMock).deleteMember(Mockito.anyString(), Mockito.anyString());
         //when
         Executable executable = () -> groupService.deleteMember(id, memberId);
         //then
         assertThrows(ResourceNotFoundException.class, executable);
         verify(groupConnectorMock, times(1))
-                .findById(id);
+                .deleteMember(id, memberId);
         verifyNoMoreInteractions(groupConnectorMock);
 
     }
@@ -412,17 +423,15 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         String memberId = randomUUID().toString();
-        UserGroupOperations group = TestUtils.mockInstance(new DummyGroup());
-        group.setStatus(UserGroupStatus.SUSPENDED);
-        when(groupConnectorMock.findById(Mockito.anyString()))
-                .thenReturn(Optional.of(group));
+        doThrow(new ResourceUpdateException("Trying to modify suspended group"))
+                .when(groupConnectorMock).deleteMember(Mockito.anyString(), Mockito.anyString());
         //when
         Executable executable = () -> groupService.deleteMember(id, memberId);
         //then
         ResourceUpdateException e = assertThrows(ResourceUpdateException.class, executable);
         assertEquals("Trying to modify suspended group", e.getMessage());
         verify(groupConnectorMock, times(1))
-                .findById(id);
+                .deleteMember(id, memberId);
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
@@ -431,21 +440,75 @@ class UserGroupServiceImplTest {
         //given
         String id = "id";
         String memberId = randomUUID().toString();
-
-        UserGroupOperations group = TestUtils.mockInstance(new DummyGroup());
-        when(groupConnectorMock.findById(Mockito.anyString()))
-                .thenReturn(Optional.of(group));
         //when
         Executable executable = () -> groupService.deleteMember(id, memberId);
         //then
         assertDoesNotThrow(executable);
         verify(groupConnectorMock, times(1))
-                .findById(id);
+                .deleteMember(id, memberId);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void updateMembers() {
+        //given
+        List<MemberOperation> operations = List.of(
+                new MemberOperation("groupId1", randomUUID().toString(), MemberOperationType.ADD),
+                new MemberOperation("groupId2", randomUUID().toString(), MemberOperationType.REMOVE));
+        List<MemberOperationResult> results = operations.stream()
+                .map(operation -> new MemberOperationResult(operation, MemberOperationOutcome.APPLIED, "institutionId"))
+                .collect(Collectors.toList());
+        when(groupConnectorMock.bulkUpdateMembers(any()))
+                .thenReturn(results);
+        //when
+        List<MemberOperationResult> result = groupService.updateMembers(operations);
+        //then
+        assertSame(results, result);
         verify(groupConnectorMock, times(1))
-                .deleteMember(Mockito.anyString(), Mockito.anyString());
+                .bulkUpdateMembers(operations);
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
+    @Test
+    void updateMembers_empty() {
+        //given
+        List<MemberOperation> operations = List.of();
+        //when
+        Executable executable = () -> groupService.updateMembers(operations);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("At least one member operation is required", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void updateMembers_tooManyOperations() {
+        //given
+        List<MemberOperation> operations = List.of(
+                new MemberOperation("groupId", randomUUID().toString(), MemberOperationType.ADD),
+                new MemberOperation("groupId", randomUUID().toString(), MemberOperationType.ADD),
+                new MemberOperation("groupId", randomUUID().toString(), MemberOperationType.ADD));
+        //when
+        Executable executable = () -> groupService.updateMembers(operations);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("At most 2 member operations are allowed", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void updateMembers_nullGroupId() {
+        //given
+        List<MemberOperation> operations = List.of(
+                new MemberOperation(null, randomUUID().toString(), MemberOperationType.ADD));
+        //when
+        Executable executable = () -> groupService.updateMembers(operations);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("A user group id is required", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
     @Test
     void deleteMembers_nullMemberId() {
         //given
@@ -503,6 +566,70 @@ class UserGroupServiceImplTest {
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
+    @Test
+    void offboardMember_nullMemberId() {
+        //given
+        String memberId = null;
+        String institutionId = "institutionId";
+        String productId = "productId";
+        //when
+        Executable executable = () -> groupService.offboardMember(memberId, institutionId, productId);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("A member id is required", e.getMessage());
+        verifyNoInteractions(offboardingQueueMock, groupConnectorMock);
+    }
+
+    @Test
+    void offboardMember() {
+        //given
+        String memberId = "memberId";
+        String institutionId = "institutionId";
+        String productId = "productId";
+        OffboardingJob job = new OffboardingJob();
+        job.setId("jobId");
+        when(offboardingQueueMock.submit(any(), any(), any()))
+                .thenReturn(job);
+        //when
+        OffboardingJob result = groupService.offboardMember(memberId, institutionId, productId);
+        //then
+        assertSame(job, result);
+        verify(offboardingQueueMock, times(1))
+                .submit(memberId, institutionId, productId);
+        verifyNoMoreInteractions(offboardingQueueMock);
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getOffboardingJob() {
+        //given
+        OffboardingJob job = new OffboardingJob();
+        job.setId("jobId");
+        when(offboardingQueueMock.findJob(any()))
+                .thenReturn(Optional.of(job));
+        //when
+        OffboardingJob result = groupService.getOffboardingJob("jobId");
+        //then
+        assertSame(job, result);
+        verify(offboardingQueueMock, times(1))
+                .findJob("jobId");
+        verifyNoMoreInteractions(offboardingQueueMock);
+    }
+
+    @Test
+    void getOffboardingJob_notFound() {
+        //given
+        when(offboardingQueueMock.findJob(any()))
+                .thenReturn(Optional.empty());
+        //when
+        Executable executable = () -> groupService.getOffboardingJob("jobId");
+        //then
+        assertThrows(ResourceNotFoundException.class, executable);
+        verify(offboardingQueueMock, times(1))
+                .findJob("jobId");
+        verifyNoMoreInteractions(offboardingQueueMock);
+    }
+
 
     @Test
     void getGroup() {
@@ -544,6 +671,50 @@ class UserGroupServiceImplTest {
         verifyNoInteractions(groupConnectorMock);
     }
 
+    @Test
+    void getUserGroupRevision() {
+        //given
+        String id = "id";
+        UserGroupRevision revision = new UserGroupRevision();
+        when(groupConnectorMock.findRevision(any()))
+                .thenReturn(revision);
+        //when
+        UserGroupRevision result = groupService.getUserGroupRevision(id);
+        //then
+        assertSame(revision, result);
+        verify(groupConnectorMock, times(1))
+                .findRevision(id);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupRevision_nullId() {
+        //when
+        Executable executable = () -> groupService.getUserGroupRevision(null);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("A user group id is required", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void userGroupsQuery_normalized() {
+        //given
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("name"));
+        UserGroupFilter filter = new UserGroupFilter("institutionId", "productId", (String) null,
+                List.of(UserGroupStatus.SUSPENDED, UserGroupStatus.ACTIVE, UserGroupStatus.ACTIVE));
+        UserGroupFilter sameFilter = new UserGroupFilter("institutionId", "productId", (String) null,
+                List.of(UserGroupStatus.ACTIVE, UserGroupStatus.SUSPENDED));
+        UserGroupFilter otherFilter = new UserGroupFilter("institutionId", "productId", (String) null,
+                List.of(UserGroupStatus.ACTIVE));
+        //when
+        UserGroupServiceImpl.UserGroupsQuery query = UserGroupServiceImpl.UserGroupsQuery.of(filter, pageable);
+        //then
+        assertEquals(query, UserGroupServiceImpl.UserGroupsQuery.of(sameFilter, PageRequest.of(0, 3, Sort.by("name"))));
+        assertNotEquals(query, UserGroupServiceImpl.UserGroupsQuery.of(otherFilter, pageable));
+        assertNotEquals(query, UserGroupServiceImpl.UserGroupsQuery.of(filter, PageRequest.of(1, 3, Sort.by("name"))));
+    }
+
     @Test
     void getUserGroups() {
         //given
@@ -571,6 +742,208 @@ class UserGroupServiceImplTest {
         verifyNoMoreInteractions(groupConnectorMock);
     }
 
+    @Test
+    void getUserGroupsSlice() {
+        //given
+        UserGroupFilter filterMock = new UserGroupFilter("institutionId", "productId", randomUUID().toString(), List.of(UserGroupStatus.ACTIVE));
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("name"));
+        when(groupConnectorMock.findSlice(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(new DummyGroup()), pageable, true));
+        //when
+        Slice<UserGroupOperations> slice = groupService.getUserGroupsSlice(filterMock, pageable);
+        //then
+        assertEquals(1, slice.getContent().size());
+        assertTrue(slice.hasNext());
+        verify(groupConnectorMock, times(1))
+                .findSlice(filterMock, pageable);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupsSlice_invalidSortParams() {
+        //given
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("description"));
+        //when
+        Executable executable = () -> groupService.getUserGroupsSlice(new UserGroupFilter(), pageable);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Given sort parameters aren't valid", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupsAfter() {
+        //given
+        UserGroupFilter filterMock = new UserGroupFilter("institutionId", "productId", randomUUID().toString(), List.of(UserGroupStatus.ACTIVE));
+        ContinuationToken continuationToken = new ContinuationToken("name", Sort.Direction.ASC, "groupName", "lastId");
+        int size = 1;
+        when(groupConnectorMock.findAllAfter(any(), any(), anyInt()))
+                .thenReturn(new SliceImpl<>(List.of(new DummyGroup()), PageRequest.of(0, size, continuationToken.getSort()), false));
+        //when
+        Slice<UserGroupOperations> slice = groupService.getUserGroupsAfter(filterMock, continuationToken, size);
+        //then
+        assertEquals(1, slice.getContent().size());
+        verify(groupConnectorMock, times(1))
+                .findAllAfter(filterMock, continuationToken, size);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupsAfter_invalidSortParams() {
+        //given
+        ContinuationToken continuationToken = new ContinuationToken("description", Sort.Direction.ASC, "groupDescription", "lastId");
+        //when
+        Executable executable = () -> groupService.getUserGroupsAfter(new UserGroupFilter(), continuationToken, 1);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Given sort parameters aren't valid", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupsAfter_invalidSize() {
+        //given
+        ContinuationToken continuationToken = new ContinuationToken("name", Sort.Direction.ASC, "groupName", "lastId");
+        //when
+        Executable executable = () -> groupService.getUserGroupsAfter(new UserGroupFilter(), continuationToken, 0);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("A positive page size is required", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupSummaries() {
+        //given
+        UserGroupFilter filterMock = new UserGroupFilter("institutionId", "productId", randomUUID().toString(), List.of(UserGroupStatus.ACTIVE));
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("name"));
+        UserGroupSummary summary = TestUtils.mockInstance(new UserGroupSummary());
+        when(groupConnectorMock.findSummaries(any(), any()))
+                .thenReturn(getPage(List.of(summary), pageable, () -> 1L));
+        //when
+        Page<UserGroupSummary> page = groupService.getUserGroupSummaries(filterMock, pageable);
+        //then
+        assertEquals(List.of(summary), page.getContent());
+        verify(groupConnectorMock, times(1))
+                .findSummaries(filterMock, pageable);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupSummaries_invalidSortParams() {
+        //given
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("description"));
+        //when
+        Executable executable = () -> groupService.getUserGroupSummaries(new UserGroupFilter(), pageable);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Given sort parameters aren't valid", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupsStream() {
+        //given
+        UserGroupFilter filter = new UserGroupFilter("institutionId", null, (String) null, List.of());
+        UserGroupOperations group = Mockito.mock(UserGroupOperations.class);
+        when(groupConnectorMock.streamAll(any()))
+                .thenReturn(Stream.of(group));
+        //when
+        List<UserGroupOperations> result;
+        try (Stream<UserGroupOperations> stream = groupService.getUserGroupsStream(filter)) {
+            result = stream.collect(Collectors.toList());
+        }
+        //then
+        assertEquals(List.of(group), result);
+        verify(groupConnectorMock, times(1))
+                .streamAll(filter);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getUserGroupsStream_nullInstitutionId() {
+        //given
+        UserGroupFilter filter = new UserGroupFilter(null, "productId", (String) null, List.of());
+        //when
+        Executable executable = () -> groupService.getUserGroupsStream(filter);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("An institution id is required", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getMembers() {
+        //given
+        String id = "id";
+        Pageable pageable = PageRequest.of(0, 2);
+        Page<UUID> members = getPage(List.of(randomUUID()), pageable, () -> 1L);
+        when(groupConnectorMock.findMembers(any(), any()))
+                .thenReturn(members);
+        //when
+        Page<UUID> result = groupService.getMembers(id, pageable);
+        //then
+        assertSame(members, result);
+        verify(groupConnectorMock, times(1))
+                .findMembers(id, pageable);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getMembers_sorted() {
+        //given
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("name"));
+        //when
+        Executable executable = () -> groupService.getMembers("id", pageable);
+        //then
+        ValidationException e = assertThrows(ValidationException.class, executable);
+        assertEquals("Given sort parameters aren't valid", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void isMember() {
+        //given
+        String id = "id";
+        String memberId = randomUUID().toString();
+        when(groupConnectorMock.existsMember(any(), any()))
+                .thenReturn(true);
+        //when
+        boolean result = groupService.isMember(id, memberId);
+        //then
+        assertTrue(result);
+        verify(groupConnectorMock, times(1))
+                .existsMember(id, memberId);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void isMember_nullMemberId() {
+        //when
+        Executable executable = () -> groupService.isMember("id", null);
+        //then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, executable);
+        assertEquals("A member id is required", e.getMessage());
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+    @Test
+    void getGroupsOfMember() {
+        //given
+        String memberId = randomUUID().toString();
+        List<UserGroupStatus> status = List.of(UserGroupStatus.ACTIVE);
+        List<MemberGroup> groups = List.of(new MemberGroup());
+        when(groupConnectorMock.findGroupsOfMember(any(), any()))
+                .thenReturn(groups);
+        //when
+        List<MemberGroup> result = groupService.getGroupsOfMember(memberId, status);
+        //then
+        assertSame(groups, result);
+        verify(groupConnectorMock, times(1))
+                .findGroupsOfMember(memberId, status);
+        verifyNoMoreInteractions(groupConnectorMock);
+    }
+
     @Test
     void getUserGroups_invalidSortParams() {
         //given
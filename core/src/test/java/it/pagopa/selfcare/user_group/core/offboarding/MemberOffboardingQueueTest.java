@@ -0,0 +1,158 @@
+package it.pagopa.selfcare.user_group.core.offboarding;
+
+import it.pagopa.selfcare.user_group.connector.api.OffboardingJobConnector;
+import it.pagopa.selfcare.user_group.connector.api.UserGroupConnector;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJobStatus;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MemberOffboardingQueueTest {
+
+    private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+
+    private final UserGroupConnector groupConnectorMock = Mockito.mock(UserGroupConnector.class);
+
+    private final OffboardingJobConnector jobConnectorMock = Mockito.mock(OffboardingJobConnector.class);
+
+    private final MemberOffboardingQueue queue = new MemberOffboardingQueue(groupConnectorMock, jobConnectorMock,
+            Duration.ofMinutes(1), 3, Duration.ofHours(1), CLAIM_TIMEOUT);
+
+
+    @Test
+    void submit() {
+        //given
+        OffboardingJob inserted = job("jobId", "memberId", "institutionId", "productId", "submitterId");
+        when(jobConnectorMock.insert(any()))
+                .thenReturn(inserted);
+        //when
+        OffboardingJob job = queue.submit("memberId", "institutionId", "productId");
+        //then
+        assertSame(inserted, job);
+        ArgumentCaptor<OffboardingJob> jobCaptor = ArgumentCaptor.forClass(OffboardingJob.class);
+        verify(jobConnectorMock, times(1))
+                .insert(jobCaptor.capture());
+        assertEquals("memberId", jobCaptor.getValue().getMemberId());
+        assertEquals("institutionId", jobCaptor.getValue().getInstitutionId());
+        assertEquals("productId", jobCaptor.getValue().getProductId());
+        verifyNoMoreInteractions(jobConnectorMock);
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+
+    @Test
+    void findJob() {
+        //given
+        OffboardingJob job = job("jobId", "memberId", "institutionId", "productId", "submitterId");
+        when(jobConnectorMock.findById(any()))
+                .thenReturn(Optional.of(job));
+        //when
+        Optional<OffboardingJob> result = queue.findJob("jobId");
+        //then
+        assertSame(job, result.orElseThrow());
+        verify(jobConnectorMock, times(1))
+                .findById("jobId");
+        verifyNoMoreInteractions(jobConnectorMock);
+    }
+
+
+    @Test
+    void flush_coalescesByTargetAndSubmitter() {
+        //given
+        when(jobConnectorMock.claimPending(anyInt(), any()))
+                .thenReturn(List.of(job("job1", "member1", "institutionId", "productId", "submitter1"),
+                        job("job2", "member2", "institutionId", "productId", "submitter1"),
+                        job("job3", "member3", "institutionId", "productId", "submitter2")))
+                .thenReturn(List.of(job("job4", "member4", "institutionId", "otherProductId", "submitter1")));
+        //when
+        queue.flush();
+        //then
+        verify(jobConnectorMock, times(2))
+                .claimPending(3, CLAIM_TIMEOUT);
+        verify(groupConnectorMock, times(1))
+                .bulkDeleteMembers(Set.of("member1", "member2"), "institutionId", "productId", "submitter1");
+        verify(groupConnectorMock, times(1))
+                .bulkDeleteMembers(Set.of("member3"), "institutionId", "productId", "submitter2");
+        verify(groupConnectorMock, times(1))
+                .bulkDeleteMembers(Set.of("member4"), "institutionId", "otherProductId", "submitter1");
+        verifyNoMoreInteractions(groupConnectorMock);
+        verify(jobConnectorMock, times(1))
+                .complete(List.of("job1", "job2"), OffboardingJobStatus.COMPLETED);
+        verify(jobConnectorMock, times(1))
+                .complete(List.of("job3"), OffboardingJobStatus.COMPLETED);
+        verify(jobConnectorMock, times(1))
+                .complete(List.of("job4"), OffboardingJobStatus.COMPLETED);
+        verify(jobConnectorMock, times(1))
+                .deleteCompletedBefore(any(Instant.class));
+        verifyNoMoreInteractions(jobConnectorMock);
+    }
+
+
+    @Test
+    void flush_nothingPending() {
+        //given
+        when(jobConnectorMock.claimPending(anyInt(), any()))
+                .thenReturn(Collections.emptyList());
+        //when
+        queue.flush();
+        //then
+        verify(jobConnectorMock, times(1))
+                .claimPending(3, CLAIM_TIMEOUT);
+        verify(jobConnectorMock, times(1))
+                .deleteCompletedBefore(any(Instant.class));
+        verifyNoMoreInteractions(jobConnectorMock);
+        verifyNoInteractions(groupConnectorMock);
+    }
+
+
+    @Test
+    void flush_failure() {
+        //given
+        when(jobConnectorMock.claimPending(anyInt(), any()))
+                .thenReturn(List.of(job("jobId", "memberId", "institutionId", "productId", "submitterId")));
+        when(groupConnectorMock.bulkDeleteMembers(any(), any(), any(), any()))
+                .thenThrow(ResourceUpdateException.class);
+        //when
+        queue.flush();
+        //then
+        verify(jobConnectorMock, times(1))
+                .complete(List.of("jobId"), OffboardingJobStatus.FAILED);
+    }
+
+
+    @Test
+    void startAndStop() {
+        //when
+        queue.start();
+        //then
+        assertTrue(queue.isRunning());
+        queue.stop();
+        assertFalse(queue.isRunning());
+    }
+
+
+    private static OffboardingJob job(String id, String memberId, String institutionId, String productId, String submittedBy) {
+        OffboardingJob job = new OffboardingJob();
+        job.setId(id);
+        job.setMemberId(memberId);
+        job.setInstitutionId(institutionId);
+        job.setProductId(productId);
+        job.setStatus(OffboardingJobStatus.PENDING);
+        job.setSubmittedBy(submittedBy);
+        return job;
+    }
+
+}
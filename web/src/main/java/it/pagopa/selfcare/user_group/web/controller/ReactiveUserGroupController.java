@@ -0,0 +1,128 @@
+package it.pagopa.selfcare.user_group.web.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import it.pagopa.selfcare.commons.web.model.Page;
+import it.pagopa.selfcare.commons.web.model.mapper.PageMapper;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.core.ReactiveUserGroupService;
+import it.pagopa.selfcare.user_group.web.model.MemberGroupResource;
+import it.pagopa.selfcare.user_group.web.model.UserGroupResource;
+import it.pagopa.selfcare.user_group.web.model.mapper.UserGroupMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Non-blocking variant of the read endpoints of {@link UserGroupController}: the servlet thread is released
+ * as soon as the query is sent and the response is written once the reactive driver completes it.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(prefix = "user-group.reactive", name = "enabled", havingValue = "true")
+@RequestMapping(value = "/user-groups/v1/reactive", produces = MediaType.APPLICATION_JSON_VALUE)
+@Api(tags = "user-group")
+public class ReactiveUserGroupController {
+
+    private final ReactiveUserGroupService groupService;
+    private final UserGroupMapper userGroupMapper;
+
+    @Autowired
+    public ReactiveUserGroupController(ReactiveUserGroupService groupService,
+                                       UserGroupMapper userGroupMapper) {
+        this.groupService = groupService;
+        this.userGroupMapper = userGroupMapper;
+    }
+
+
+    @GetMapping(value = "/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getUserGroup}")
+    public Mono<UserGroupResource> getUserGroup(@ApiParam("${swagger.user-group.model.id}")
+                                                @PathVariable("id")
+                                                        String id) {
+        log.trace("getUserGroup start");
+        log.debug("getUserGroup id = {}", id);
+        return groupService.getUserGroup(id)
+                .map(userGroupMapper::toResource)
+                .doOnSuccess(result -> {
+                    log.debug("getUserGroup result = {}", result);
+                    log.trace("getUserGroup end");
+                });
+    }
+
+
+    @GetMapping(value = "/")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getUserGroups}")
+    public Mono<Page<UserGroupResource>> getUserGroups(@ApiParam("${swagger.user-group.model.institutionId}")
+                                                       @RequestParam(value = "institutionId", required = false)
+                                                               String institutionId,
+                                                       @ApiParam("${swagger.user-group.model.productId}")
+                                                       @RequestParam(value = "productId", required = false)
+                                                               String productId,
+                                                       @ApiParam("${swagger.user-group.model.memberId}")
+                                                       @RequestParam(value = "userId", required = false)
+                                                               UUID memberId,
+                                                       @ApiParam("${swagger.user-group.model.statusFilter}")
+                                                       @RequestParam(value = "status", required = false)
+                                                               List<UserGroupStatus> status,
+                                                       Pageable pageable) {
+        log.trace("getUserGroups start");
+        log.debug("getUserGroups institutionId = {}, productId = {}, pageable = {}, status = {}", institutionId, productId, pageable, status);
+        UserGroupFilter filter = new UserGroupFilter(institutionId, productId, memberId, status);
+        return groupService.getUserGroups(filter, pageable)
+                .map(groups -> PageMapper.map(groups.map(userGroupMapper::toResource)))
+                .doOnSuccess(result -> {
+                    log.debug("getUserGroups result = {}", result);
+                    log.trace("getUserGroups end");
+                });
+    }
+
+
+    @GetMapping(value = "/{id}/members/{memberId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.checkMember}")
+    public Mono<Void> checkMember(@ApiParam("${swagger.user-group.model.id}")
+                                  @PathVariable("id")
+                                          String id,
+                                  @ApiParam("${swagger.user-group.model.memberId}")
+                                  @PathVariable("memberId")
+                                          UUID memberId) {
+        log.trace("checkMember start");
+        log.debug("checkMember id = {}, memberId = {}", id, memberId);
+        return groupService.isMember(id, memberId.toString())
+                .flatMap(isMember -> isMember ? Mono.<Void>empty() : Mono.error(new ResourceNotFoundException()))
+                .doOnSuccess(result -> log.trace("checkMember end"));
+    }
+
+
+    @GetMapping(value = "/members/{memberId}/groups")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getGroupsOfMember}")
+    public Flux<MemberGroupResource> getGroupsOfMember(@ApiParam("${swagger.user-group.model.memberId}")
+                                                       @PathVariable("memberId")
+                                                               UUID memberId,
+                                                       @ApiParam("${swagger.user-group.model.statusFilter}")
+                                                       @RequestParam(value = "status", required = false)
+                                                               List<UserGroupStatus> status) {
+        log.trace("getGroupsOfMember start");
+        log.debug("getGroupsOfMember memberId = {}, status = {}", memberId, status);
+        return groupService.getGroupsOfMember(memberId.toString(), status)
+                .map(userGroupMapper::toMemberGroupResource)
+                .doOnComplete(() -> log.trace("getGroupsOfMember end"));
+    }
+
+}
@@ -1,5 +1,7 @@
 package it.pagopa.selfcare.user_group.web.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -12,23 +14,41 @@ import it.pagopa.selfcare.commons.web.model.Page;
 import it.pagopa.selfcare.commons.web.model.Problem;
 import it.pagopa.selfcare.commons.web.model.mapper.PageMapper;
 import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceVersionMismatchException;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
 import it.pagopa.selfcare.user_group.core.UserGroupService;
-import it.pagopa.selfcare.user_group.web.model.CreateUserGroupDto;
-import it.pagopa.selfcare.user_group.web.model.UpdateUserGroupDto;
-import it.pagopa.selfcare.user_group.web.model.UserGroupResource;
+import it.pagopa.selfcare.user_group.web.model.*;
 import it.pagopa.selfcare.user_group.web.model.mapper.UserGroupMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.ValidationException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @RestController
@@ -36,14 +56,19 @@ import java.util.UUID;
 @Api(tags = "user-group")
 public class UserGroupController {
 
+    static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+
     private final UserGroupService groupService;
     private final UserGroupMapper userGroupMapper;
+    private final ObjectWriter resourceWriter;
 
     @Autowired
     public UserGroupController(UserGroupService groupService,
-                               UserGroupMapper userGroupMapper) {
+                               UserGroupMapper userGroupMapper,
+                               ObjectMapper objectMapper) {
         this.groupService = groupService;
         this.userGroupMapper = userGroupMapper;
+        this.resourceWriter = objectMapper.writerFor(UserGroupResource.class);
     }
 
     @PostMapping(value = "/", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -117,15 +142,28 @@ public class UserGroupController {
                     @Content(mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
                             schema = @Schema(implementation = Problem.class))
             })
+    @ApiResponse(responseCode = "412",
+            description = "Precondition Failed",
+            content = {
+                    @Content(mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+                            schema = @Schema(implementation = Problem.class))
+            })
     public UserGroupResource updateUserGroup(@ApiParam("${swagger.user-group.model.id}")
                                              @PathVariable("id")
                                                      String id,
+                                             @ApiParam("${swagger.user-group.model.ifMatch}")
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                     String ifMatch,
                                              @RequestBody
                                              @Valid
-                                                     UpdateUserGroupDto groupDto) {
+                                                     UpdateUserGroupDto groupDto,
+                                             HttpServletResponse response) {
         log.trace("updateUserGroup start");
-        log.debug("updateUserGroup id = {}", id);
-        UserGroupOperations updatedGroup = groupService.updateGroup(id, userGroupMapper.toUserGroupOperations(groupDto));
+        log.debug("updateUserGroup id = {}, ifMatch = {}", id, ifMatch);
+        GroupDto group = userGroupMapper.toUserGroupOperations(groupDto);
+        group.setVersion(toExpectedVersion(ifMatch));
+        UserGroupOperations updatedGroup = groupService.updateGroup(id, group);
+        setValidators(response, UserGroupRevision.of(updatedGroup));
         UserGroupResource result = userGroupMapper.toResource(updatedGroup);
         log.debug("updateUserGroup result = {}", result);
         log.trace("updateUserGroup end");
@@ -149,15 +187,62 @@ public class UserGroupController {
     }
 
 
-    @GetMapping(value = "/{id}")
+    @GetMapping(value = "/{id}/members")
     @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getMembers}")
+    public Page<UUID> getMembers(@ApiParam("${swagger.user-group.model.id}")
+                                 @PathVariable("id")
+                                         String id,
+                                 Pageable pageable) {
+        log.trace("getMembers start");
+        log.debug("getMembers id = {}, pageable = {}", id, pageable);
+        Page<UUID> result = PageMapper.map(groupService.getMembers(id, pageable));
+        log.debug("getMembers result = {}", result);
+        log.trace("getMembers end");
+        return result;
+    }
+
+
+    @GetMapping(value = "/{id}/members/{memberId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.checkMember}")
+    public void checkMember(@ApiParam("${swagger.user-group.model.id}")
+                            @PathVariable("id")
+                                    String id,
+                            @ApiParam("${swagger.user-group.model.memberId}")
+                            @PathVariable("memberId")
+                                    UUID memberId) {
+        log.trace("checkMember start");
+        log.debug("checkMember id = {}, memberId = {}", id, memberId);
+        if (!groupService.isMember(id, memberId.toString())) {
+            throw new ResourceNotFoundException();
+        }
+        log.trace("checkMember end");
+    }
+
+
+    @GetMapping(value = "/{id}")
     @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getUserGroup}")
     public UserGroupResource getUserGroup(@ApiParam("${swagger.user-group.model.id}")
                                           @PathVariable("id")
-                                                  String id) {
+                                                  String id,
+                                          HttpServletRequest request,
+                                          HttpServletResponse response) {
         log.trace("getUserGroup start");
         log.debug("getUserGroup id = {}", id);
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (isConditional(webRequest)) {
+            // a revalidation only reads the revision of the group, which is loaded just if it has changed
+            UserGroupRevision revision = groupService.getUserGroupRevision(id);
+            if (webRequest.checkNotModified(toETag(revision.getVersion()), toEpochMilli(revision.getModifiedAt()))) {
+                log.debug("getUserGroup not modified");
+                log.trace("getUserGroup end");
+                return null;
+            }
+        }
         UserGroupOperations group = groupService.getUserGroup(id);
+        // taken from the loaded group, which may be newer than the one just validated
+        setValidators(response, UserGroupRevision.of(group));
         UserGroupResource groupResource = userGroupMapper.toResource(group);
         log.debug("getUserGroup result = {}", groupResource);
         log.trace("getUserGroup end");
@@ -166,7 +251,7 @@ public class UserGroupController {
 
 
     @Tags({@Tag(name = "user-group"), @Tag(name = "support"), @Tag(name = "external-v2")})
-    @GetMapping(value = "/")
+    @GetMapping(value = "/", params = {"!continuationToken", "withCount!=false", "view!=summary"})
     @ResponseStatus(HttpStatus.OK)
     @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getUserGroups}")
     public Page<UserGroupResource> getUserGroups(@ApiParam("${swagger.user-group.model.institutionId}")
@@ -192,6 +277,129 @@ public class UserGroupController {
         return result;
     }
 
+    @Tags({@Tag(name = "user-group"), @Tag(name = "support"), @Tag(name = "external-v2")})
+    @GetMapping(value = "/", params = {"!continuationToken", "withCount=false", "view!=summary"})
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getUserGroupsSlice}")
+    public UserGroupSliceResource getUserGroupsSlice(@ApiParam("${swagger.user-group.model.institutionId}")
+                                                     @RequestParam(value = "institutionId", required = false)
+                                                             String institutionId,
+                                                     @ApiParam("${swagger.user-group.model.productId}")
+                                                     @RequestParam(value = "productId", required = false)
+                                                             String productId,
+                                                     @ApiParam("${swagger.user-group.model.memberId}")
+                                                     @RequestParam(value = "userId", required = false)
+                                                             UUID memberId,
+                                                     @ApiParam("${swagger.user-group.model.statusFilter}")
+                                                     @RequestParam(value = "status", required = false)
+                                                         List<UserGroupStatus> status,
+                                                     @ApiParam(value = "${swagger.user-group.model.withCount}", allowableValues = "false", required = true)
+                                                     @RequestParam(value = "withCount")
+                                                         boolean withCount,
+                                                     Pageable pageable,
+                                                     HttpServletResponse response) {
+        log.trace("getUserGroupsSlice start");
+        log.debug("getUserGroupsSlice institutionId = {}, productId = {}, pageable = {}, status = {}", institutionId, productId, pageable, status);
+        UserGroupFilter filter = new UserGroupFilter(institutionId, productId, memberId, status);
+        Slice<UserGroupOperations> groups = groupService.getUserGroupsSlice(filter, pageable);
+        setContinuationToken(response, groups, pageable.getSort());
+        UserGroupSliceResource result = toSliceResource(groups.map(userGroupMapper::toResource));
+        log.debug("getUserGroupsSlice result = {}", result);
+        log.trace("getUserGroupsSlice end");
+        return result;
+    }
+
+    @Tags({@Tag(name = "user-group"), @Tag(name = "support"), @Tag(name = "external-v2")})
+    @GetMapping(value = "/", params = {"continuationToken", "view!=summary"})
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getUserGroupsAfter}")
+    public UserGroupSliceResource getUserGroupsAfter(@ApiParam("${swagger.user-group.model.institutionId}")
+                                                     @RequestParam(value = "institutionId", required = false)
+                                                             String institutionId,
+                                                     @ApiParam("${swagger.user-group.model.productId}")
+                                                     @RequestParam(value = "productId", required = false)
+                                                             String productId,
+                                                     @ApiParam("${swagger.user-group.model.memberId}")
+                                                     @RequestParam(value = "userId", required = false)
+                                                             UUID memberId,
+                                                     @ApiParam("${swagger.user-group.model.statusFilter}")
+                                                     @RequestParam(value = "status", required = false)
+                                                         List<UserGroupStatus> status,
+                                                     @ApiParam(value = "${swagger.user-group.model.continuationToken}", required = true)
+                                                     @RequestParam(value = "continuationToken")
+                                                         String continuationToken,
+                                                     Pageable pageable,
+                                                     HttpServletResponse response) {
+        log.trace("getUserGroupsAfter start");
+        log.debug("getUserGroupsAfter institutionId = {}, productId = {}, size = {}, status = {}, continuationToken = {}", institutionId, productId, pageable.getPageSize(), status, continuationToken);
+        UserGroupFilter filter = new UserGroupFilter(institutionId, productId, memberId, status);
+        ContinuationToken token = decode(continuationToken);
+        Slice<UserGroupOperations> groups = groupService.getUserGroupsAfter(filter, token, pageable.getPageSize());
+        setContinuationToken(response, groups, token.getSort());
+        UserGroupSliceResource result = toSliceResource(groups.map(userGroupMapper::toResource));
+        log.debug("getUserGroupsAfter result = {}", result);
+        log.trace("getUserGroupsAfter end");
+        return result;
+    }
+
+    @GetMapping(value = "/", params = "view=summary")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getUserGroupSummaries}")
+    public Page<UserGroupSummaryResource> getUserGroupSummaries(@ApiParam("${swagger.user-group.model.institutionId}")
+                                                                @RequestParam(value = "institutionId", required = false)
+                                                                        String institutionId,
+                                                                @ApiParam("${swagger.user-group.model.productId}")
+                                                                @RequestParam(value = "productId", required = false)
+                                                                        String productId,
+                                                                @ApiParam("${swagger.user-group.model.memberId}")
+                                                                @RequestParam(value = "userId", required = false)
+                                                                        UUID memberId,
+                                                                @ApiParam("${swagger.user-group.model.statusFilter}")
+                                                                @RequestParam(value = "status", required = false)
+                                                                        List<UserGroupStatus> status,
+                                                                Pageable pageable) {
+        log.trace("getUserGroupSummaries start");
+        log.debug("getUserGroupSummaries institutionId = {}, productId = {}, pageable = {}, status = {}", institutionId, productId, pageable, status);
+        UserGroupFilter filter = new UserGroupFilter(institutionId, productId, memberId, status);
+        Page<UserGroupSummaryResource> result = PageMapper.map(groupService.getUserGroupSummaries(filter, pageable)
+                .map(userGroupMapper::toSummaryResource));
+        log.debug("getUserGroupSummaries result = {}", result);
+        log.trace("getUserGroupSummaries end");
+        return result;
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.exportUserGroups}")
+    public void exportUserGroups(@ApiParam("${swagger.user-group.model.institutionId}")
+                                 @RequestParam(value = "institutionId")
+                                         String institutionId,
+                                 @ApiParam("${swagger.user-group.model.productId}")
+                                 @RequestParam(value = "productId", required = false)
+                                         String productId,
+                                 @ApiParam("${swagger.user-group.model.statusFilter}")
+                                 @RequestParam(value = "status", required = false)
+                                         List<UserGroupStatus> status,
+                                 HttpServletResponse response) throws IOException {
+        log.trace("exportUserGroups start");
+        log.debug("exportUserGroups institutionId = {}, productId = {}, status = {}", institutionId, productId, status);
+        UserGroupFilter filter = new UserGroupFilter(institutionId, productId, (String) null, status);
+        long count = 0;
+        try (Stream<UserGroupOperations> groups = groupService.getUserGroupsStream(filter)) {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream outputStream = response.getOutputStream();
+            Iterator<UserGroupOperations> iterator = groups.iterator();
+            // a write blocks once the response buffer is full, so the cursor is read no faster than the client consumes
+            while (iterator.hasNext()) {
+                outputStream.write(resourceWriter.writeValueAsBytes(userGroupMapper.toResource(iterator.next())));
+                outputStream.write('\n');
+                count++;
+            }
+        }
+        log.debug("exportUserGroups count = {}", count);
+        log.trace("exportUserGroups end");
+    }
+
     @DeleteMapping(value = "/{id}/members/{memberId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.deleteMember}")
@@ -222,4 +430,140 @@ public class UserGroupController {
         log.trace("deleteMemberFromUserGroups end");
     }
 
+
+    @PostMapping(value = "/members/{memberId}/offboarding")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.offboardMember}")
+    public OffboardingJobResource offboardMember(@ApiParam("${swagger.user-group.model.memberId}")
+                                                 @PathVariable("memberId")
+                                                         UUID memberId,
+                                                 @RequestParam(value = "institutionId") String institutionId,
+                                                 @RequestParam(value = "productId") String productId) {
+        log.trace("offboardMember start");
+        log.debug("offboardMember memberId = {}, institutionId = {}, productId = {}", memberId, institutionId, productId);
+        OffboardingJobResource result = userGroupMapper.toOffboardingJobResource(groupService.offboardMember(memberId.toString(), institutionId, productId));
+        log.debug("offboardMember result = {}", result);
+        log.trace("offboardMember end");
+        return result;
+    }
+
+
+    @GetMapping(value = "/members/offboarding/{jobId}")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getOffboardingJob}")
+    public OffboardingJobResource getOffboardingJob(@ApiParam("${swagger.user-group.model.offboardingJobId}")
+                                                    @PathVariable("jobId")
+                                                            String jobId) {
+        log.trace("getOffboardingJob start");
+        log.debug("getOffboardingJob jobId = {}", jobId);
+        OffboardingJobResource result = userGroupMapper.toOffboardingJobResource(groupService.getOffboardingJob(jobId));
+        log.debug("getOffboardingJob result = {}", result);
+        log.trace("getOffboardingJob end");
+        return result;
+    }
+
+
+    @GetMapping(value = "/members/{memberId}/groups")
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.getGroupsOfMember}")
+    public List<MemberGroupResource> getGroupsOfMember(@ApiParam("${swagger.user-group.model.memberId}")
+                                                       @PathVariable("memberId")
+                                                               UUID memberId,
+                                                       @ApiParam("${swagger.user-group.model.statusFilter}")
+                                                       @RequestParam(value = "status", required = false)
+                                                               List<UserGroupStatus> status) {
+        log.trace("getGroupsOfMember start");
+        log.debug("getGroupsOfMember memberId = {}, status = {}", memberId, status);
+        List<MemberGroup> groups = groupService.getGroupsOfMember(memberId.toString(), status);
+        List<MemberGroupResource> result = groups.stream()
+                .map(userGroupMapper::toMemberGroupResource)
+                .collect(Collectors.toList());
+        log.debug("getGroupsOfMember result = {}", result);
+        log.trace("getGroupsOfMember end");
+        return result;
+    }
+
+
+    @PostMapping(value = "/members/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @ApiOperation(value = "", notes = "${swagger.user-group.groups.api.updateMembers}")
+    public List<MemberOperationResource> updateMembers(@RequestBody
+                                                       @Valid
+                                                               MemberOperationsDto operationsDto) {
+        log.trace("updateMembers start");
+        log.debug("updateMembers operationsDto = {}", operationsDto);
+        List<MemberOperationResult> results = groupService.updateMembers(operationsDto.getOperations().stream()
+                .map(userGroupMapper::toMemberOperation)
+                .collect(Collectors.toList()));
+        List<MemberOperationResource> result = results.stream()
+                .map(userGroupMapper::toMemberOperationResource)
+                .collect(Collectors.toList());
+        log.debug("updateMembers result = {}", result);
+        log.trace("updateMembers end");
+        return result;
+    }
+
+
+    private static ContinuationToken decode(String continuationToken) {
+        try {
+            return ContinuationToken.decode(continuationToken);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage(), e);
+        }
+    }
+
+
+    private static void setContinuationToken(HttpServletResponse response, Slice<UserGroupOperations> groups, Sort sort) {
+        if (groups.hasNext() && groups.hasContent()) {
+            ContinuationToken.after(groups.getContent().get(groups.getNumberOfElements() - 1), sort)
+                    .ifPresent(next -> response.setHeader(CONTINUATION_TOKEN_HEADER, next.encode()));
+        }
+    }
+
+
+    private static UserGroupSliceResource toSliceResource(Slice<UserGroupResource> slice) {
+        UserGroupSliceResource resource = new UserGroupSliceResource();
+        resource.setContent(slice.getContent());
+        resource.setNumber(slice.getNumber());
+        resource.setSize(slice.getSize());
+        resource.setHasNext(slice.hasNext());
+        return resource;
+    }
+
+
+    private static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private static void setValidators(HttpServletResponse response, UserGroupRevision revision) {
+        response.setHeader(HttpHeaders.ETAG, toETag(revision.getVersion()));
+        if (revision.getModifiedAt() != null) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, revision.getModifiedAt().toEpochMilli());
+        }
+    }
+
+    private static long toEpochMilli(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : -1;
+    }
+
+    private static String toETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static Long toExpectedVersion(String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        // If-Match uses the strong comparison: a weak ETag, or the one of a list of groups, never matches
+        String etag = ifMatch.trim();
+        if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            try {
+                return Long.parseLong(etag.substring(1, etag.length() - 1));
+            } catch (NumberFormatException e) {
+                log.debug("toExpectedVersion invalid ifMatch = {}", ifMatch);
+            }
+        }
+        throw new ResourceVersionMismatchException("The given If-Match doesn't match the current version of the group");
+    }
+
 }
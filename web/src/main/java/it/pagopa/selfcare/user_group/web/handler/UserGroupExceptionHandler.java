@@ -5,6 +5,7 @@ import it.pagopa.selfcare.commons.web.model.mapper.ProblemMapper;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceAlreadyExistsException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceVersionMismatchException;
 import it.pagopa.selfcare.user_group.web.controller.UserGroupController;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +30,12 @@ public class UserGroupExceptionHandler {
         return ProblemMapper.toResponseEntity(new Problem(BAD_REQUEST, e.getMessage()));
     }
 
+    @ExceptionHandler({ResourceVersionMismatchException.class})
+    ResponseEntity<Problem> handleResourceVersionMismatchException(ResourceVersionMismatchException e) {
+        log.warn(e.toString());
+        return ProblemMapper.toResponseEntity(new Problem(PRECONDITION_FAILED, e.getMessage()));
+    }
+
     @ExceptionHandler({ResourceNotFoundException.class})
     ResponseEntity<Problem> handleResourceNotFoundException(ResourceNotFoundException e) {
         log.warn(e.toString());
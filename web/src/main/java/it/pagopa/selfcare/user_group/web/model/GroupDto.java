@@ -6,6 +6,7 @@ import lombok.Data;
 
 import java.time.Instant;
 import java.util.Set;
+import java.util.UUID;
 
 @Data
 public class GroupDto implements UserGroupOperations {
@@ -15,9 +16,10 @@ public class GroupDto implements UserGroupOperations {
     private String name;
     private String description;
     private UserGroupStatus status;
-    private Set<String> members;
+    private Set<UUID> members;
     private Instant createdAt;
     private String createdBy;
     private Instant modifiedAt;
     private String modifiedBy;
+    private Long version;
 }
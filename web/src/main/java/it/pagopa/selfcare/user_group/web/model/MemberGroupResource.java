@@ -0,0 +1,19 @@
+package it.pagopa.selfcare.user_group.web.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+
+@Data
+public class MemberGroupResource {
+
+    @ApiModelProperty(value = "${swagger.user-group.model.id}", required = true)
+    @NotBlank
+    private String id;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.name}", required = true)
+    @NotBlank
+    private String name;
+
+}
@@ -0,0 +1,30 @@
+package it.pagopa.selfcare.user_group.web.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationType;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+@Data
+public class MemberOperationDto {
+
+    @ApiModelProperty(value = "${swagger.user-group.model.id}", required = true)
+    @JsonProperty(required = true)
+    @NotBlank
+    private String groupId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.memberId}", required = true)
+    @JsonProperty(required = true)
+    @NotNull
+    private UUID memberId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.memberOperationType}", required = true)
+    @JsonProperty(required = true)
+    @NotNull
+    private MemberOperationType type;
+
+}
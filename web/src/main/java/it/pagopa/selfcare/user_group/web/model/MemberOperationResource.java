@@ -0,0 +1,31 @@
+package it.pagopa.selfcare.user_group.web.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationOutcome;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationType;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+@Data
+public class MemberOperationResource {
+
+    @ApiModelProperty(value = "${swagger.user-group.model.id}", required = true)
+    @NotBlank
+    private String groupId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.memberId}", required = true)
+    @NotNull
+    private UUID memberId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.memberOperationType}", required = true)
+    @NotNull
+    private MemberOperationType type;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.memberOperationOutcome}", required = true)
+    @NotNull
+    private MemberOperationOutcome outcome;
+
+}
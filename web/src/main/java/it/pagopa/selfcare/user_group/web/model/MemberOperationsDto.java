@@ -0,0 +1,20 @@
+package it.pagopa.selfcare.user_group.web.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+public class MemberOperationsDto {
+
+    @ApiModelProperty(value = "${swagger.user-group.model.memberOperations}", required = true)
+    @JsonProperty(required = true)
+    @NotEmpty
+    @Valid
+    private List<MemberOperationDto> operations;
+
+}
@@ -0,0 +1,42 @@
+package it.pagopa.selfcare.user_group.web.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJobStatus;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+public class OffboardingJobResource {
+
+    @ApiModelProperty(value = "${swagger.user-group.model.offboardingJobId}", required = true)
+    @NotBlank
+    private String id;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.memberId}", required = true)
+    @NotNull
+    private UUID memberId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.institutionId}", required = true)
+    @NotBlank
+    private String institutionId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.productId}", required = true)
+    @NotBlank
+    private String productId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.offboardingJobStatus}", required = true)
+    @NotNull
+    private OffboardingJobStatus status;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.submittedAt}", required = true)
+    @NotNull
+    private Instant submittedAt;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.completedAt}")
+    private Instant completedAt;
+
+}
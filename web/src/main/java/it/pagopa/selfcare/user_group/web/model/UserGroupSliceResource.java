@@ -0,0 +1,25 @@
+package it.pagopa.selfcare.user_group.web.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+public class UserGroupSliceResource {
+
+    @ApiModelProperty(value = "${swagger.user-group.model.slice.content}", required = true)
+    @NotNull
+    private List<UserGroupResource> content;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.slice.number}", required = true)
+    private int number;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.slice.size}", required = true)
+    private int size;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.slice.hasNext}", required = true)
+    private boolean hasNext;
+
+}
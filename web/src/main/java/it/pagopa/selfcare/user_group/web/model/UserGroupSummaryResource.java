@@ -0,0 +1,36 @@
+package it.pagopa.selfcare.user_group.web.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Data
+public class UserGroupSummaryResource {
+
+    @ApiModelProperty(value = "${swagger.user-group.model.id}", required = true)
+    @NotBlank
+    private String id;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.institutionId}", required = true)
+    @NotBlank
+    private String institutionId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.productId}", required = true)
+    @NotBlank
+    private String productId;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.name}", required = true)
+    @NotBlank
+    private String name;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.status}", required = true)
+    @NotNull
+    private UserGroupStatus status;
+
+    @ApiModelProperty(value = "${swagger.user-group.model.membersCount}", required = true)
+    private int membersCount;
+
+}
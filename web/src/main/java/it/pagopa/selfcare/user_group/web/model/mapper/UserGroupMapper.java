@@ -1,18 +1,21 @@
 package it.pagopa.selfcare.user_group.web.model.mapper;
 
 import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
-import it.pagopa.selfcare.user_group.web.model.CreateUserGroupDto;
-import it.pagopa.selfcare.user_group.web.model.GroupDto;
-import it.pagopa.selfcare.user_group.web.model.UpdateUserGroupDto;
-import it.pagopa.selfcare.user_group.web.model.UserGroupResource;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
+import it.pagopa.selfcare.user_group.web.model.*;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Mapper(componentModel = "spring")
 public interface UserGroupMapper {
@@ -20,34 +23,55 @@ public interface UserGroupMapper {
     @Mapping(source = ".", target = "members", qualifiedByName = "getMembersUUID")
     UserGroupResource toResource(UserGroupOperations entity);
 
+    UserGroupSummaryResource toSummaryResource(UserGroupSummary summary);
+
+    MemberGroupResource toMemberGroupResource(MemberGroup group);
+
     @Mapping(source = ".", target = "members", qualifiedByName = "getMembers")
     GroupDto fromDto(CreateUserGroupDto dto);
 
     @Mapping(source = ".", target = "members", qualifiedByName = "getOperationMembers")
     GroupDto toUserGroupOperations(UpdateUserGroupDto dto);
 
+    default MemberOperation toMemberOperation(MemberOperationDto dto) {
+        return new MemberOperation(dto.getGroupId(), dto.getMemberId().toString(), dto.getType());
+    }
+
+    default MemberOperationResource toMemberOperationResource(MemberOperationResult result) {
+        MemberOperationResource resource = new MemberOperationResource();
+        resource.setGroupId(result.getOperation().getGroupId());
+        resource.setMemberId(UUID.fromString(result.getOperation().getMemberId()));
+        resource.setType(result.getOperation().getType());
+        resource.setOutcome(result.getOutcome());
+        return resource;
+    }
+
+    default OffboardingJobResource toOffboardingJobResource(OffboardingJob job) {
+        OffboardingJobResource resource = new OffboardingJobResource();
+        resource.setId(job.getId());
+        resource.setMemberId(UUID.fromString(job.getMemberId()));
+        resource.setInstitutionId(job.getInstitutionId());
+        resource.setProductId(job.getProductId());
+        resource.setStatus(job.getStatus());
+        resource.setCompletedAt(job.getCompletedAt());
+        resource.setSubmittedAt(job.getSubmittedAt());
+        return resource;
+    }
+
     @Named("getMembersUUID")
     default List<UUID> getMembersUUID(UserGroupOperations entity) {
-        return entity.getMembers()
-                .stream()
-                .map(UUID::fromString)
-                .collect(Collectors.toList());
+        // members are already UUIDs, so the list is a plain copy without any parsing
+        return new ArrayList<>(entity.getMembers());
     }
 
     @Named("getMembers")
-    default Set<String> getMembers(CreateUserGroupDto entity) {
-        return entity.getMembers()
-                .stream()
-                .map(UUID::toString)
-                .collect(Collectors.toSet());
+    default Set<UUID> getMembers(CreateUserGroupDto entity) {
+        return new HashSet<>(entity.getMembers());
     }
 
     @Named("getOperationMembers")
-    default Set<String> getOperationMembers(UpdateUserGroupDto entity) {
-        return entity.getMembers()
-                .stream()
-                .map(UUID::toString)
-                .collect(Collectors.toSet());
+    default Set<UUID> getOperationMembers(UpdateUserGroupDto entity) {
+        return new HashSet<>(entity.getMembers());
     }
 
 }
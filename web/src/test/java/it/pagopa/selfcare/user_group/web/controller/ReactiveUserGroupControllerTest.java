@@ -0,0 +1,194 @@
+package it.pagopa.selfcare.user_group.web.controller;
+
+import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.core.ReactiveUserGroupService;
+import it.pagopa.selfcare.user_group.web.config.WebTestConfig;
+import it.pagopa.selfcare.user_group.web.handler.UserGroupExceptionHandler;
+import it.pagopa.selfcare.user_group.web.model.GroupDto;
+import it.pagopa.selfcare.user_group.web.model.mapper.UserGroupMapperImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static it.pagopa.selfcare.commons.utils.TestUtils.mockInstance;
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = {ReactiveUserGroupController.class}, excludeAutoConfiguration = SecurityAutoConfiguration.class)
+@ContextConfiguration(classes = {
+        ReactiveUserGroupController.class,
+        UserGroupExceptionHandler.class,
+        WebTestConfig.class,
+        UserGroupMapperImpl.class
+})
+@TestPropertySource(properties = {
+        "user-group.reactive.enabled=true"
+})
+class ReactiveUserGroupControllerTest {
+
+    private static final String BASE_URL = "/user-groups/v1/reactive";
+
+    @MockBean
+    private ReactiveUserGroupService groupServiceMock;
+
+    @Autowired
+    protected MockMvc mvc;
+
+
+    @Test
+    void getUserGroup() throws Exception {
+        //given
+        String groupId = "groupId";
+        UserGroupOperations group = mockGroup(groupId);
+        when(groupServiceMock.getUserGroup(any()))
+                .thenReturn(Mono.just(group));
+        //when
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(BASE_URL + "/" + groupId)
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(groupId)))
+                .andExpect(jsonPath("$.name", is(group.getName())));
+        //then
+        verify(groupServiceMock, times(1))
+                .getUserGroup(groupId);
+        verifyNoMoreInteractions(groupServiceMock);
+    }
+
+
+    @Test
+    void getUserGroup_notFound() throws Exception {
+        //given
+        when(groupServiceMock.getUserGroup(any()))
+                .thenReturn(Mono.error(new ResourceNotFoundException()));
+        //when
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(BASE_URL + "/groupId")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+        //then
+        verify(groupServiceMock, times(1))
+                .getUserGroup("groupId");
+    }
+
+
+    @Test
+    void getUserGroups() throws Exception {
+        //given
+        String institutionId = "institutionId";
+        UserGroupOperations group = mockGroup("groupId");
+        when(groupServiceMock.getUserGroups(any(), any()))
+                .thenAnswer(invocation -> Mono.just(new PageImpl<>(List.of(group), invocation.getArgument(1, Pageable.class), 1)));
+        //when
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(BASE_URL + "/")
+                        .param("institutionId", institutionId)
+                        .param("status", "ACTIVE")
+                        .param("size", "1")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is("groupId")))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+        //then
+        ArgumentCaptor<UserGroupFilter> filterCaptor = ArgumentCaptor.forClass(UserGroupFilter.class);
+        verify(groupServiceMock, times(1))
+                .getUserGroups(filterCaptor.capture(), any());
+        assertEquals(institutionId, filterCaptor.getValue().getInstitutionId());
+        assertEquals(List.of(UserGroupStatus.ACTIVE), filterCaptor.getValue().getStatus());
+        verifyNoMoreInteractions(groupServiceMock);
+    }
+
+
+    @Test
+    void checkMember_notMember() throws Exception {
+        //given
+        UUID memberId = randomUUID();
+        when(groupServiceMock.isMember(any(), any()))
+                .thenReturn(Mono.just(false));
+        //when
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(BASE_URL + "/groupId/members/" + memberId)
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+        //then
+        verify(groupServiceMock, times(1))
+                .isMember("groupId", memberId.toString());
+        verifyNoMoreInteractions(groupServiceMock);
+    }
+
+
+    @Test
+    void getGroupsOfMember() throws Exception {
+        //given
+        UUID memberId = randomUUID();
+        MemberGroup group = new MemberGroup();
+        group.setId("groupId");
+        group.setName("groupName");
+        when(groupServiceMock.getGroupsOfMember(any(), any()))
+                .thenReturn(Flux.just(group));
+        //when
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get(BASE_URL + "/members/" + memberId + "/groups")
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("groupName")));
+        //then
+        verify(groupServiceMock, times(1))
+                .getGroupsOfMember(eq(memberId.toString()), any());
+        verifyNoMoreInteractions(groupServiceMock);
+    }
+
+
+    private static UserGroupOperations mockGroup(String id) {
+        UserGroupOperations group = mockInstance(new GroupDto(), "setId");
+        group.setId(id);
+        group.setMembers(Set.of(randomUUID()));
+        return group;
+    }
+
+}
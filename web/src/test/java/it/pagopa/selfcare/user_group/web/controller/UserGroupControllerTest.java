@@ -3,8 +3,19 @@ package it.pagopa.selfcare.user_group.web.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import it.pagopa.selfcare.user_group.connector.api.UserGroupOperations;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceVersionMismatchException;
+import it.pagopa.selfcare.user_group.connector.model.ContinuationToken;
+import it.pagopa.selfcare.user_group.connector.model.MemberGroup;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperation;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationOutcome;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationResult;
+import it.pagopa.selfcare.user_group.connector.model.MemberOperationType;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJob;
+import it.pagopa.selfcare.user_group.connector.model.OffboardingJobStatus;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupFilter;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupRevision;
 import it.pagopa.selfcare.user_group.connector.model.UserGroupStatus;
+import it.pagopa.selfcare.user_group.connector.model.UserGroupSummary;
 import it.pagopa.selfcare.user_group.core.UserGroupService;
 import it.pagopa.selfcare.user_group.web.config.WebTestConfig;
 import it.pagopa.selfcare.user_group.web.handler.UserGroupExceptionHandler;
@@ -18,24 +29,34 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static it.pagopa.selfcare.commons.utils.TestUtils.mockInstance;
 import static java.util.UUID.randomUUID;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.data.support.PageableExecutionUtils.getPage;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -202,7 +223,7 @@ class UserGroupControllerTest {
                     String id = invocationOnMock.getArgument(0, String.class);
                     UserGroupOperations group = invocationOnMock.getArgument(1, UserGroupOperations.class);
                     group.setId(id);
-                    group.setMembers(Set.of(randomUUID().toString(), randomUUID().toString()));
+                    group.setMembers(Set.of(randomUUID(), randomUUID()));
                     return group;
                 });
         //when
@@ -222,6 +243,72 @@ class UserGroupControllerTest {
         assertNotEquals(UPDATE_USER_GROUP_DTO.getMembers().size(), group.getMembers().size());
     }
 
+    @Test
+    void updateGroup_ifMatch() throws Exception {
+        //given
+        when(groupServiceMock.updateGroup(Mockito.anyString(), any(UserGroupOperations.class)))
+                .thenAnswer(invocationOnMock -> {
+                    UserGroupOperations group = invocationOnMock.getArgument(1, UserGroupOperations.class);
+                    GroupDto updatedGroup = new GroupDto();
+                    updatedGroup.setId(invocationOnMock.getArgument(0, String.class));
+                    updatedGroup.setName(group.getName());
+                    updatedGroup.setMembers(group.getMembers());
+                    updatedGroup.setVersion(group.getVersion() + 1);
+                    return updatedGroup;
+                });
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                        .put(BASE_URL + "/id")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .content(mapper.writeValueAsString(UPDATE_USER_GROUP_DTO))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.id", is("id")));
+        //then
+        ArgumentCaptor<UserGroupOperations> groupCaptor = ArgumentCaptor.forClass(UserGroupOperations.class);
+        verify(groupServiceMock, times(1))
+                .updateGroup(eq("id"), groupCaptor.capture());
+        assertEquals(2, groupCaptor.getValue().getVersion().longValue());
+        assertEquals(UPDATE_USER_GROUP_DTO.getName(), groupCaptor.getValue().getName());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void updateGroup_versionMismatch() throws Exception {
+        //given
+        when(groupServiceMock.updateGroup(Mockito.anyString(), any(UserGroupOperations.class)))
+                .thenThrow(new ResourceVersionMismatchException("The group has been modified since the expected version"));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                        .put(BASE_URL + "/id")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .content(mapper.writeValueAsString(UPDATE_USER_GROUP_DTO))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().contentType(APPLICATION_PROBLEM_JSON));
+        //then
+        verify(groupServiceMock, times(1))
+                .updateGroup(eq("id"), any(UserGroupOperations.class));
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void updateGroup_weakIfMatch() throws Exception {
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                        .put(BASE_URL + "/id")
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .content(mapper.writeValueAsString(UPDATE_USER_GROUP_DTO))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isPreconditionFailed());
+        //then
+        Mockito.verifyNoInteractions(groupServiceMock);
+    }
+
     @Test
     void addMember() throws Exception {
         //given
@@ -271,7 +358,7 @@ class UserGroupControllerTest {
                     String id = invocationOnMock.getArgument(0, String.class);
                     UserGroupOperations group = mockInstance(new GroupDto(), "setId");
                     group.setId(id);
-                    group.setMembers(Set.of(randomUUID().toString(), randomUUID().toString()));
+                    group.setMembers(Set.of(randomUUID(), randomUUID()));
                     return group;
                 });
         //when
@@ -286,6 +373,76 @@ class UserGroupControllerTest {
         assertNotNull(group);
     }
 
+    @Test
+    void getUserGroup_withValidators() throws Exception {
+        //given
+        UserGroupOperations groupOperations = mockInstance(new GroupDto());
+        groupOperations.setModifiedAt(Instant.parse("2022-01-01T10:15:30.123Z"));
+        groupOperations.setVersion(2L);
+        when(groupServiceMock.getUserGroup(any()))
+                .thenReturn(groupOperations);
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/groupId")
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        //then
+        verify(groupServiceMock, times(1))
+                .getUserGroup("groupId");
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getUserGroup_notModified() throws Exception {
+        //given
+        UserGroupRevision revision = new UserGroupRevision();
+        revision.setVersion(2);
+        revision.setModifiedAt(Instant.ofEpochMilli(1641032130123L));
+        when(groupServiceMock.getUserGroupRevision(any()))
+                .thenReturn(revision);
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/groupId")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+        //then
+        verify(groupServiceMock, times(1))
+                .getUserGroupRevision("groupId");
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getUserGroup_modified() throws Exception {
+        //given
+        UserGroupRevision revision = new UserGroupRevision();
+        revision.setVersion(3);
+        UserGroupOperations groupOperations = mockInstance(new GroupDto());
+        groupOperations.setVersion(3L);
+        when(groupServiceMock.getUserGroupRevision(any()))
+                .thenReturn(revision);
+        when(groupServiceMock.getUserGroup(any()))
+                .thenReturn(groupOperations);
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/groupId")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.id", is(groupOperations.getId())));
+        //then
+        verify(groupServiceMock, times(1))
+                .getUserGroupRevision("groupId");
+        verify(groupServiceMock, times(1))
+                .getUserGroup("groupId");
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
     @Test
     void getUserGroups() throws Exception {
         //given
@@ -296,7 +453,7 @@ class UserGroupControllerTest {
         final int page = 1;
         final int size = 3;
         UserGroupOperations groupOperations = mockInstance(new GroupDto());
-        groupOperations.setMembers(Set.of(randomUUID().toString()));
+        groupOperations.setMembers(Set.of(randomUUID()));
         when(groupServiceMock.getUserGroups(any(), any()))
                 .thenAnswer(invocation -> {
                     final Pageable pageable = invocation.getArgument(1, Pageable.class);
@@ -331,7 +488,10 @@ class UserGroupControllerTest {
                 .andExpect(jsonPath("$.content[0].createdAt", notNullValue()))
                 .andExpect(jsonPath("$.content[0].createdBy", notNullValue()))
                 .andExpect(jsonPath("$.content[0].modifiedAt", notNullValue()))
-                .andExpect(jsonPath("$.content[0].modifiedBy", notNullValue()));
+                .andExpect(jsonPath("$.content[0].modifiedBy", notNullValue()))
+                .andExpect(jsonPath("$.hasNext").doesNotExist())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist("X-Continuation-Token"));
         //then
         ArgumentCaptor<UserGroupFilter> filterCaptor = ArgumentCaptor.forClass(UserGroupFilter.class);
         verify(groupServiceMock, times(1))
@@ -346,6 +506,301 @@ class UserGroupControllerTest {
         assertEquals(size, capturedPageable.getPageSize());
     }
 
+    @Test
+    void getUserGroups_withoutCount() throws Exception {
+        //given
+        String institutionId = "institutionId";
+        final int page = 1;
+        final int size = 1;
+        UserGroupOperations groupOperations = mockInstance(new GroupDto());
+        groupOperations.setMembers(Set.of(randomUUID()));
+        when(groupServiceMock.getUserGroupsSlice(any(), any()))
+                .thenAnswer(invocation -> new SliceImpl<>(List.of(groupOperations), invocation.getArgument(1, Pageable.class), true));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/")
+                .param("institutionId", institutionId)
+                .param("withCount", "false")
+                .param("page", String.valueOf(page))
+                .param("size", String.valueOf(size))
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.number", is(page)))
+                .andExpect(jsonPath("$.size", is(size)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist())
+                .andExpect(jsonPath("$.content[0].id", notNullValue()))
+                .andExpect(header().doesNotExist("X-Continuation-Token"));
+        //then
+        verify(groupServiceMock, times(1))
+                .getUserGroupsSlice(any(), pageableCaptor.capture());
+        Pageable capturedPageable = pageableCaptor.getValue();
+        assertEquals(page, capturedPageable.getPageNumber());
+        assertEquals(size, capturedPageable.getPageSize());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getUserGroups_continuationTokenReturned() throws Exception {
+        //given
+        final int size = 1;
+        UserGroupOperations groupOperations = mockInstance(new GroupDto());
+        groupOperations.setMembers(Set.of(randomUUID()));
+        when(groupServiceMock.getUserGroupsSlice(any(), any()))
+                .thenAnswer(invocation -> new SliceImpl<>(List.of(groupOperations), invocation.getArgument(1, Pageable.class), true));
+        //when
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/")
+                .param("institutionId", "institutionId")
+                .param("withCount", "false")
+                .param("size", String.valueOf(size))
+                .param("sort", "name,desc")
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Continuation-Token"))
+                .andReturn();
+        //then
+        ContinuationToken token = ContinuationToken.decode(result.getResponse().getHeader("X-Continuation-Token"));
+        assertEquals("name", token.getSortProperty());
+        assertEquals(Sort.Direction.DESC, token.getDirection());
+        assertEquals(groupOperations.getName(), token.getSortValue());
+        assertEquals(groupOperations.getId(), token.getLastId());
+        verify(groupServiceMock, times(1))
+                .getUserGroupsSlice(any(), any());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getUserGroups_withContinuationToken() throws Exception {
+        //given
+        final int size = 1;
+        ContinuationToken continuationToken = new ContinuationToken("name", Sort.Direction.ASC, "groupName", "lastId");
+        UserGroupOperations groupOperations = mockInstance(new GroupDto());
+        groupOperations.setMembers(Set.of(randomUUID()));
+        when(groupServiceMock.getUserGroupsAfter(any(), any(), anyInt()))
+                .thenAnswer(invocation -> new SliceImpl<>(List.of(groupOperations), PageRequest.of(0, size, continuationToken.getSort()), false));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/")
+                .param("institutionId", "institutionId")
+                .param("size", String.valueOf(size))
+                .param("continuationToken", continuationToken.encode())
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Continuation-Token"))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(groupOperations.getId())))
+                .andExpect(jsonPath("$.hasNext", is(false)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+        //then
+        verify(groupServiceMock, times(1))
+                .getUserGroupsAfter(any(), eq(continuationToken), eq(size));
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getUserGroups_withContinuationTokenAndWithoutCount() throws Exception {
+        //given
+        ContinuationToken continuationToken = new ContinuationToken("name", Sort.Direction.ASC, "groupName", "lastId");
+        when(groupServiceMock.getUserGroupsAfter(any(), any(), anyInt()))
+                .thenAnswer(invocation -> new SliceImpl<>(List.of(), PageRequest.of(0, 1, continuationToken.getSort()), false));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/")
+                .param("institutionId", "institutionId")
+                .param("withCount", "false")
+                .param("continuationToken", continuationToken.encode())
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext", is(false)));
+        //then
+        verify(groupServiceMock, times(1))
+                .getUserGroupsAfter(any(), eq(continuationToken), anyInt());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getUserGroups_invalidContinuationToken() throws Exception {
+        //given
+        String continuationToken = "invalid";
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/")
+                .param("institutionId", "institutionId")
+                .param("continuationToken", continuationToken)
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+        //then
+        Mockito.verifyNoInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getUserGroupSummaries() throws Exception {
+        //given
+        String institutionId = "institutionId";
+        UserGroupSummary summary = mockInstance(new UserGroupSummary());
+        when(groupServiceMock.getUserGroupSummaries(any(), any()))
+                .thenAnswer(invocation -> getPage(List.of(summary), invocation.getArgument(1, Pageable.class), () -> 1L));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/")
+                .param("institutionId", institutionId)
+                .param("view", "summary")
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(1)))
+                .andExpect(jsonPath("$.content[0].id", is(summary.getId())))
+                .andExpect(jsonPath("$.content[0].name", is(summary.getName())))
+                .andExpect(jsonPath("$.content[0].membersCount", is(summary.getMembersCount())))
+                .andExpect(jsonPath("$.content[0].members").doesNotExist());
+        //then
+        ArgumentCaptor<UserGroupFilter> filterCaptor = ArgumentCaptor.forClass(UserGroupFilter.class);
+        verify(groupServiceMock, times(1))
+                .getUserGroupSummaries(filterCaptor.capture(), any());
+        assertEquals(institutionId, filterCaptor.getValue().getInstitutionId());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getMembers() throws Exception {
+        //given
+        String groupId = "groupId";
+        UUID memberId = randomUUID();
+        when(groupServiceMock.getMembers(any(), any()))
+                .thenAnswer(invocation -> getPage(List.of(memberId), invocation.getArgument(1, Pageable.class), () -> 3L));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/" + groupId + "/members")
+                .param("page", "0")
+                .param("size", "1")
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0]", is(memberId.toString())))
+                .andExpect(jsonPath("$.totalElements", is(3)));
+        //then
+        verify(groupServiceMock, times(1))
+                .getMembers(eq(groupId), pageableCaptor.capture());
+        assertEquals(1, pageableCaptor.getValue().getPageSize());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void checkMember() throws Exception {
+        //given
+        String groupId = "groupId";
+        UUID memberId = randomUUID();
+        when(groupServiceMock.isMember(any(), any()))
+                .thenReturn(true);
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/" + groupId + "/members/" + memberId)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isNoContent());
+        //then
+        verify(groupServiceMock, times(1))
+                .isMember(groupId, memberId.toString());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void checkMember_notMember() throws Exception {
+        //given
+        String groupId = "groupId";
+        UUID memberId = randomUUID();
+        when(groupServiceMock.isMember(any(), any()))
+                .thenReturn(false);
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/" + groupId + "/members/" + memberId)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isNotFound());
+        //then
+        verify(groupServiceMock, times(1))
+                .isMember(groupId, memberId.toString());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getGroupsOfMember() throws Exception {
+        //given
+        UUID memberId = randomUUID();
+        MemberGroup group = new MemberGroup();
+        group.setId("groupId");
+        group.setName("groupName");
+        when(groupServiceMock.getGroupsOfMember(any(), any()))
+                .thenReturn(List.of(group));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/members/" + memberId + "/groups")
+                .param("status", "ACTIVE")
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is("groupId")))
+                .andExpect(jsonPath("$[0].name", is("groupName")));
+        //then
+        verify(groupServiceMock, times(1))
+                .getGroupsOfMember(memberId.toString(), List.of(UserGroupStatus.ACTIVE));
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void exportUserGroups() throws Exception {
+        //given
+        String institutionId = "institutionId";
+        List<UserGroupOperations> groups = List.of(mockInstance(new GroupDto()), mockInstance(new GroupDto()));
+        for (int i = 0; i < groups.size(); i++) {
+            groups.get(i).setId("groupId" + i);
+            groups.get(i).setMembers(Set.of(randomUUID()));
+        }
+        when(groupServiceMock.getUserGroupsStream(any()))
+                .thenReturn(groups.stream());
+        //when
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/export")
+                .param("institutionId", institutionId)
+                .param("status", "ACTIVE")
+                .accept(APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_NDJSON_VALUE))
+                .andReturn();
+        //then
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(groups.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            UserGroupResource resource = mapper.readValue(lines[i], UserGroupResource.class);
+            assertEquals(groups.get(i).getId(), resource.getId());
+            assertEquals(groups.get(i).getMembers(), Set.copyOf(resource.getMembers()));
+        }
+        ArgumentCaptor<UserGroupFilter> filterCaptor = ArgumentCaptor.forClass(UserGroupFilter.class);
+        verify(groupServiceMock, times(1))
+                .getUserGroupsStream(filterCaptor.capture());
+        assertEquals(institutionId, filterCaptor.getValue().getInstitutionId());
+        assertNull(filterCaptor.getValue().getUserId());
+        assertEquals(List.of(UserGroupStatus.ACTIVE), filterCaptor.getValue().getStatus());
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void exportUserGroups_missingInstitutionId() throws Exception {
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/export")
+                .accept(APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isBadRequest());
+        //then
+        verifyNoInteractions(groupServiceMock);
+    }
+
     @Test
     void deleteMembers() throws Exception {
         //given
@@ -368,4 +823,127 @@ class UserGroupControllerTest {
         Mockito.verifyNoMoreInteractions(groupServiceMock);
     }
 
-}
\ No newline at end of file
+    @Test
+    void offboardMember() throws Exception {
+        //given
+        UUID memberId = randomUUID();
+        String institutionId = "institutionId";
+        String productId = "productId";
+        OffboardingJob job = new OffboardingJob();
+        job.setId("jobId");
+        job.setMemberId(memberId.toString());
+        job.setInstitutionId(institutionId);
+        job.setProductId(productId);
+        job.setStatus(OffboardingJobStatus.PENDING);
+        job.setSubmittedAt(Instant.now());
+        when(groupServiceMock.offboardMember(any(), any(), any()))
+                .thenReturn(job);
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .post(BASE_URL + "/members/" + memberId + "/offboarding")
+                .param("institutionId", institutionId)
+                .param("productId", productId)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is("jobId")))
+                .andExpect(jsonPath("$.memberId", is(memberId.toString())))
+                .andExpect(jsonPath("$.status", is(OffboardingJobStatus.PENDING.name())))
+                .andExpect(jsonPath("$.submittedAt", notNullValue()))
+                .andExpect(jsonPath("$.completedAt", nullValue()));
+        //then
+        verify(groupServiceMock, times(1))
+                .offboardMember(memberId.toString(), institutionId, productId);
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getOffboardingJob() throws Exception {
+        //given
+        OffboardingJob job = new OffboardingJob();
+        job.setId("jobId");
+        job.setMemberId(randomUUID().toString());
+        job.setInstitutionId("institutionId");
+        job.setProductId("productId");
+        job.setSubmittedAt(Instant.now());
+        job.setCompletedAt(Instant.now());
+        job.setStatus(OffboardingJobStatus.COMPLETED);
+        when(groupServiceMock.getOffboardingJob(any()))
+                .thenReturn(job);
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/members/offboarding/jobId")
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is("jobId")))
+                .andExpect(jsonPath("$.status", is(OffboardingJobStatus.COMPLETED.name())))
+                .andExpect(jsonPath("$.completedAt", notNullValue()));
+        //then
+        verify(groupServiceMock, times(1))
+                .getOffboardingJob("jobId");
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void getOffboardingJob_notFound() throws Exception {
+        //given
+        when(groupServiceMock.getOffboardingJob(any()))
+                .thenThrow(ResourceNotFoundException.class);
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .get(BASE_URL + "/members/offboarding/jobId")
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isNotFound());
+        //then
+        verify(groupServiceMock, times(1))
+                .getOffboardingJob("jobId");
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void updateMembers() throws Exception {
+        //given
+        MemberOperationDto operationDto = new MemberOperationDto();
+        operationDto.setGroupId("groupId");
+        operationDto.setMemberId(randomUUID());
+        operationDto.setType(MemberOperationType.ADD);
+        MemberOperationsDto operationsDto = new MemberOperationsDto();
+        operationsDto.setOperations(List.of(operationDto));
+        when(groupServiceMock.updateMembers(any()))
+                .thenAnswer(invocation -> invocation.<List<MemberOperation>>getArgument(0).stream()
+                        .map(operation -> new MemberOperationResult(operation, MemberOperationOutcome.GROUP_NOT_ACTIVE, "institutionId"))
+                        .collect(Collectors.toList()));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .post(BASE_URL + "/members/bulk")
+                .content(mapper.writeValueAsString(operationsDto))
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].groupId", is(operationDto.getGroupId())))
+                .andExpect(jsonPath("$[0].memberId", is(operationDto.getMemberId().toString())))
+                .andExpect(jsonPath("$[0].type", is(MemberOperationType.ADD.name())))
+                .andExpect(jsonPath("$[0].outcome", is(MemberOperationOutcome.GROUP_NOT_ACTIVE.name())));
+        //then
+        verify(groupServiceMock, times(1))
+                .updateMembers(List.of(new MemberOperation(operationDto.getGroupId(), operationDto.getMemberId().toString(), MemberOperationType.ADD)));
+        Mockito.verifyNoMoreInteractions(groupServiceMock);
+    }
+
+    @Test
+    void updateMembers_invalidOperation() throws Exception {
+        //given
+        MemberOperationsDto operationsDto = new MemberOperationsDto();
+        operationsDto.setOperations(List.of(new MemberOperationDto()));
+        //when
+        mvc.perform(MockMvcRequestBuilders
+                .post(BASE_URL + "/members/bulk")
+                .content(mapper.writeValueAsString(operationsDto))
+                .contentType(APPLICATION_JSON_VALUE)
+                .accept(APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+        //then
+        Mockito.verifyNoInteractions(groupServiceMock);
+    }
+
+}
@@ -4,6 +4,7 @@ import it.pagopa.selfcare.commons.web.model.Problem;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceAlreadyExistsException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceNotFoundException;
 import it.pagopa.selfcare.user_group.connector.exception.ResourceUpdateException;
+import it.pagopa.selfcare.user_group.connector.exception.ResourceVersionMismatchException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.ResponseEntity;
@@ -65,4 +66,20 @@ class UserGroupExceptionHandlerTest {
         assertEquals(BAD_REQUEST.value(), responseEntity.getBody().getStatus());
     }
 
-}
\ No newline at end of file
+    @Test
+    void resourceVersionMismatchException() {
+        //given
+        ResourceVersionMismatchException mockException = Mockito.mock(ResourceVersionMismatchException.class);
+        Mockito.when(mockException.getMessage())
+                .thenReturn(DETAIL_MESSAGE);
+        //when
+        ResponseEntity<Problem> responseEntity = handler.handleResourceVersionMismatchException(mockException);
+        //then
+        assertNotNull(responseEntity);
+        assertEquals(PRECONDITION_FAILED, responseEntity.getStatusCode());
+        assertNotNull(responseEntity.getBody());
+        assertEquals(DETAIL_MESSAGE, responseEntity.getBody().getDetail());
+        assertEquals(PRECONDITION_FAILED.value(), responseEntity.getBody().getStatus());
+    }
+
+}